@@ -0,0 +1,48 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: MIT
+
+import net.ltgt.gradle.errorprone.errorprone
+
+buildscript { dependencyLocking { lockAllConfigurations() } }
+
+plugins {
+  our.javacompile
+  alias(libs.plugins.jmh)
+}
+
+dependencyLocking {
+  lockAllConfigurations()
+}
+
+dependencies {
+  jmh(projects.git)
+  jmh(projects.semver)
+  jmh(testFixtures(projects.git))
+  jmh(libs.jgit)
+}
+
+jmh {
+  // generated histories are expensive, keep them between runs
+  jvmArgsAppend.add(layout.buildDirectory.dir("repositories").map { "-Dbenchmark.repositories=${it.asFile}" })
+  // allocation rate and bytes per operation next to the time
+  profilers.add("gc")
+  resultFormat.set("JSON")
+  resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+}
+
+tasks.register<Copy>("jmhBaseline") {
+  description = "Keeps the last JMH results as the baseline to compare against."
+  mustRunAfter("jmh")
+  from(layout.buildDirectory.file("results/jmh/results.json"))
+  into(layout.projectDirectory)
+  rename { "baseline.json" }
+}
+
+tasks.named<JavaCompile>("compileJmhJava") {
+  options.errorprone.option("NullAway:CustomInitializerAnnotations", "org.openjdk.jmh.annotations.Setup")
+}
+
+tasks.named<JavaCompile>("jmhCompileGeneratedClasses") {
+  options.errorprone.enabled.set(false)
+}
@@ -0,0 +1,96 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraph;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.jspecify.annotations.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Merge base of a topic branch and main and the distance from it to the last version tag, found by the fused branch
+ * walk and by a merge base search followed by a separate describe.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BranchWalkBenchmark {
+
+  private static final String VERSION = Constants.R_TAGS + "v1.0.0";
+
+  @Param({ "10000", "1000000" })
+  int commits;
+
+  // commits between the merge base and the tag
+  @Param({ "100", "5000" })
+  int sinceTag;
+
+  @Param({ "true", "false" })
+  boolean graphed;
+
+  Repository repo;
+  ObjectReader reader;
+  @Nullable
+  CommitGraph graph;
+
+  TagIndex tags;
+  ObjectId main;
+  ObjectId topic;
+
+  @Setup
+  public void setUp() throws IOException {
+    this.repo = SyntheticHistory.open(this.commits);
+    this.reader = this.repo.newObjectReader();
+    this.graph = this.graphed ? Objects.requireNonNull(new CommitGraphs(this.repo).load(this.reader)) : null;
+    this.main = this.repo.resolve(SyntheticHistory.MAIN);
+    this.topic = this.repo.resolve(SyntheticHistory.TOPIC);
+    // the merge base is where the topic forks, so the tag is counted from there
+    var tagged = this.repo.resolve(SyntheticHistory.TOPIC + '~' + (SyntheticHistory.TIP_COMMITS + this.sinceTag));
+    var update = this.repo.getRefDatabase().newUpdate(VERSION, false);
+    update.setNewObjectId(tagged);
+    update.forceUpdate();
+    this.tags = TagIndex.scan(this.repo);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    var delete = this.repo.getRefDatabase().newUpdate(VERSION, false);
+    delete.setForceUpdate(true);
+    delete.delete();
+    this.reader.close();
+    this.repo.close();
+  }
+
+  @Benchmark
+  public BranchWalk.Branch fused() throws IOException {
+    return BranchWalk.walk(this.reader, this.graph, this.tags, this.topic, this.main);
+  }
+
+  @Benchmark
+  public DescribeWalk.Described separate() throws IOException {
+    var mergeBase = MergeBaseFinder.mergeBase(this.reader, this.graph, this.main, this.topic).orElseThrow();
+    return DescribeWalk.describe(this.reader, this.tags, mergeBase);
+  }
+}
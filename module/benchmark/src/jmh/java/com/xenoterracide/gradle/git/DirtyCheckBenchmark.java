@@ -0,0 +1,67 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Dirty check of a large checkout against a full status, clean and with the first file modified.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DirtyCheckBenchmark {
+
+  @Param({ "10000", "120000" })
+  int files;
+
+  @Param({ "CLEAN", "DIRTY_FIRST_FILE" })
+  SyntheticWorkTree.State state;
+
+  Git git;
+
+  @Setup
+  public void setUp() throws IOException, GitAPIException {
+    this.git = Git.wrap(SyntheticWorkTree.open(this.files, this.state));
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.git.getRepository().close();
+  }
+
+  @Benchmark
+  public boolean dirtyCheck() throws IOException {
+    return DirtyCheck.isDirty(this.git.getRepository(), true);
+  }
+
+  @Benchmark
+  public boolean trackedOnly() throws IOException {
+    return DirtyCheck.isDirty(this.git.getRepository(), false);
+  }
+
+  @Benchmark
+  public boolean fullStatus() throws GitAPIException {
+    return !this.git.status().call().isClean();
+  }
+}
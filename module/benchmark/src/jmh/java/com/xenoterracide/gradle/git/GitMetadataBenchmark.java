@@ -0,0 +1,149 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import com.xenoterracide.gradle.git.fixtures.HistoryGenerator;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.jspecify.annotations.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The metadata a build reads, each read as the plugin does on a fresh configuration, against generated projects. The
+ * history reads only vary with the history, the status only with the files, so each has a state of its own and JMH
+ * does not run every read against every combination.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class GitMetadataBenchmark {
+
+  private static final String ORIGIN = "origin";
+  private static final int SHORT_HISTORY = 1000;
+  private static final int TOPIC_COMMITS = 5;
+
+  static HistoryGenerator generator() {
+    return new HistoryGenerator(Path.of(System.getProperty("benchmark.repositories", "build/repositories")))
+      .remote(ORIGIN)
+      .diverged(TOPIC_COMMITS, TOPIC_COMMITS)
+      .commitGraph(true);
+  }
+
+  /**
+   * A project with a long history.
+   */
+  @State(Scope.Benchmark)
+  public static class History {
+
+    @Param({ "1000", "100000", "1000000" })
+    int commits;
+
+    @Param({ "10", "1000" })
+    int tags;
+
+    @Param({ "LINEAR", "MERGE_HEAVY", "LONG_LIVED" })
+    HistoryGenerator.Topology topology;
+
+    Git git;
+    GitMetadataImpl metadata;
+    MergeBaseFinder mergeBases;
+    GitRemote origin;
+    ObjectId head;
+
+    @Setup
+    public void setUp() throws IOException {
+      var generator = generator().commits(this.commits).tagEvery(this.commits / this.tags).topology(this.topology);
+      this.git = Git.wrap(generator.open());
+      this.metadata = new GitMetadataImpl(() -> this.git);
+      this.mergeBases = new MergeBaseFinder(this.git.getRepository());
+      this.origin = Objects.requireNonNull(this.metadata.remote(ORIGIN));
+      this.head = this.git.getRepository().resolve(Constants.HEAD);
+    }
+
+    @TearDown
+    public void tearDown() {
+      this.git.getRepository().close();
+    }
+  }
+
+  /**
+   * A project with many files.
+   */
+  @State(Scope.Benchmark)
+  public static class WorkTree {
+
+    @Param({ "1000", "100000" })
+    int files;
+
+    Git git;
+    GitMetadataImpl metadata;
+
+    @Setup
+    public void setUp() throws IOException {
+      this.git = Git.wrap(generator().commits(SHORT_HISTORY).files(this.files).open());
+      this.metadata = new GitMetadataImpl(() -> this.git);
+    }
+
+    @TearDown
+    public void tearDown() {
+      this.git.getRepository().close();
+    }
+  }
+
+  @Benchmark
+  public @Nullable String tag(History history) {
+    return history.metadata.tag();
+  }
+
+  @Benchmark
+  public long distance(History history) {
+    return history.metadata.distance();
+  }
+
+  @Benchmark
+  public @Nullable String uniqueShort(History history) {
+    return history.metadata.uniqueShort();
+  }
+
+  @Benchmark
+  public List<GitRemote> remotes(History history) {
+    return history.metadata.remotes();
+  }
+
+  @Benchmark
+  public Optional<ObjectId> mergeBase(History history) {
+    return history.mergeBases.find(history.origin);
+  }
+
+  @Benchmark
+  public long distanceCalculator(History history) throws IOException {
+    return DistanceCalculator.distance(history.git.getRepository(), history.head, TagIndex.DEFAULT_PREFIX);
+  }
+
+  @Benchmark
+  public GitStatus status(WorkTree workTree) {
+    return workTree.metadata.status();
+  }
+}
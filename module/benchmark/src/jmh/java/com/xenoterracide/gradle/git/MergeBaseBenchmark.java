@@ -0,0 +1,72 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraph;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Merge base of a topic branch and main across a long-lived side branch, with and without the commit-graph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class MergeBaseBenchmark {
+
+  @Param({ "10000", "1000000" })
+  int commits;
+
+  Repository repo;
+  ObjectReader reader;
+  CommitGraph graph;
+  ObjectId main;
+  ObjectId topic;
+
+  @Setup
+  public void setUp() throws IOException {
+    this.repo = SyntheticHistory.open(this.commits);
+    this.reader = this.repo.newObjectReader();
+    this.graph = Objects.requireNonNull(new CommitGraphs(this.repo).load(this.reader));
+    this.main = this.repo.resolve(SyntheticHistory.MAIN);
+    this.topic = this.repo.resolve(SyntheticHistory.TOPIC);
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.reader.close();
+    this.repo.close();
+  }
+
+  @Benchmark
+  public Optional<ObjectId> generationNumbers() throws IOException {
+    return MergeBaseFinder.mergeBase(this.reader, this.graph, this.main, this.topic);
+  }
+
+  @Benchmark
+  public Optional<ObjectId> commitDates() throws IOException {
+    return MergeBaseFinder.mergeBase(this.reader, null, this.main, this.topic);
+  }
+}
@@ -0,0 +1,67 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Repository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full status of a large clean checkout, which has to read every file, as the pool grows from one to sixteen workers.
+ * Compare with {@code DirtyCheckBenchmark.dirtyCheck} for the single walk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ParallelStatusBenchmark {
+
+  @Param({ "120000" })
+  int files;
+
+  @Param({ "1", "2", "4", "8", "16" })
+  int threads;
+
+  Repository repo;
+  ForkJoinPool pool;
+
+  @Setup
+  public void setUp() throws IOException, GitAPIException {
+    this.repo = SyntheticWorkTree.open(this.files, SyntheticWorkTree.State.CLEAN);
+    this.pool = new ForkJoinPool(this.threads);
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.pool.shutdown();
+    this.repo.close();
+  }
+
+  @Benchmark
+  public boolean untracked() throws IOException {
+    return ParallelStatus.isDirty(this.repo, true, this.pool);
+  }
+
+  @Benchmark
+  public boolean trackedOnly() throws IOException {
+    return ParallelStatus.isDirty(this.repo, false, this.pool);
+  }
+}
@@ -0,0 +1,135 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import com.google.errorprone.annotations.Var;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraphWriter;
+import org.eclipse.jgit.internal.storage.commitgraph.GraphCommits;
+import org.eclipse.jgit.internal.storage.file.ObjectDirectory;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.NullProgressMonitor;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.TreeFormatter;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.util.FileUtils;
+
+/**
+ * Generated bare repositories for benchmarks, cached by commit count. One in ten commits belongs to a long-lived side
+ * branch forked at the root, with commit times interleaved with the main line. The side branch is merged into
+ * {@value #MAIN} after {@value #TOPIC} forks from it, so the merge base of the two is near the tips while the side
+ * branch keeps a commit-date ordered walk going back to the root.
+ */
+final class SyntheticHistory {
+
+  static final String MAIN = Constants.R_HEADS + "main";
+  static final String TOPIC = Constants.R_HEADS + "topic";
+
+  private static final String COMPLETE = "complete";
+  private static final int SIDE_EVERY = 10;
+  static final int TIP_COMMITS = 5;
+  private static final long EPOCH = 1_500_000_000L;
+
+  private final ObjectInserter inserter;
+  private final ObjectId tree;
+  private int time;
+
+  private SyntheticHistory(ObjectInserter inserter) throws IOException {
+    this.inserter = inserter;
+    this.tree = inserter.insert(new TreeFormatter());
+  }
+
+  /**
+   * Opens the repository with the given number of commits, generating it on first use.
+   *
+   * @param commits
+   *   approximate number of commits
+   * @return the repository, the caller closes it
+   * @throws IOException
+   *   if the repository cannot be written
+   */
+  static Repository open(int commits) throws IOException {
+    var dir = Path.of(System.getProperty("benchmark.repositories", "build/repositories")).resolve("history-" + commits);
+    if (!Files.exists(dir.resolve(COMPLETE))) {
+      // an interrupted generation leaves a partial repository behind
+      FileUtils.delete(dir.toFile(), FileUtils.RECURSIVE | FileUtils.SKIP_MISSING);
+      try (var repo = new FileRepositoryBuilder().setGitDir(dir.toFile()).setBare().build()) {
+        repo.create(true);
+        generate(repo, commits);
+        writeCommitGraph(repo);
+      }
+      Files.createFile(dir.resolve(COMPLETE));
+    }
+    return new FileRepositoryBuilder().setGitDir(dir.toFile()).setBare().setMustExist(true).build();
+  }
+
+  private static void generate(Repository repo, int commits) throws IOException {
+    try (var inserter = ((ObjectDirectory) repo.getObjectDatabase()).newPackInserter()) {
+      inserter.checkExisting(false);
+      var history = new SyntheticHistory(inserter);
+      @Var var main = history.commit(List.of());
+      @Var var side = main;
+      for (var i = 1; i < commits - 3 * TIP_COMMITS; i++) {
+        if (i % SIDE_EVERY == 0) {
+          side = history.commit(List.of(side));
+        } else {
+          main = history.commit(List.of(main));
+        }
+      }
+      var topic = history.line(main);
+      main = history.commit(List.of(history.line(main), side));
+      main = history.line(main);
+      inserter.flush();
+      update(repo, TOPIC, topic);
+      update(repo, MAIN, main);
+    }
+  }
+
+  private static void update(Repository repo, String name, ObjectId id) throws IOException {
+    var update = repo.updateRef(name);
+    update.setNewObjectId(id);
+    var result = update.forceUpdate();
+    if (result != RefUpdate.Result.NEW) throw new IOException("could not create " + name + ": " + result);
+  }
+
+  private static void writeCommitGraph(Repository repo) throws IOException {
+    var file = repo.getDirectory().toPath().resolve(Constants.OBJECTS).resolve(Constants.INFO_COMMIT_GRAPH);
+    Files.createDirectories(file.getParent());
+    try (var walk = new RevWalk(repo); var out = Files.newOutputStream(file)) {
+      var tips = Set.of(repo.resolve(MAIN), repo.resolve(TOPIC));
+      var commits = GraphCommits.fromWalk(NullProgressMonitor.INSTANCE, tips, walk);
+      new CommitGraphWriter(commits).write(NullProgressMonitor.INSTANCE, out);
+    }
+  }
+
+  private ObjectId line(ObjectId from) throws IOException {
+    @Var var tip = from;
+    for (var i = 0; i < TIP_COMMITS; i++) tip = this.commit(List.of(tip));
+    return tip;
+  }
+
+  private ObjectId commit(List<ObjectId> parents) throws IOException {
+    var ident = new PersonIdent("dev", "dev@example.com", Instant.ofEpochSecond(EPOCH + this.time++), ZoneOffset.UTC);
+    var builder = new CommitBuilder();
+    builder.setTreeId(this.tree);
+    builder.setAuthor(ident);
+    builder.setCommitter(ident);
+    builder.setMessage("commit");
+    builder.setParentIds(parents);
+    return this.inserter.insert(builder);
+  }
+}
@@ -0,0 +1,122 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.util.FileUtils;
+
+/**
+ * Generated checkouts for benchmarks, cached by file count. Files are spread over directories of a hundred, committed,
+ * and dated an hour back so that the index never holds racily clean entries that would need their content checked.
+ */
+final class SyntheticWorkTree {
+
+  /**
+   * Working tree state.
+   */
+  enum State {
+    /**
+     * Matches {@code HEAD}.
+     */
+    CLEAN,
+    /**
+     * The first file in index order is modified.
+     */
+    DIRTY_FIRST_FILE,
+  }
+
+  private static final String COMPLETE = "complete";
+  private static final String FIRST = path(0);
+  private static final int PER_DIRECTORY = 100;
+
+  private SyntheticWorkTree() {}
+
+  /**
+   * Opens the checkout with the given number of files, generating it on first use.
+   *
+   * @param files
+   *   number of tracked files
+   * @param state
+   *   state of the working tree
+   * @return the repository, the caller closes it
+   * @throws IOException
+   *   if the checkout cannot be written
+   * @throws GitAPIException
+   *   if the repository cannot be created
+   */
+  static Repository open(int files, State state) throws IOException, GitAPIException {
+    var base = Path.of(System.getProperty("benchmark.repositories", "build/repositories"));
+    var dir = base.resolve("worktree-" + files + "-" + state.name().toLowerCase(Locale.ROOT));
+    var gitDir = dir.resolve(Constants.DOT_GIT);
+    // kept in the git directory, in the working tree it would be an untracked file
+    if (!Files.exists(gitDir.resolve(COMPLETE))) {
+      FileUtils.delete(dir.toFile(), FileUtils.RECURSIVE | FileUtils.SKIP_MISSING);
+      try (var git = Git.init().setDirectory(dir.toFile()).call()) {
+        populate(git.getRepository(), files);
+      }
+      if (state == State.DIRTY_FIRST_FILE) Files.writeString(dir.resolve(FIRST), "modified\n");
+      Files.createFile(gitDir.resolve(COMPLETE));
+    }
+    return new FileRepositoryBuilder().setGitDir(gitDir.toFile()).setMustExist(true).build();
+  }
+
+  private static String path(int file) {
+    return String.format("dir%04d/file%04d.txt", file / PER_DIRECTORY, file % PER_DIRECTORY);
+  }
+
+  private static void populate(Repository repo, int files) throws IOException {
+    var past = FileTime.from(Instant.now().minus(1, ChronoUnit.HOURS));
+    var index = repo.lockDirCache();
+    var builder = index.builder();
+    try (var inserter = repo.newObjectInserter()) {
+      for (var i = 0; i < files; i++) builder.add(write(repo, inserter, path(i), past));
+      builder.commit();
+      var tree = index.writeTree(inserter);
+      var ident = new PersonIdent("dev", "dev@example.com");
+      var commit = new CommitBuilder();
+      commit.setTreeId(tree);
+      commit.setAuthor(ident);
+      commit.setCommitter(ident);
+      commit.setMessage("files");
+      var id = inserter.insert(commit);
+      inserter.flush();
+      var update = repo.updateRef(Constants.HEAD);
+      update.setNewObjectId(id);
+      update.forceUpdate();
+    }
+  }
+
+  private static DirCacheEntry write(Repository repo, ObjectInserter inserter, String path, FileTime time)
+    throws IOException {
+    var content = ("content of " + path + "\n").getBytes(StandardCharsets.UTF_8);
+    var file = repo.getWorkTree().toPath().resolve(path);
+    Files.createDirectories(file.getParent());
+    Files.write(file, content);
+    Files.setLastModifiedTime(file, time);
+    var entry = new DirCacheEntry(path);
+    entry.setFileMode(FileMode.REGULAR_FILE);
+    entry.setLength(content.length);
+    entry.setLastModified(time.toInstant());
+    entry.setObjectId(inserter.insert(Constants.OBJ_BLOB, content));
+    return entry;
+  }
+}
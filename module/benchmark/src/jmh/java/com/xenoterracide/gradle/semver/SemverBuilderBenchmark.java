@@ -0,0 +1,100 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.semver;
+
+import com.xenoterracide.gradle.git.GitStatus;
+import java.util.concurrent.TimeUnit;
+import org.jspecify.annotations.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semver4j.Semver;
+
+/**
+ * Rendering the version of a project, for each case of {@code SemverBuilderTest}, run with the GC profiler for the
+ * bytes allocated per version. Setup fails if a case no longer renders, or sorts, as the test expects.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SemverBuilderBenchmark {
+
+  /**
+   * The test cases, by what was tagged.
+   */
+  public enum Case {
+    NO_REPOSITORY(0, GitStatus.NO_REPO, null, null, null, "0.0.0-alpha.0.0"),
+    NO_TAG(1, GitStatus.CLEAN, "abcdef02", null, null, "0.0.1-alpha.0.1+git.1.abcdef02"),
+    NO_TAG_DIRTY(1, GitStatus.DIRTY, "abcdef03", null, null, "0.0.1-alpha.0.1+git.1.abcdef03.dirty"),
+    NO_TAG_DISTANT(10, GitStatus.CLEAN, "abcdef05", null, null, "0.0.1-alpha.0.10+git.10.abcdef05"),
+    RELEASE_CANDIDATE(0, GitStatus.CLEAN, "abcdef06", "v1.0.0-rc.1", null, "1.0.0-rc.1"),
+    AFTER_RELEASE_CANDIDATE(1, GitStatus.CLEAN, "abcdef07", "v1.0.0-rc.1", null, "1.0.0-rc.1.1+git.1.abcdef07"),
+    RELEASE(0, GitStatus.CLEAN, "abcdef08", "v1.0.0", null, "1.0.0"),
+    AFTER_RELEASE(1, GitStatus.CLEAN, "abcdef09", "v1.0.0", null, "1.0.1-alpha.0.1+git.1.abcdef09"),
+    BRANCH(1, GitStatus.CLEAN, "abcdef10", "v1.0.0", "topic/foo", "1.0.1-alpha.0.1+branch.topic-foo.git.1.abcdef10");
+
+    final long distance;
+    final GitStatus status;
+    final @Nullable String uniqueShort;
+    final @Nullable String tag;
+    final @Nullable String branch;
+    final String expected;
+
+    Case(
+      long distance,
+      GitStatus status,
+      @Nullable String uniqueShort,
+      @Nullable String tag,
+      @Nullable String branch,
+      String expected
+    ) {
+      this.distance = distance;
+      this.status = status;
+      this.uniqueShort = uniqueShort;
+      this.tag = tag;
+      this.branch = branch;
+      this.expected = expected;
+    }
+  }
+
+  @Param
+  Case version;
+
+  Semver tagged;
+
+  @Setup
+  public void setUp() {
+    this.tagged = this.version.tag != null ? new Semver(this.version.tag.substring(1)) : Semver.ZERO;
+    var built = this.build();
+    var expected = new Semver(this.version.expected);
+    if (!built.toString().equals(this.version.expected) || built.compareTo(expected) != 0) {
+      throw new IllegalStateException(this.version + " rendered " + built + ", expected " + expected);
+    }
+  }
+
+  // as SemverExtension does for every project
+  @Benchmark
+  public Semver build() {
+    return new SemverBuilder(this.tagged)
+      .withBranch(this.version.branch)
+      .withPreReleaseDistance(this.version.distance)
+      .withBuildDistance(this.version.distance)
+      .withUniqueShort(this.version.uniqueShort)
+      .withGitStatus(this.version.status)
+      .withDirtyOut(true)
+      .build();
+  }
+}
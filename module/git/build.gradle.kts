@@ -30,6 +30,7 @@ dependencies {
   shadow(libs.vavr)
   testFixturesApi(libs.jgit)
   testFixturesApi(libs.jspecify)
+  testFixturesCompileOnly(libs.errorprone.annotations)
 }
 
 testing {
@@ -67,5 +68,15 @@ gradlePlugin {
       tags = setOf("git")
       id = name
     }
+    register("com.xenoterracide.gradle.git.settings") {
+      displayName = "Git Metadata for Settings"
+      implementationClass = "com.xenoterracide.gradle.git.GitSettingsPlugin"
+      description =
+        """
+        This plugin provides git metadata to settings
+        """.trimIndent()
+      tags = setOf("git")
+      id = name
+    }
   }
 }
@@ -0,0 +1,108 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import com.google.errorprone.annotations.Var;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.Objects;
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraph;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevFlag;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Counts the commits reachable from a commit, like {@code git rev-list --count}. Commits in the commit-graph are
+ * followed by graph position and marked in a bit set, so they are never parsed or held as {@link RevCommit}s; only
+ * commits newer than the graph are read from the object database.
+ */
+final class AncestorCount implements AutoCloseable {
+
+  private final RevWalk walk;
+  private final CommitGraph graph;
+  private final RevFlag seen;
+  private final Deque<RevCommit> aboveGraph = new ArrayDeque<>();
+  private final BitSet inGraph;
+  private int[] pending = new int[64];
+  private int size;
+
+  private AncestorCount(ObjectReader reader, CommitGraph graph) {
+    this.walk = new RevWalk(reader);
+    this.walk.setRetainBody(false);
+    this.graph = graph;
+    this.seen = this.walk.newFlag("counted");
+    this.inGraph = new BitSet(Math.toIntExact(graph.getCommitCnt()));
+  }
+
+  /**
+   * Counts the target and its ancestors.
+   *
+   * @param reader
+   *   reader to parse commits with, the caller retains ownership
+   * @param graph
+   *   commit-graph of the repository, if any
+   * @param target
+   *   commit to count from
+   * @return number of commits reachable from the target, including itself
+   * @throws IOException
+   *   if the object database cannot be read
+   */
+  static long count(ObjectReader reader, @Nullable CommitGraph graph, AnyObjectId target) throws IOException {
+    try (var count = new AncestorCount(reader, Objects.requireNonNullElse(graph, CommitGraph.EMPTY))) {
+      return count.run(target);
+    }
+  }
+
+  private long run(AnyObjectId target) throws IOException {
+    this.visit(target);
+    @Var long above = 0;
+    for (@Var var commit = this.aboveGraph.poll(); commit != null; commit = this.aboveGraph.poll()) {
+      TimeBudget.checkInterrupted();
+      above++;
+      this.walk.parseHeaders(commit);
+      for (var parent : commit.getParents()) this.visit(parent);
+    }
+    // parents of commits in the graph are in the graph
+    while (this.size > 0) {
+      TimeBudget.checkInterrupted();
+      var position = this.pending[--this.size];
+      for (var parent : this.graph.getCommitData(position).getParents()) this.mark(parent);
+    }
+    var count = above + this.inGraph.cardinality();
+    GitEvent.commitsWalked(count);
+    return count;
+  }
+
+  private void visit(AnyObjectId id) {
+    var position = this.graph.findGraphPosition(id);
+    if (position >= 0) {
+      this.mark(position);
+    } else {
+      var commit = this.walk.lookupCommit(id);
+      if (!commit.has(this.seen)) {
+        commit.add(this.seen);
+        this.aboveGraph.add(commit);
+      }
+    }
+  }
+
+  private void mark(int position) {
+    if (this.inGraph.get(position)) return;
+    this.inGraph.set(position);
+    if (this.size == this.pending.length) this.pending = Arrays.copyOf(this.pending, this.size * 2);
+    this.pending[this.size++] = position;
+  }
+
+  @Override
+  public void close() {
+    this.walk.close();
+  }
+}
@@ -0,0 +1,196 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import com.google.errorprone.annotations.Var;
+import java.io.IOException;
+import java.util.PriorityQueue;
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraph;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevFlag;
+import org.eclipse.jgit.revwalk.RevFlagSet;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Everything a branch build needs from history in one traversal: the merge base of {@code HEAD} and the remote branch
+ * and the distance from the merge base to its nearest version tag. With a commit-graph the merge base is found in
+ * descending generation like {@link GenerationMergeBase} and then described in the same {@link RevWalk}, so the
+ * history the two searches have in common is only parsed once. Without one commit time is no safe order, a skewed
+ * clock puts an ancestor first, so the merge base is found by the {@code MERGE_BASE} filter instead, as it is when the
+ * base found is newer than the graph and so was only ordered by commit time.
+ */
+final class BranchWalk implements AutoCloseable {
+
+  private final RevWalk walk;
+  private final @Nullable CommitGraph graph;
+  private final RevFlag head;
+  private final RevFlag remote;
+  private final RevFlag queued;
+  private final RevFlagSet sides = new RevFlagSet();
+  private final PriorityQueue<GenerationMergeBase.Pending> queue = new PriorityQueue<>(GenerationMergeBase.ORDER);
+  private long walked;
+
+  private BranchWalk(ObjectReader reader, @Nullable CommitGraph graph) {
+    this.walk = new RevWalk(reader);
+    this.walk.setRetainBody(false);
+    this.graph = graph;
+    this.head = this.walk.newFlag("head");
+    this.remote = this.walk.newFlag("remote");
+    this.queued = this.walk.newFlag("queued");
+    this.sides.add(this.head);
+    this.sides.add(this.remote);
+  }
+
+  /**
+   * Walks a branch with the tags of the repository that have a prefix.
+   *
+   * @param repo
+   *   the repository
+   * @param head
+   *   the commit being built
+   * @param remote
+   *   the commit of the remote branch
+   * @param prefix
+   *   what comes before the version in the tag name, such as {@code semver-v}
+   * @return the merge base and the distance from it
+   * @throws IOException
+   *   if the repository cannot be read
+   */
+  static Branch walk(Repository repo, AnyObjectId head, AnyObjectId remote, String prefix) throws IOException {
+    try (var reader = repo.newObjectReader()) {
+      return walk(reader, new CommitGraphs(repo).load(reader), TagIndex.of(repo, prefix), head, remote);
+    }
+  }
+
+  /**
+   * Walks a branch.
+   *
+   * @param reader
+   *   reader to parse commits with, the caller retains ownership
+   * @param graph
+   *   commit-graph of the repository, if any
+   * @param tags
+   *   version tags to describe the merge base with
+   * @param head
+   *   the commit being built
+   * @param remote
+   *   the commit of the remote branch
+   * @return the merge base and the distance from it
+   * @throws IOException
+   *   if the object database cannot be read
+   */
+  static Branch walk(
+    ObjectReader reader,
+    @Nullable CommitGraph graph,
+    TagIndex tags,
+    AnyObjectId head,
+    AnyObjectId remote
+  ) throws IOException {
+    try (var branch = new BranchWalk(reader, graph)) {
+      return branch.run(tags, head, remote);
+    }
+  }
+
+  private Branch run(TagIndex tags, AnyObjectId head, AnyObjectId remote) throws IOException {
+    var base = this.mergeBase(head, remote);
+    if (base == null) return new Branch(null, 0);
+    var distance = tags.size() > 0
+      ? DescribeWalk.describe(this.walk, tags, base).distance()
+      : AncestorCount.count(this.walk.getObjectReader(), this.graph, base);
+    return new Branch(base.copy(), distance);
+  }
+
+  private @Nullable RevCommit mergeBase(AnyObjectId head, AnyObjectId remote) throws IOException {
+    if (this.graph != null) {
+      this.start(head, this.head);
+      this.start(remote, this.remote);
+      var base = this.paint();
+      GitEvent.commitsWalked(this.walked);
+      if (base == null || base.inGraph()) return base != null ? base.commit() : null;
+    }
+    var found = MergeBaseFinder.mergeBase(this.walk.getObjectReader(), null, head, remote);
+    return found.isPresent() ? this.walk.parseCommit(found.get()) : null;
+  }
+
+  // every descendant of a commit in the graph is visited before it, so the first such commit on both sides is a merge
+  // base, above the graph only commit time orders them
+  private GenerationMergeBase.@Nullable Pending paint() throws IOException {
+    for (@Var var pending = this.queue.poll(); pending != null; pending = this.queue.poll()) {
+      TimeBudget.checkInterrupted();
+      this.walked++;
+      var commit = pending.commit();
+      commit.remove(this.queued);
+      if (commit.hasAll(this.sides)) return pending;
+      this.pushParents(commit);
+    }
+    return null;
+  }
+
+  private void start(AnyObjectId id, RevFlag side) throws IOException {
+    var commit = this.walk.parseCommit(id);
+    commit.add(side);
+    this.push(commit);
+  }
+
+  private void pushParents(RevCommit commit) throws IOException {
+    for (var parent : commit.getParents()) {
+      this.walk.parseHeaders(parent);
+      @Var var gained = false;
+      for (var side : this.sides) {
+        if (commit.has(side) && !parent.has(side)) {
+          parent.add(side);
+          gained = true;
+        }
+      }
+      if (gained) this.push(parent);
+    }
+  }
+
+  private void push(RevCommit commit) {
+    if (commit.has(this.queued)) return;
+    commit.add(this.queued);
+    this.queue.add(new GenerationMergeBase.Pending(commit, GenerationMergeBase.generation(this.graph, commit)));
+  }
+
+  @Override
+  public void close() {
+    this.walk.close();
+  }
+
+  static final class Branch {
+
+    private final @Nullable ObjectId mergeBase;
+    private final long distance;
+
+    Branch(@Nullable ObjectId mergeBase, long distance) {
+      this.mergeBase = mergeBase;
+      this.distance = distance;
+    }
+
+    /**
+     * The merge base of {@code HEAD} and the remote branch.
+     *
+     * @return the merge base, or null if they share no history
+     */
+    @Nullable
+    ObjectId mergeBase() {
+      return this.mergeBase;
+    }
+
+    /**
+     * Commits from the merge base to its nearest version tag, or all of its ancestors without one.
+     *
+     * @return the distance, zero without a merge base
+     */
+    long distance() {
+      return this.distance;
+    }
+  }
+}
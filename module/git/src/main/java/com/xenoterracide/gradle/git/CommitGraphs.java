@@ -0,0 +1,70 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraph;
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraphFormatException;
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraphLoader;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds the commit-graph git maintains in {@code objects/info/commit-graph}. A graph read from the file is kept, softly
+ * so a daemon serving many repositories is not held to all of their graphs, and only read again once git replaces the
+ * file. The commit-graph reader is internal to JGit, so a JGit without it, or with a different one, leaves every
+ * repository without a graph rather than failing the build.
+ */
+final class CommitGraphs {
+
+  // keyed by the file, a repository is reopened for every build
+  private static final FileCache<CommitGraph> GRAPHS = new FileCache<>();
+
+  private final Logger log = LoggerFactory.getLogger(this.getClass());
+  private final Repository repo;
+
+  CommitGraphs(Repository repo) {
+    this.repo = repo;
+  }
+
+  /**
+   * Loads the commit-graph of the repository.
+   *
+   * @param reader
+   *   reader of the repository
+   * @return the commit-graph, or null if there is none or it cannot be read
+   * @throws IOException
+   *   if the file cannot be read
+   */
+  @Nullable
+  CommitGraph load(ObjectReader reader) throws IOException {
+    var file = this.repo.getCommonDirectory().toPath().resolve(Constants.OBJECTS).resolve(Constants.INFO_COMMIT_GRAPH);
+    try {
+      // JGit only loads the commit-graph when core.commitGraph is set, git writes one without it
+      var configured = reader.getCommitGraph();
+      if (configured.isPresent() || !Files.isRegularFile(file)) return configured.orElse(null);
+      return GRAPHS.get(file, this::open);
+    } catch (LinkageError e) {
+      this.log.debug("commit-graph not supported by this JGit {}", file, e);
+      return null;
+    }
+  }
+
+  // an unreadable graph is kept as null, so it is not read and warned about again until git replaces it
+  private @Nullable CommitGraph open(Path file) throws IOException {
+    try {
+      return CommitGraphLoader.open(file.toFile());
+    } catch (CommitGraphFormatException e) {
+      this.log.warn("ignoring unreadable commit-graph {}", file, e);
+      return null;
+    }
+  }
+}
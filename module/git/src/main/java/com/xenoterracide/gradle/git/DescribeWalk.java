@@ -0,0 +1,277 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import com.google.errorprone.annotations.Var;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.DateRevQueue;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevFlag;
+import org.eclipse.jgit.revwalk.RevFlagSet;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A {@code git describe --long --tags} walk that yields the nearest tag and its distance in a single traversal. When
+ * no tag is reachable the distance is the number of commits reachable from the target, so callers never need a second
+ * walk to count history.
+ */
+final class DescribeWalk implements AutoCloseable {
+
+  // same default as `git describe --candidates`
+  private static final int MAX_CANDIDATES = 10;
+
+  private final RevWalk walk;
+  // a walk shared with another search is left open for it
+  private final boolean owned;
+  private final TagIndex tags;
+  private final DateRevQueue queue = new DateRevQueue();
+  private final List<Candidate> candidates = new ArrayList<>(MAX_CANDIDATES);
+  private final RevFlagSet within = new RevFlagSet();
+  private final RevFlag seen;
+  private long walked;
+
+  private DescribeWalk(RevWalk walk, boolean owned, TagIndex tags) {
+    this.walk = walk;
+    this.owned = owned;
+    this.tags = tags;
+    this.seen = this.walk.newFlag("describe-seen");
+  }
+
+  /**
+   * Describes the target commit with the version tags of the repository. Without any there is nothing to search for,
+   * so the ancestors are counted instead.
+   *
+   * @param repo
+   *   the repository
+   * @param reader
+   *   reader to parse commits with, the caller retains ownership
+   * @param target
+   *   commit to describe
+   * @return the nearest tag, if any, and the distance to it
+   * @throws IOException
+   *   if the object database cannot be read
+   */
+  static Described describe(Repository repo, ObjectReader reader, AnyObjectId target) throws IOException {
+    return describe(repo, reader, target, TagIndex.of(repo));
+  }
+
+  /**
+   * Describes the target commit with some of the version tags of the repository, such as those of one prefix. Without
+   * any there is nothing to search for, so the ancestors are counted instead.
+   *
+   * @param repo
+   *   the repository
+   * @param reader
+   *   reader to parse commits with, the caller retains ownership
+   * @param target
+   *   commit to describe
+   * @param tags
+   *   version tags to describe with
+   * @return the nearest tag, if any, and the distance to it
+   * @throws IOException
+   *   if the object database cannot be read
+   */
+  static Described describe(Repository repo, ObjectReader reader, AnyObjectId target, TagIndex tags)
+    throws IOException {
+    if (tags.size() > 0) return describe(reader, tags, target);
+    var count = AncestorCount.count(reader, new CommitGraphs(repo).load(reader), target);
+    return new Described(null, count, count);
+  }
+
+  /**
+   * Describes the target commit.
+   *
+   * @param reader
+   *   reader to parse commits with, the caller retains ownership
+   * @param tags
+   *   version tags to describe with
+   * @param target
+   *   commit to describe
+   * @return the nearest tag, if any, and the distance to it
+   * @throws IOException
+   *   if the object database cannot be read
+   */
+  static Described describe(ObjectReader reader, TagIndex tags, AnyObjectId target) throws IOException {
+    var walk = new RevWalk(reader);
+    walk.setRetainBody(false);
+    try (var describe = new DescribeWalk(walk, true, tags)) {
+      return describe.run(target);
+    }
+  }
+
+  /**
+   * Describes the target commit in a walk that has already parsed some of its history, which is not parsed again.
+   *
+   * @param walk
+   *   walk to describe in, the caller retains ownership
+   * @param tags
+   *   version tags to describe with
+   * @param target
+   *   commit to describe
+   * @return the nearest tag, if any, and the distance to it
+   * @throws IOException
+   *   if the object database cannot be read
+   */
+  static Described describe(RevWalk walk, TagIndex tags, AnyObjectId target) throws IOException {
+    try (var describe = new DescribeWalk(walk, false, tags)) {
+      return describe.run(target);
+    }
+  }
+
+  private Described run(AnyObjectId target) throws IOException {
+    var start = this.walk.parseCommit(target);
+    var exact = this.tags.tagOn(start);
+    if (exact != null) return new Described(exact, 0, 0);
+
+    this.push(start);
+    var best = this.search();
+    GitEvent.commitsWalked(this.walked);
+    return best == null
+      ? new Described(null, this.walked, this.walked)
+      : new Described(best.tag, this.finish(best), this.walked);
+  }
+
+  private @Nullable Candidate search() throws IOException {
+    for (@Var var commit = this.queue.next(); commit != null; commit = this.queue.next()) {
+      TimeBudget.checkInterrupted();
+      this.walked++;
+      if (this.gaveUp(commit)) {
+        // like git, hand the commit to the depth computation of the best candidate
+        this.queue.add(commit);
+        break;
+      }
+      this.count(commit);
+      if (this.settled(commit)) break;
+      this.pushParents(commit);
+    }
+    return this.best();
+  }
+
+  private boolean gaveUp(RevCommit commit) {
+    var tag = commit.hasAny(this.within) ? null : this.tags.tagOn(commit);
+    var full = this.candidates.size() >= MAX_CANDIDATES;
+    if (tag != null && !full) {
+      var flag = this.walk.newFlag(tag);
+      commit.add(flag);
+      this.within.add(flag);
+      this.candidates.add(new Candidate(tag, flag, this.walked - 1));
+    }
+    return tag != null && full;
+  }
+
+  private void count(RevCommit commit) {
+    for (var candidate : this.candidates) {
+      if (!commit.has(candidate.flag)) candidate.depth++;
+    }
+  }
+
+  // nothing left to walk but ancestors of the best candidate, so no depth can change
+  private boolean settled(RevCommit commit) {
+    var best = this.best();
+    return this.queue.peek() == null && best != null && commit.has(best.flag);
+  }
+
+  private @Nullable Candidate best() {
+    return this.candidates.stream().min(Comparator.comparingLong(candidate -> candidate.depth)).orElse(null);
+  }
+
+  private long finish(Candidate best) throws IOException {
+    @Var long walked = 0;
+    for (@Var var commit = this.queue.next(); commit != null; commit = this.queue.next()) {
+      TimeBudget.checkInterrupted();
+      walked++;
+      if (commit.has(best.flag)) {
+        // everything below is reachable from the tag, carry the flag instead of walking it
+        for (var parent : commit.getParents()) parent.add(best.flag);
+      } else {
+        best.depth++;
+        this.pushParents(commit);
+      }
+    }
+    GitEvent.commitsWalked(walked);
+    return best.depth;
+  }
+
+  private void pushParents(RevCommit commit) throws IOException {
+    for (var parent : commit.getParents()) {
+      this.walk.parseHeaders(parent);
+      for (var candidate : this.candidates) {
+        if (commit.has(candidate.flag)) parent.add(candidate.flag);
+      }
+      if (!parent.has(this.seen)) this.push(parent);
+    }
+  }
+
+  private void push(RevCommit commit) {
+    commit.add(this.seen);
+    this.queue.add(commit);
+  }
+
+  @Override
+  public void close() {
+    if (this.owned) this.walk.close();
+  }
+
+  static final class Described {
+
+    /**
+     * Describing took longer than its time budget, so there is neither a tag nor a distance.
+     */
+    static final Described TIMED_OUT = new Described(null, 0, 0, true);
+
+    private final @Nullable String tag;
+    private final long distance;
+    private final long walked;
+    private final boolean timedOut;
+
+    Described(@Nullable String tag, long distance, long walked) {
+      this(tag, distance, walked, false);
+    }
+
+    private Described(@Nullable String tag, long distance, long walked, boolean timedOut) {
+      this.tag = tag;
+      this.distance = distance;
+      this.walked = walked;
+      this.timedOut = timedOut;
+    }
+
+    @Nullable
+    String tag() {
+      return this.tag;
+    }
+
+    long distance() {
+      return this.distance;
+    }
+
+    long walked() {
+      return this.walked;
+    }
+
+    boolean timedOut() {
+      return this.timedOut;
+    }
+  }
+
+  private static final class Candidate {
+
+    private final String tag;
+    private final RevFlag flag;
+    private long depth;
+
+    Candidate(String tag, RevFlag flag, long depth) {
+      this.tag = tag;
+      this.flag = flag;
+      this.depth = depth;
+    }
+  }
+}
@@ -0,0 +1,150 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import java.io.IOException;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheIterator;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.treewalk.FileTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.IndexDiffFilter;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Whether the working tree has changes, without computing a full status. {@code HEAD}, the index and the working tree
+ * are walked together and the walk stops at the first path that differs, working tree files are compared by the stat
+ * data in the index before their content. Agrees with {@link org.eclipse.jgit.api.Status#isClean()}.
+ */
+final class DirtyCheck {
+
+  private static final String HEAD_TREE = Constants.HEAD + "^{tree}";
+  private static final int HEAD = 0;
+  private static final int INDEX = 1;
+  private static final int WORKING_TREE = 2;
+
+  private DirtyCheck() {}
+
+  /**
+   * Checks the working tree for changes.
+   *
+   * @param repo
+   *   a repository with a working tree
+   * @param untracked
+   *   whether untracked files count as changes, when false directories git does not track are not read at all
+   * @return true on the first change found
+   * @throws IOException
+   *   if the repository or working tree cannot be read
+   */
+  static boolean isDirty(Repository repo, boolean untracked) throws IOException {
+    try (var walk = walk(repo, repo.readDirCache(), headTree(repo))) {
+      walk.setFilter(filter(untracked));
+      return walk.next();
+    }
+  }
+
+  /**
+   * Resolves the tree of {@code HEAD}.
+   *
+   * @param repo
+   *   the repository
+   * @return the tree, or null before the first commit
+   * @throws IOException
+   *   if the repository cannot be read
+   */
+  static @Nullable ObjectId headTree(Repository repo) throws IOException {
+    return repo.resolve(HEAD_TREE);
+  }
+
+  /**
+   * Creates a recursive walk over {@code HEAD}, the index and the working tree, without a filter.
+   *
+   * @param repo
+   *   the repository
+   * @param index
+   *   the index, may be shared between walks once its cache tree is built
+   * @param head
+   *   the tree of {@code HEAD}, or null before the first commit
+   * @return the walk, the caller closes it
+   * @throws IOException
+   *   if the tree of {@code HEAD} cannot be read
+   */
+  static TreeWalk walk(Repository repo, DirCache index, @Nullable AnyObjectId head) throws IOException {
+    var walk = new TreeWalk(repo);
+    try {
+      walk.setRecursive(true);
+      if (head != null) {
+        walk.addTree(head);
+      } else {
+        walk.addTree(new EmptyTreeIterator());
+      }
+      walk.addTree(new DirCacheIterator(index));
+      var workingTree = new FileTreeIterator(repo);
+      // reuses object ids from the index instead of hashing unchanged files
+      workingTree.setDirCacheIterator(walk, INDEX);
+      walk.addTree(workingTree);
+      return walk;
+    } catch (IOException e) {
+      walk.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Includes only paths that really differ, so any path at all means dirty.
+   *
+   * @param untracked
+   *   whether untracked files count as changes
+   * @return a new filter, it holds state and cannot be shared between walks
+   */
+  static TreeFilter filter(boolean untracked) {
+    var changed = new IndexDiffFilter(INDEX, WORKING_TREE);
+    return untracked ? changed : AndTreeFilter.create(new Tracked(), changed);
+  }
+
+  /**
+   * Checks a working tree for changes.
+   */
+  @FunctionalInterface
+  interface Check {
+    /**
+     * Checks the working tree for changes.
+     *
+     * @param repo
+     *   a repository with a working tree
+     * @param untracked
+     *   whether untracked files count as changes
+     * @return true if dirty
+     * @throws IOException
+     *   if the repository or working tree cannot be read
+     */
+    boolean isDirty(Repository repo, boolean untracked) throws IOException;
+  }
+
+  // in HEAD or the index, anything else is untracked and not worth reading
+  private static final class Tracked extends TreeFilter {
+
+    @Override
+    public boolean include(TreeWalk walker) {
+      return walker.getRawMode(HEAD) != 0 || walker.getRawMode(INDEX) != 0;
+    }
+
+    @Override
+    public boolean shouldBeRecursive() {
+      return false;
+    }
+
+    @Override
+    public TreeFilter clone() {
+      return this;
+    }
+  }
+}
@@ -4,44 +4,22 @@
 
 package com.xenoterracide.gradle.git;
 
-import java.util.NoSuchElementException;
-import java.util.function.Function;
-import java.util.stream.Stream;
+import java.io.IOException;
 import org.eclipse.jgit.lib.ObjectId;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.eclipse.jgit.lib.Repository;
 
-class DistanceCalculator implements Function<String, Long> {
+final class DistanceCalculator {
 
-  private final TryGit git;
-  private final Logger log = LoggerFactory.getLogger(this.getClass());
+  private DistanceCalculator() {}
 
-  DistanceCalculator(TryGit git) {
-    this.git = git;
-  }
-
-  long distanceFromNoTag(ObjectId oid) {
-    return this.git.tryCommand(g -> g.log().add(oid).all())
-      .map(IterableTools::of)
-      .map(Stream::count)
-      .recover(NoSuchElementException.class, 0L)
-      .recover(GitMetadataImpl.allWith(0L))
-      .onFailure(e -> this.log.error("failed to get distance without a tag", e))
-      .get();
-  }
-
-  long distance(ObjectId oid) {
-    return this.git.tryGit(Describer.describe(oid))
-      .map(Describer.Described::distance)
-      .recover(NoSuchElementException.class, e -> this.distanceFromNoTag(oid))
-      .onFailure(e -> this.log.error("failed to get distance", e))
-      .getOrElse(0L);
-  }
-
-  @Override
-  public Long apply(String revString) {
-    var rev = this.git.tryGit(git -> git.getRepository().resolve(revString)).getOrElse(() -> null);
-    if (rev == null) return 0L;
-    return this.distance(rev);
+  // commits since the nearest tag with the prefix, or all ancestors when there is none
+  static long distance(Repository repo, ObjectId oid, String prefix) throws IOException {
+    var event = GitEvent.start("distance");
+    try (var reader = repo.newObjectReader()) {
+      var tags = TagIndex.of(repo, prefix);
+      var described = DescribeWalk.describe(repo, reader, oid, tags);
+      if (event.recording()) event.record(repo);
+      return described.distance();
+    }
   }
 }
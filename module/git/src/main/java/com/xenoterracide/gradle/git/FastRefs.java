@@ -0,0 +1,225 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import com.google.errorprone.annotations.Var;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import org.eclipse.jgit.errors.InvalidObjectIdException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectIdRef;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.SymbolicRef;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Read only ref lookups that avoid parsing all of {@code packed-refs}. JGit reads the whole file into objects the first
+ * time any ref is not loose, which in a repository with hundreds of thousands of packed refs costs far more than the
+ * few refs looked up here. Loose refs are read as JGit would, packed ones through {@link PackedRefs}, and anything this
+ * cannot read, such as a reftable repository or an unsorted {@code packed-refs}, goes to JGit. {@code packed-refs} is
+ * only read once a ref is not loose, so finding {@code HEAD} and the branch it is on usually reads two small files.
+ */
+final class FastRefs {
+
+  private static final String SYMREF = "ref: ";
+  private static final String REFTABLE = "reftable";
+  private static final String LOCK = ".lock";
+  // the same limit git applies to chains of symbolic refs
+  private static final int MAX_SYMREF_DEPTH = 5;
+
+  private final Repository repo;
+  private final @Nullable Path packedRefs;
+  // read on first use by the thread using these refs
+  private @Nullable PackedRefs packed;
+  private boolean read;
+
+  private FastRefs(Repository repo, @Nullable Path packedRefs) {
+    this.repo = repo;
+    this.packedRefs = packedRefs;
+  }
+
+  /**
+   * Reads the refs of a repository.
+   *
+   * @param repo
+   *   the repository
+   * @return the refs
+   */
+  static FastRefs of(Repository repo) {
+    var common = repo.getCommonDirectory();
+    var files = common != null && !Files.exists(common.toPath().resolve(REFTABLE));
+    return new FastRefs(repo, files ? common.toPath().resolve(Constants.PACKED_REFS) : null);
+  }
+
+  /**
+   * Finds a ref by its full name, following symbolic refs.
+   *
+   * @param name
+   *   the full ref name
+   * @return the ref, or null if it does not exist
+   * @throws IOException
+   *   if the ref cannot be read
+   * @see Repository#exactRef(String)
+   */
+  @Nullable
+  Ref exactRef(String name) throws IOException {
+    GitEvent.refsRead(1);
+    return this.packedRefs != null ? this.resolve(name, 0) : this.repo.exactRef(name);
+  }
+
+  /**
+   * Finds the refs whose name starts with a prefix, loose refs shadowing packed ones of the same name.
+   *
+   * @param prefix
+   *   the prefix, such as {@code refs/tags/v}
+   * @return the refs in name order
+   * @throws IOException
+   *   if the refs cannot be read
+   * @see org.eclipse.jgit.lib.RefDatabase#getRefsByPrefix(String)
+   */
+  List<Ref> getRefsByPrefix(String prefix) throws IOException {
+    var refs = this.listByPrefix(prefix);
+    GitEvent.refsRead(refs.size());
+    return refs;
+  }
+
+  private List<Ref> listByPrefix(String prefix) throws IOException {
+    var packed = this.packed();
+    if (packed == null) return this.repo.getRefDatabase().getRefsByPrefix(prefix);
+    var refs = new TreeMap<String, Ref>();
+    packed.byPrefix(prefix).forEach(ref -> refs.put(ref.getName(), ref));
+    for (var name : this.looseNames(prefix)) {
+      var ref = this.resolve(name, 0);
+      if (ref != null) refs.put(name, ref);
+    }
+    return new ArrayList<>(refs.values());
+  }
+
+  /**
+   * Finds the branch the {@code HEAD} of each remote points at. A remote's {@code HEAD} is a symbolic ref, which is
+   * never packed, so only the symbolic refs themselves are read and none of the remote tracking branches are.
+   *
+   * @param remotes
+   *   names of the remotes
+   * @return remote name to the ref name of its {@code HEAD} branch, if known, sorted by name
+   * @throws IOException
+   *   if the refs cannot be read
+   */
+  Map<String, @Nullable String> remoteHeads(Collection<String> remotes) throws IOException {
+    GitEvent.refsRead(remotes.size());
+    if (this.packedRefs == null) return this.jgitRemoteHeads(remotes);
+    var heads = new TreeMap<String, @Nullable String>();
+    for (var remote : remotes) heads.put(remote, this.leafName(remoteHead(remote)));
+    return heads;
+  }
+
+  /**
+   * Peels a ref, without reading any objects if {@code packed-refs} already records what it peels to.
+   *
+   * @param ref
+   *   the ref
+   * @return the peeled ref
+   * @throws IOException
+   *   if the object cannot be read
+   * @see org.eclipse.jgit.lib.RefDatabase#peel(Ref)
+   */
+  Ref peel(Ref ref) throws IOException {
+    return ref.isPeeled() ? ref : this.repo.getRefDatabase().peel(ref);
+  }
+
+  private @Nullable Ref resolve(String name, int depth) throws IOException {
+    var loose = this.loose(name);
+    if (loose == null) return this.packed(name);
+    return loose.startsWith(SYMREF)
+      ? this.symbolic(name, loose.substring(SYMREF.length()), depth)
+      : this.looseRef(name, loose);
+  }
+
+  // JGit reads a packed-refs file this cannot, and knows the ref is not loose either
+  private @Nullable Ref packed(String name) throws IOException {
+    var packed = this.packed();
+    return packed != null ? packed.get(name) : this.repo.exactRef(name);
+  }
+
+  private @Nullable PackedRefs packed() throws IOException {
+    if (!this.read && this.packedRefs != null) {
+      this.packed = PackedRefs.open(this.packedRefs);
+      this.read = true;
+    }
+    return this.packed;
+  }
+
+  // a target that does not exist yet, such as the branch of a new repository, is kept as JGit does
+  private @Nullable Ref symbolic(String name, String targetName, int depth) throws IOException {
+    if (depth >= MAX_SYMREF_DEPTH) return null;
+    var target = this.resolve(targetName, depth + 1);
+    var leaf = target != null ? target : new ObjectIdRef.Unpeeled(Ref.Storage.NEW, targetName, null);
+    return new SymbolicRef(name, leaf);
+  }
+
+  // a loose ref JGit can read but this cannot, such as one being written, is left to JGit
+  private @Nullable Ref looseRef(String name, String content) throws IOException {
+    try {
+      return new ObjectIdRef.Unpeeled(Ref.Storage.LOOSE, name, ObjectId.fromString(content));
+    } catch (InvalidObjectIdException e) {
+      return this.repo.exactRef(name);
+    }
+  }
+
+  // every remote HEAD looked up in one call, which a reftable repository can answer in one pass
+  private Map<String, @Nullable String> jgitRemoteHeads(Collection<String> remotes) throws IOException {
+    var refs = this.repo.getRefDatabase().exactRef(remotes.stream().map(FastRefs::remoteHead).toArray(String[]::new));
+    var heads = new TreeMap<String, @Nullable String>();
+    for (var remote : remotes) {
+      var head = refs.get(remoteHead(remote));
+      heads.put(remote, head != null && head.isSymbolic() ? head.getLeaf().getName() : null);
+    }
+    return heads;
+  }
+
+  // the name at the end of a chain of symbolic refs, which may be packed or not exist yet, null if the ref is not one
+  private @Nullable String leafName(String name) throws IOException {
+    @Var @Nullable String leaf = null;
+    @Var var content = this.loose(name);
+    for (var depth = 0; depth < MAX_SYMREF_DEPTH && content != null && content.startsWith(SYMREF); depth++) {
+      leaf = content.substring(SYMREF.length());
+      content = this.loose(leaf);
+    }
+    return content != null && content.startsWith(SYMREF) ? null : leaf;
+  }
+
+  private static String remoteHead(String remote) {
+    return Constants.R_REMOTES + remote + '/' + Constants.HEAD;
+  }
+
+  private @Nullable String loose(String name) throws IOException {
+    var directory = Constants.HEAD.equals(name) ? this.repo.getDirectory() : this.repo.getCommonDirectory();
+    var file = directory.toPath().resolve(name);
+    return Files.isRegularFile(file) ? Files.readString(file, StandardCharsets.UTF_8).trim() : null;
+  }
+
+  private List<String> looseNames(String prefix) throws IOException {
+    var common = this.repo.getCommonDirectory().toPath();
+    var directory = common.resolve(prefix.substring(0, prefix.lastIndexOf('/') + 1));
+    if (!Files.isDirectory(directory)) return List.of();
+    try (var files = Files.walk(directory)) {
+      return files
+        .filter(Files::isRegularFile)
+        .map(file -> common.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/"))
+        .filter(name -> name.startsWith(prefix) && !name.endsWith(LOCK))
+        .collect(Collectors.toList());
+    }
+  }
+}
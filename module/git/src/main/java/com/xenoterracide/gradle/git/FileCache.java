@@ -0,0 +1,93 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.jgit.internal.storage.file.FileSnapshot;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * What was read from files, each kept until its file changes. A file is checked with a {@link FileSnapshot}, as JGit
+ * checks {@code packed-refs}, so a file rewritten too soon after it was read to tell by its timestamp is read again.
+ * Values are softly referenced, a daemon that has read the files of many repositories keeps only as many as memory
+ * allows.
+ *
+ * @param <V>
+ *   value type
+ */
+final class FileCache<V> {
+
+  // keyed by the file, a repository is reopened for every build
+  private final Map<Path, Entry<V>> entries = new ConcurrentHashMap<>();
+
+  /**
+   * Gets what was read from a file, reading it again if it has changed or the value was collected.
+   *
+   * @param file
+   *   the file
+   * @param reader
+   *   reads the file
+   * @return the value, null if the reader found none
+   * @throws IOException
+   *   if the file cannot be read
+   */
+  @Nullable
+  V get(Path file, Reader<V> reader) throws IOException {
+    var key = file.toAbsolutePath().normalize();
+    var entry = this.entries.get(key);
+    if (entry != null && !entry.snapshot.isModified(key.toFile())) {
+      if (entry.value == null) return null;
+      var value = entry.value.get();
+      if (value != null) return value;
+    }
+    // saved before reading, a file replaced in between is read again next time
+    var snapshot = FileSnapshot.save(key.toFile());
+    var value = reader.read(key);
+    this.entries.put(key, new Entry<>(snapshot, value));
+    this.entries.values().removeIf(Entry::collected);
+    return value;
+  }
+
+  // no value is kept strongly, so a file that has none is not read again until it changes
+  private static final class Entry<V> {
+
+    private final FileSnapshot snapshot;
+    private final @Nullable SoftReference<V> value;
+
+    Entry(FileSnapshot snapshot, @Nullable V value) {
+      this.snapshot = snapshot;
+      this.value = value != null ? new SoftReference<>(value) : null;
+    }
+
+    boolean collected() {
+      return this.value != null && this.value.get() == null;
+    }
+  }
+
+  /**
+   * Reads a file.
+   *
+   * @param <V>
+   *   value type
+   */
+  @FunctionalInterface
+  interface Reader<V> {
+    /**
+     * Reads the file.
+     *
+     * @param file
+     *   the file
+     * @return the value, or null if the file has none
+     * @throws IOException
+     *   if the file cannot be read
+     */
+    @Nullable
+    V read(Path file) throws IOException;
+  }
+}
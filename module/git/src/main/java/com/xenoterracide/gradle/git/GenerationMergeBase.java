@@ -0,0 +1,174 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import com.google.errorprone.annotations.Var;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraph;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevFlag;
+import org.eclipse.jgit.revwalk.RevFlagSet;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Merge base search that visits commits in descending commit-graph generation. A commit's generation is greater than
+ * that of every ancestor, so when a commit is visited every descendant in the walk already has been, and the first
+ * commit reached from both sides is a merge base. The {@code MERGE_BASE} filter orders by commit time instead and has
+ * to keep walking until nothing pending can still be a merge base, which past a long-lived branch is most of history.
+ * Commits newer than the graph, and all of a graph written without generations, have none and are ordered by commit
+ * time, which a skewed clock gets wrong. A commit in the graph is only visited after every commit above it, so a merge
+ * base found in the graph is right, one found above it is looked for again with the {@code MERGE_BASE} filter.
+ */
+final class GenerationMergeBase implements AutoCloseable {
+
+  // commits newer than the graph have no generation, git treats them as above everything in it too
+  static final Comparator<Pending> ORDER = Comparator.<Pending>comparingInt(pending -> pending.generation)
+    .thenComparingInt(pending -> pending.commit.getCommitTime())
+    .reversed();
+
+  private final RevWalk walk;
+  private final CommitGraph graph;
+  private final RevFlag one;
+  private final RevFlag two;
+  private final RevFlag queued;
+  private final RevFlagSet sides = new RevFlagSet();
+  private final PriorityQueue<Pending> queue = new PriorityQueue<>(ORDER);
+  private long walked;
+
+  private GenerationMergeBase(ObjectReader reader, CommitGraph graph) {
+    this.walk = new RevWalk(reader);
+    this.walk.setRetainBody(false);
+    this.graph = graph;
+    this.one = this.walk.newFlag("one");
+    this.two = this.walk.newFlag("two");
+    this.queued = this.walk.newFlag("queued");
+    this.sides.add(this.one);
+    this.sides.add(this.two);
+  }
+
+  /**
+   * Finds a best merge base of two commits.
+   *
+   * @param reader
+   *   reader to parse commits with, the caller retains ownership
+   * @param graph
+   *   commit-graph of the repository
+   * @param from
+   *   a commit
+   * @param to
+   *   another commit
+   * @return the merge base, or empty if the commits share no history
+   * @throws IOException
+   *   if the object database cannot be read
+   */
+  static Optional<ObjectId> find(ObjectReader reader, CommitGraph graph, AnyObjectId from, AnyObjectId to)
+    throws IOException {
+    try (var search = new GenerationMergeBase(reader, graph)) {
+      var found = search.run(from, to);
+      GitEvent.commitsWalked(search.walked);
+      if (found != null && !found.inGraph()) return MergeBaseFinder.mergeBase(reader, null, from, to);
+      return Optional.ofNullable(found).map(pending -> pending.commit.copy());
+    }
+  }
+
+  private @Nullable Pending run(AnyObjectId from, AnyObjectId to) throws IOException {
+    this.start(from, this.one);
+    this.start(to, this.two);
+    for (@Var var pending = this.queue.poll(); pending != null; pending = this.queue.poll()) {
+      TimeBudget.checkInterrupted();
+      this.walked++;
+      var commit = pending.commit;
+      commit.remove(this.queued);
+      if (commit.hasAll(this.sides)) return pending;
+      this.pushParents(commit);
+    }
+    return null;
+  }
+
+  private void start(AnyObjectId id, RevFlag side) throws IOException {
+    var commit = this.walk.parseCommit(id);
+    commit.add(side);
+    this.push(commit);
+  }
+
+  private void pushParents(RevCommit commit) throws IOException {
+    for (var parent : commit.getParents()) {
+      this.walk.parseHeaders(parent);
+      @Var var gained = false;
+      for (var side : this.sides) {
+        if (commit.has(side) && !parent.has(side)) {
+          parent.add(side);
+          gained = true;
+        }
+      }
+      // a commit is only revisited if it was reached from a new side after its visit, possible only above the graph
+      if (gained) this.push(parent);
+    }
+  }
+
+  private void push(RevCommit commit) {
+    if (commit.has(this.queued)) return;
+    commit.add(this.queued);
+    this.queue.add(new Pending(commit, generation(this.graph, commit)));
+  }
+
+  /**
+   * Gets the generation of a commit, ordering by it visits every descendant of a commit before the commit.
+   *
+   * @param graph
+   *   commit-graph of the repository, if any
+   * @param commit
+   *   the commit
+   * @return the generation, or {@link Constants#COMMIT_GENERATION_UNKNOWN} for a commit newer than the graph
+   */
+  static int generation(@Nullable CommitGraph graph, RevCommit commit) {
+    var position = graph != null ? graph.findGraphPosition(commit) : -1;
+    var generation = graph == null || position < 0
+      ? Constants.COMMIT_GENERATION_UNKNOWN
+      : graph.getCommitData(position).getGeneration();
+    // graphs from old versions of git have no generations at all
+    return generation == Constants.COMMIT_GENERATION_NOT_COMPUTED ? Constants.COMMIT_GENERATION_UNKNOWN : generation;
+  }
+
+  @Override
+  public void close() {
+    this.walk.close();
+  }
+
+  /**
+   * A queued commit with its generation, so the queue does not look it up again on every comparison.
+   */
+  static final class Pending {
+
+    private final RevCommit commit;
+    private final int generation;
+
+    Pending(RevCommit commit, int generation) {
+      this.commit = commit;
+      this.generation = generation;
+    }
+
+    RevCommit commit() {
+      return this.commit;
+    }
+
+    /**
+     * Whether the commit has a generation, when it does every one of its descendants has been visited before it.
+     *
+     * @return true if the commit is in a commit-graph with generations
+     */
+    boolean inGraph() {
+      return this.generation != Constants.COMMIT_GENERATION_UNKNOWN;
+    }
+  }
+}
@@ -0,0 +1,133 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.eclipse.jgit.lib.Repository;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A JFR event for reading git metadata, so recording a daemon shows what git costs each build. Only the operation and
+ * its start are set until {@link #recording()} says the event is enabled, everything else, such as the repository
+ * path, is only worked out then, so with recording off an event is an allocation the JIT removes. Walks and ref
+ * lookups add what they read to a tally of their thread as they finish, and an event counts how much the tally grew
+ * while it was timed, so it includes everything read for it on that thread by however many layers below.
+ */
+@Name("com.xenoterracide.gradle.git.Operation")
+@Label("Git Operation")
+@Category({ "Gradle", "Git" })
+@Description("Git metadata read while the build is configured")
+@StackTrace(false)
+final class GitEvent extends Event {
+
+  private static final String HIT = "hit";
+  private static final String MISS = "miss";
+  private static final ThreadLocal<Tally> TALLY = ThreadLocal.withInitial(Tally::new);
+
+  @Label("Operation")
+  private String operation;
+
+  @Label("Repository")
+  private @Nullable String repository;
+
+  @Label("Commits Walked")
+  @Description("Commits visited on the thread of the operation")
+  private long walked;
+
+  @Label("Refs Scanned")
+  @Description("Refs looked up or listed on the thread of the operation")
+  private long refs;
+
+  @Label("Cache")
+  @Description("Whether the value was already known, empty when the operation is not cached")
+  private @Nullable String cache;
+
+  // the tally at the start, not fields of the event
+  private transient long walkedBefore;
+  private transient long refsBefore;
+
+  private GitEvent(String operation) {
+    this.operation = operation;
+  }
+
+  /**
+   * Starts timing an operation.
+   *
+   * @param operation
+   *   what is read, such as {@code tag} or {@code merge-base}
+   * @return the started event
+   */
+  static GitEvent start(String operation) {
+    var event = new GitEvent(operation);
+    if (event.isEnabled()) {
+      var tally = TALLY.get();
+      event.walkedBefore = tally.walked;
+      event.refsBefore = tally.refs;
+    }
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Adds commits a walk visited to the tally of this thread.
+   *
+   * @param commits
+   *   how many
+   */
+  static void commitsWalked(long commits) {
+    TALLY.get().walked += commits;
+  }
+
+  /**
+   * Adds refs that were looked up or listed to the tally of this thread.
+   *
+   * @param refs
+   *   how many
+   */
+  static void refsRead(long refs) {
+    TALLY.get().refs += refs;
+  }
+
+  /**
+   * Ends the timing.
+   *
+   * @return true if the event is recorded, only then is the rest worth setting
+   */
+  boolean recording() {
+    this.end();
+    if (!this.shouldCommit()) return false;
+    var tally = TALLY.get();
+    this.walked = tally.walked - this.walkedBefore;
+    this.refs = tally.refs - this.refsBefore;
+    return true;
+  }
+
+  GitEvent hit(boolean hit) {
+    this.cache = hit ? HIT : MISS;
+    return this;
+  }
+
+  /**
+   * Records the event.
+   *
+   * @param repo
+   *   the repository read, if there is one
+   */
+  void record(@Nullable Repository repo) {
+    this.repository = repo != null ? repo.getDirectory().getPath() : null;
+    this.commit();
+  }
+
+  private static final class Tally {
+
+    private long walked;
+    private long refs;
+  }
+}
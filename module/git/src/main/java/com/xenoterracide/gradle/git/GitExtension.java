@@ -4,11 +4,14 @@
 
 package com.xenoterracide.gradle.git;
 
+import java.io.File;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import org.eclipse.jgit.api.Git;
 import org.gradle.api.Incubating;
+import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
 
 /**
@@ -17,26 +20,51 @@ import org.gradle.api.provider.Provider;
 public class GitExtension implements Provides<GitMetadata> {
 
   private final Provider<GitMetadata> provider;
+  private final Provider<GitSnapshot> snapshot;
   private final Provider<String> uniqueShort;
   private final Provider<String> tag;
   private final Provider<Long> distance;
   private final Provider<GitStatus> status;
+  private final Property<Boolean> checkUntracked;
+  private final Property<Duration> timeout;
+  private final Provider<Boolean> timedOut;
   private final Provider<String> branch;
   private final Provider<String> commit;
   private final Provider<List<GitRemoteForGradle>> remotes;
   private final Provider<Git> git;
+  private final Provider<File> gitDirectory;
+  private final Provider<GitMetadataImpl> metadata;
+  private final Provider<MergeBaseCache.Loader> mergeBaseDistances;
+  private final ProvidedFactory pf;
 
   @SuppressWarnings("NullAway")
   // false positive https://github.com/uber/NullAway/issues/1123
-  GitExtension(Provider<GitService> gitService, ProvidedFactory pf) {
+  GitExtension(Provider<GitService> gitService, Provider<File> gitDirectory, ProvidedFactory pf) {
     this.git = gitService.flatMap(GitService::getProvider);
-    this.provider = gitService.map(GitService::getProvider).map(git -> new GitMetadataImpl(git::getOrNull));
-    this.branch = pf.providedString(this.provider.map(GitMetadata::branch));
-    this.uniqueShort = pf.providedString(this.provider.map(GitMetadata::uniqueShort));
-    this.tag = pf.providedString(this.provider.map(GitMetadata::tag));
-    this.distance = pf.providedLong(this.provider.map(GitMetadata::distance));
-    this.status = pf.provided(this.provider.map(GitMetadata::status), GitStatus.class);
-    this.commit = pf.providedString(this.provider.map(GitMetadata::commit));
+    this.gitDirectory = gitDirectory;
+    this.pf = pf;
+    this.timeout = pf.property(Duration.class);
+    var metadata = gitService.map(service ->
+      new GitMetadataImpl(
+        service.getProvider()::getOrNull,
+        service.snapshots(),
+        service.dirtyCheck(),
+        service.describer(),
+        this.timeout::getOrNull
+      )
+    );
+    this.metadata = metadata;
+    this.mergeBaseDistances = gitService.map(GitService::mergeBaseDistances);
+    this.provider = metadata.map(GitMetadata.class::cast);
+    this.snapshot = pf.provided(metadata.map(GitMetadataImpl::snapshot), GitSnapshot.class);
+    this.branch = pf.providedString(this.snapshot.map(GitSnapshot::branch));
+    this.uniqueShort = pf.providedString(this.snapshot.map(GitSnapshot::uniqueShort));
+    this.tag = pf.providedString(this.snapshot.map(GitSnapshot::tag));
+    this.distance = pf.providedLong(this.snapshot.map(GitSnapshot::distance));
+    this.checkUntracked = pf.propertyBoolean().convention(true);
+    this.status = pf.provided(metadata.zip(this.checkUntracked, GitMetadataImpl::status), GitStatus.class);
+    this.commit = pf.providedString(this.snapshot.map(GitSnapshot::commit));
+    this.timedOut = pf.provided(this.snapshot.map(GitSnapshot::timedOut), Boolean.class);
 
     this.remotes = pf.providedList(
       this.provider.map(GitMetadata::remotes).map(remotes ->
@@ -90,6 +118,115 @@ public class GitExtension implements Provides<GitMetadata> {
     return this.distance;
   }
 
+  /**
+   * Gets the latest tag with a prefix, so modules can be versioned by their own tags such as {@code semver-v0.13.1}.
+   * All prefixes are served from one scan of the tags.
+   *
+   * @param prefix
+   *   what comes before the version in the tag name, {@code v} gives the same tag as {@link #getTag()}
+   * @return the latest tag with the prefix
+   */
+  public Provider<String> tag(String prefix) {
+    return TagIndex.DEFAULT_PREFIX.equals(prefix) ? this.tag : this.described(prefix).map(DescribeWalk.Described::tag);
+  }
+
+  /**
+   * Gets the commit distance from the latest tag with a prefix.
+   *
+   * @param prefix
+   *   what comes before the version in the tag name, {@code v} gives the same distance as {@link #getDistance()}
+   * @return the commit distance
+   * @see #tag(String)
+   */
+  public Provider<Long> distance(String prefix) {
+    return TagIndex.DEFAULT_PREFIX.equals(prefix)
+      ? this.distance
+      : this.described(prefix).map(DescribeWalk.Described::distance);
+  }
+
+  /**
+   * Gets every tag with a prefix, highest version first as semantic versioning ranks them, pre-releases below their
+   * release. The tags are sorted once per scan of the tags, which every prefix shares, so this stays cheap with a
+   * hundred thousand of them.
+   *
+   * @param prefix
+   *   what comes before the version in the tag name, such as {@code v}
+   * @return the tag names
+   * @see #latestRelease(String)
+   */
+  @Incubating
+  public Provider<List<String>> releases(String prefix) {
+    return this.metadata.map(metadata -> metadata.releases(prefix));
+  }
+
+  /**
+   * Gets the highest version tagged with a prefix on {@code HEAD} or any of its ancestors, which unlike
+   * {@link #tag(String)} need not be the nearest. However many higher tags are on other branches, history is walked at
+   * most once.
+   *
+   * @param prefix
+   *   what comes before the version in the tag name, such as {@code v}
+   * @return the tag name, absent when no tag with the prefix is reachable or finding one took longer than
+   *   {@link #getTimeout()}
+   */
+  @Incubating
+  public Provider<String> latestRelease(String prefix) {
+    return this.metadata.map(metadata -> metadata.latestRelease(prefix));
+  }
+
+  private Provider<DescribeWalk.Described> described(String prefix) {
+    return this.metadata.map(metadata -> metadata.describe(prefix));
+  }
+
+  /**
+   * Whether untracked files make the working tree dirty, defaults to true. Turning this off means directories git
+   * does not track are never read, which is much faster in a checkout with large untracked or ignored directories.
+   *
+   * @return untracked check configuration property
+   */
+  public Property<Boolean> getCheckUntracked() {
+    return this.checkUntracked;
+  }
+
+  /**
+   * How long reading the metadata of {@code HEAD}, describing it with the tags of a prefix, or checking the status may
+   * take, each on its own. When one takes longer it is cancelled and a fallback used: only what the refs tell, with no
+   * tag or distance, or {@link GitStatus#TIMED_OUT}. Unset, the default, waits for as long as it takes.
+   *
+   * @return timeout configuration property
+   * @see #getTimedOut()
+   */
+  @Incubating
+  public Property<Duration> getTimeout() {
+    return this.timeout;
+  }
+
+  /**
+   * Whether reading the metadata of {@code HEAD} took longer than {@link #getTimeout()}, so the tag and distance are
+   * missing rather than there being no tag.
+   *
+   * @return whether the metadata timed out
+   */
+  @Incubating
+  public Provider<Boolean> getTimedOut() {
+    return this.timedOut;
+  }
+
+  /**
+   * Whether describing {@code HEAD} with the tags of a prefix took longer than {@link #getTimeout()}.
+   *
+   * @param prefix
+   *   what comes before the version in the tag name, {@code v} gives the same as {@link #getTimedOut()}
+   * @return whether describing timed out
+   * @see #tag(String)
+   */
+  @Incubating
+  public Provider<Boolean> timedOut(String prefix) {
+    return TagIndex.DEFAULT_PREFIX.equals(prefix)
+      ? this.timedOut
+      : this.described(prefix).map(DescribeWalk.Described::timedOut);
+  }
+
   /**
    * Gets dirty status.
    *
@@ -127,16 +264,67 @@ public class GitExtension implements Provides<GitMetadata> {
     return this.remotes;
   }
 
+  /**
+   * Gets one remote by name. Only the requested remote is wrapped, which matters in a repository with many remotes when
+   * only one, usually {@code origin}, is of interest.
+   *
+   * @param name
+   *   the remote name
+   * @return the remote, absent if there is no remote by that name
+   */
+  @Incubating
+  public Provider<GitRemoteForGradle> remote(String name) {
+    return this.metadata.map(metadata -> {
+      var remote = metadata.remote(name);
+      return remote != null ? new GitRemoteForGradle(this.pf, remote) : null;
+    });
+  }
+
+  /**
+   * A fingerprint of the refs the metadata is computed from, read from a few small files. Derive a provider from it and
+   * the configuration cache is reused for as long as the fingerprint is unchanged, and invalidated when a commit, tag,
+   * branch or remote {@code HEAD} changes.
+   *
+   * @param workTree
+   *   whether the fingerprint covers the working tree, for metadata that includes the status. Checking the working
+   *   tree costs as much as reading it, so such a fingerprint changes on every build and is never reused
+   * @return the fingerprint, empty when there is no repository
+   * @see GitFingerprintValueSource
+   */
+  public Provider<String> fingerprint(boolean workTree) {
+    return this.pf.of(GitFingerprintValueSource.class, p -> {
+      p.getGitDirectory().fileProvider(this.gitDirectory);
+      p.getWorkTree().set(workTree);
+    });
+  }
+
   /**
    * will find the common ancestor between this branch and the given remote reference that is in your local git databse.
-   * Essentially this is the distance from a tag from a {@code git merge base}.
+   * Essentially this is the distance from a tag from a {@code git merge base}. The merge base of a pair of commits is
+   * kept between builds, so it is only found again once either branch moves.
    *
    * @param remote
    *   the remote
    * @return the distance
    */
   public Optional<Long> commonAncestorDistanceFor(GitRemoteForGradle remote) {
-    var oObjectId = new MergeBaseFinder(this.git.get().getRepository()).find(remote);
-    return oObjectId.map(oid -> new DistanceCalculator(this.git::get).apply(oid.getName()));
+    return this.commonAncestorDistanceFor(remote, TagIndex.DEFAULT_PREFIX);
+  }
+
+  /**
+   * Finds the distance from the common ancestor of this branch and the given remote reference to its nearest tag with a
+   * prefix, for modules versioned by their own tags such as {@code semver-v0.13.1}.
+   *
+   * @param remote
+   *   the remote
+   * @param prefix
+   *   what comes before the version in the tag name, {@code v} gives the same distance as
+   *   {@link #commonAncestorDistanceFor(GitRemoteForGradle)}
+   * @return the distance
+   * @see #commonAncestorDistanceFor(GitRemoteForGradle)
+   */
+  public Optional<Long> commonAncestorDistanceFor(GitRemoteForGradle remote, String prefix) {
+    var finder = new MergeBaseFinder(this.git.get().getRepository());
+    return finder.distance(remote, prefix, this.mergeBaseDistances.get());
   }
 }
@@ -0,0 +1,211 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import com.google.common.hash.Hashing;
+import com.google.errorprone.annotations.Var;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Ref;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.ValueSource;
+import org.gradle.api.provider.ValueSourceParameters;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A {@link ValueSource} for a fingerprint of the refs git metadata is computed from: the commit {@code HEAD} resolves
+ * to, the branch it is on, the tags and the commit each remote {@code HEAD} resolves to. It is read from a few small
+ * files without opening the repository, so the configuration cache can cheaply tell whether metadata it stored is
+ * still current, and reuses the entry whenever the fingerprint is unchanged.
+ *
+ * @implNote The nearest tag can only be found by walking history, so every tag is fingerprinted instead. The nearest
+ *   tag of a commit changes only when the tags do. Whether the working tree is dirty depends on every file in it,
+ *   which is no cheaper to fingerprint than to check, so a fingerprint that covers it is different every time.
+ */
+public abstract class GitFingerprintValueSource implements ValueSource<String, GitFingerprintValueSource.Parameters> {
+
+  private static final String NONE = "";
+  private static final String SYMREF = "ref: ";
+  private static final String COMMON_DIR = "commondir";
+  private static final String TABLES = "reftable/tables.list";
+  private static final String LOCK = ".lock";
+  // the same limit git applies to chains of symbolic refs
+  private static final int MAX_SYMREF_DEPTH = 5;
+
+  @Override
+  public String obtain() {
+    var directory = this.getParameters().getGitDirectory().getAsFile().getOrNull();
+    var workTree = this.getParameters().getWorkTree().getOrElse(false);
+    try {
+      return directory != null ? fingerprint(directory.toPath(), workTree) : NONE;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Computes the fingerprint.
+   *
+   * @param gitDir
+   *   the git directory
+   * @param workTree
+   *   whether the fingerprint covers the working tree, which makes it unique to each call
+   * @return the fingerprint
+   * @throws IOException
+   *   if the refs cannot be read
+   */
+  static String fingerprint(Path gitDir, boolean workTree) throws IOException {
+    var refs = new Refs(gitDir);
+    var parts = new ArrayList<String>(5);
+    parts.add(refs.resolve(Constants.HEAD));
+    parts.add(refs.head());
+    parts.add(refs.tags());
+    parts.add(refs.remotes());
+    if (workTree) parts.add(UUID.randomUUID().toString());
+    return String.join(" ", parts);
+  }
+
+  private static @Nullable String read(Path file) throws IOException {
+    return Files.isRegularFile(file) ? Files.readString(file, StandardCharsets.UTF_8).trim() : null;
+  }
+
+  // the refs of one git directory, loose ones are read as they are needed and packed ones are searched in place, only
+  // a packed-refs file that is not sorted is parsed as a whole
+  private static final class Refs {
+
+    private final Path gitDir;
+    private final Path common;
+    private final @Nullable PackedRefs sorted;
+    private final Map<String, String> packed;
+
+    Refs(Path gitDir) throws IOException {
+      this.gitDir = gitDir;
+      var commonDir = read(gitDir.resolve(COMMON_DIR));
+      this.common = commonDir != null ? gitDir.resolve(commonDir).normalize() : gitDir;
+      var file = this.common.resolve(Constants.PACKED_REFS);
+      this.sorted = PackedRefs.open(file);
+      this.packed = this.sorted == null ? packed(file) : Map.of();
+    }
+
+    // the branch HEAD is on, which the version names, empty when it is detached
+    String head() throws IOException {
+      var head = read(this.gitDir.resolve(Constants.HEAD));
+      return head != null && head.startsWith(SYMREF) ? head.substring(SYMREF.length()) : NONE;
+    }
+
+    // the object a ref ends up at, empty for an unborn branch or a missing ref
+    String resolve(String name) throws IOException {
+      @Var
+      var value = SYMREF + name;
+      for (var depth = 0; depth < MAX_SYMREF_DEPTH && value.startsWith(SYMREF); depth++) {
+        var ref = value.substring(SYMREF.length());
+        var loose = read((Constants.HEAD.equals(ref) ? this.gitDir : this.common).resolve(ref));
+        value = loose != null ? loose : this.packed(ref);
+      }
+      return value.startsWith(SYMREF) ? NONE : value;
+    }
+
+    // hashed by name and object so that packing refs leaves it unchanged, a reftable repository rewrites tables.list
+    // on every ref update so it stands in for all refs
+    String tags() throws IOException {
+      var tags = new TreeMap<String, String>();
+      if (this.sorted != null) {
+        for (var ref : this.sorted.byPrefix(Constants.R_TAGS)) tags.put(ref.getName(), objectId(ref));
+      } else {
+        this.packed.forEach((name, oid) -> {
+          if (name.startsWith(Constants.R_TAGS)) tags.put(name, oid);
+        });
+      }
+      loose(tags, this.common, this.common.resolve(Constants.R_TAGS));
+      var hasher = Hashing.sha256().newHasher();
+      tags.forEach((name, oid) -> hasher.putString(name + ' ' + oid, StandardCharsets.UTF_8));
+      var tables = read(this.common.resolve(TABLES));
+      if (tables != null) hasher.putString(tables, StandardCharsets.UTF_8);
+      return hasher.hash().toString();
+    }
+
+    // a remote's HEAD is a symbolic ref, which is never packed
+    String remotes() throws IOException {
+      var remotes = this.common.resolve(Constants.R_REMOTES);
+      if (!Files.isDirectory(remotes)) return NONE;
+      try (var entries = Files.list(remotes)) {
+        var names = entries.filter(Files::isDirectory).map(remotes::relativize).map(Path::toString).sorted();
+        var heads = new ArrayList<String>();
+        for (var name : names.collect(Collectors.toList())) {
+          heads.add(name + '=' + this.resolve(Constants.R_REMOTES + name + '/' + Constants.HEAD));
+        }
+        return String.join(",", heads);
+      }
+    }
+
+    private String packed(String name) {
+      if (this.sorted == null) return this.packed.getOrDefault(name, NONE);
+      var ref = this.sorted.get(name);
+      return ref != null ? objectId(ref) : NONE;
+    }
+
+    private static String objectId(Ref ref) {
+      var oid = ref.getObjectId();
+      return oid != null ? oid.name() : NONE;
+    }
+
+    // a loose ref takes precedence over a packed one of the same name, a lock is an update still being written
+    private static void loose(Map<String, String> refs, Path base, Path directory) throws IOException {
+      if (!Files.isDirectory(directory)) return;
+      try (var files = Files.walk(directory)) {
+        var loose = files
+          .filter(file -> Files.isRegularFile(file) && !file.getFileName().toString().endsWith(LOCK))
+          .collect(Collectors.toList());
+        for (var ref : loose) {
+          var name = base.relativize(ref).toString().replace(ref.getFileSystem().getSeparator(), "/");
+          refs.put(name, Files.readString(ref, StandardCharsets.UTF_8).trim());
+        }
+      }
+    }
+
+    // peeled lines follow the tag they belong to and are fixed by it, so they are skipped
+    private static Map<String, String> packed(Path file) throws IOException {
+      var refs = new TreeMap<String, String>();
+      if (!Files.isRegularFile(file)) return refs;
+      for (var line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+        var space = line.indexOf(' ');
+        if (space > 0 && !line.startsWith("#") && !line.startsWith("^")) {
+          refs.put(line.substring(space + 1), line.substring(0, space));
+        }
+      }
+      return refs;
+    }
+  }
+
+  /**
+   * Parameters for {@link GitFingerprintValueSource}.
+   */
+  public interface Parameters extends ValueSourceParameters {
+    /**
+     * The git directory, the fingerprint is empty when unset.
+     *
+     * @return the git directory
+     */
+    DirectoryProperty getGitDirectory();
+
+    /**
+     * Whether the fingerprint covers the working tree, so that a version marked dirty is never reused. Checking the
+     * working tree costs as much as reading it, so the fingerprint is then different every time. Defaults to false.
+     *
+     * @return whether to cover the working tree
+     */
+    Property<Boolean> getWorkTree();
+  }
+}
@@ -10,27 +10,29 @@ import static io.vavr.API.Match;
 import static io.vavr.Predicates.instanceOf;
 
 import com.xenoterracide.tools.java.function.ExceptionTools;
+import io.vavr.CheckedFunction0;
+import io.vavr.CheckedFunction1;
+import io.vavr.CheckedFunction2;
 import io.vavr.control.Try;
-import java.util.ArrayList;
-import java.util.Collection;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.RefNotFoundException;
 import org.eclipse.jgit.errors.RepositoryNotFoundException;
-import org.eclipse.jgit.lib.AbbreviatedObjectId;
 import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.ConfigConstants;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
-import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.Repository;
-import org.eclipse.jgit.transport.RemoteConfig;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
@@ -41,15 +43,52 @@ import org.slf4j.LoggerFactory;
  */
 public class GitMetadataImpl implements GitMetadata {
 
-  // this is not a regex but a glob (`man glob`)
-  private static final String VERSION_GLOB = "v[0-9]*.[0-9]*.[0-9]*";
-  private static final String GIT_SEPARATOR = "/";
+  private static final int SHALLOW_THRESHOLD = 4;
+  private static final String SNAPSHOT = "snapshot";
+  private static final String DESCRIBE = "describe";
+  private static final String STATUS = "status";
+  private static final String BRANCH = "branch";
+  private static final String UNIQUE_SHORT = "uniqueShort";
+  private static final String TAG = "tag";
+  private static final String DISTANCE = "distance";
+  private static final String COMMIT = "commit";
+  private static final String REMOTES = "remotes";
+  private static final String RELEASES = "releases";
+  private static final String LATEST_RELEASE = "latest-release";
+  private static final DescribeWalk.Described NOT_DESCRIBED = new DescribeWalk.Described(null, 0, 0);
   private final Logger log = LoggerFactory.getLogger(this.getClass());
 
   private final TryGit git;
+  private final CheckedFunction1<Repository, GitSnapshot> snapshots;
+  private final DirtyCheck.Check dirtyCheck;
+  private final CheckedFunction2<Repository, String, DescribeWalk.Described> describer;
+  private final Supplier<@Nullable Duration> timeout;
 
   GitMetadataImpl(TryGit git) {
+    this(git, new LatestSnapshot(GitSnapshot::take)::take, ParallelStatus::isDirty, IncrementalDescribe::head);
+  }
+
+  GitMetadataImpl(
+    TryGit git,
+    CheckedFunction1<Repository, GitSnapshot> snapshots,
+    DirtyCheck.Check dirtyCheck,
+    CheckedFunction2<Repository, String, DescribeWalk.Described> describer
+  ) {
+    this(git, snapshots, dirtyCheck, describer, () -> null);
+  }
+
+  GitMetadataImpl(
+    TryGit git,
+    CheckedFunction1<Repository, GitSnapshot> snapshots,
+    DirtyCheck.Check dirtyCheck,
+    CheckedFunction2<Repository, String, DescribeWalk.Described> describer,
+    Supplier<@Nullable Duration> timeout
+  ) {
     this.git = git;
+    this.snapshots = snapshots;
+    this.dirtyCheck = dirtyCheck;
+    this.describer = describer;
+    this.timeout = timeout;
   }
 
   static <T> Function<? super Throwable, ? extends T> allWith(@Nullable T value) {
@@ -76,10 +115,109 @@ public class GitMetadataImpl implements GitMetadata {
    */
   @Override
   public @Nullable String branch() {
-    return this.gitRepository()
-      .mapTry(Repository::getBranch)
-      .recover(NoSuchElementException.class, e -> null)
-      .getOrNull();
+    return this.recorded(BRANCH, () -> this.take().branch());
+  }
+
+  /**
+   * Takes a snapshot of {@code HEAD}, every value it holds is computed from a single history walk.
+   *
+   * @return the snapshot, an empty snapshot when there is no repository, or what the refs tell when walking took
+   *   longer than the timeout
+   */
+  GitSnapshot snapshot() {
+    return this.recorded(SNAPSHOT, this::take);
+  }
+
+  private GitSnapshot take() {
+    var snapshot = this.gitRepository()
+      .mapTry(repo ->
+        this.timed(SNAPSHOT, () -> this.snapshots.apply(repo))
+          .recoverWith(TimeoutException.class, e -> this.fallback(e, () -> GitSnapshot.timedOut(repo)))
+          .get()
+      )
+      .recover(NoSuchElementException.class, e -> GitSnapshot.EMPTY)
+      .onFailure(e -> this.log.error("failed to take snapshot", e))
+      .getOrElse(GitSnapshot.EMPTY);
+    if (snapshot.shortCount() < SHALLOW_THRESHOLD) {
+      this.log.warn("shallow clone detected! git only has {} commits", snapshot.shortCount());
+    }
+    return snapshot;
+  }
+
+  /**
+   * Describes {@code HEAD} with the tags that have a prefix, for versioning a module by its own tags.
+   *
+   * @param prefix
+   *   what comes before the version in the tag name, such as {@code semver-v}
+   * @return the nearest tag, if any, and the distance to it
+   */
+  DescribeWalk.Described describe(String prefix) {
+    return this.recorded(DESCRIBE, () ->
+      this.gitRepository()
+        .mapTry(repo -> this.timed(DESCRIBE, () -> this.describer.apply(repo, prefix)).get())
+        .recoverWith(TimeoutException.class, e -> this.fallback(e, () -> DescribeWalk.Described.TIMED_OUT))
+        .recover(NoSuchElementException.class, e -> NOT_DESCRIBED)
+        .onFailure(e -> this.log.error("failed to describe {}", prefix, e))
+        .getOrElse(NOT_DESCRIBED)
+    );
+  }
+
+  /**
+   * Lists the tags that have a prefix, for release tooling.
+   *
+   * @param prefix
+   *   what comes before the version in the tag name, such as {@code semver-v}
+   * @return the tag names, highest version first
+   */
+  List<String> releases(String prefix) {
+    return this.recorded(RELEASES, () ->
+      this.gitRepository()
+        .mapTry(repo -> TagIndex.of(repo, prefix).releases().names())
+        .recover(NoSuchElementException.class, e -> List.of())
+        .onFailure(e -> this.log.error("failed to list releases {}", prefix, e))
+        .getOrElse(List.of())
+    );
+  }
+
+  /**
+   * Finds the highest version tagged with a prefix on {@code HEAD} or any of its ancestors.
+   *
+   * @param prefix
+   *   what comes before the version in the tag name, such as {@code semver-v}
+   * @return the tag name, or null if no tag with the prefix is reachable or finding one took longer than the timeout
+   */
+  @Nullable
+  String latestRelease(String prefix) {
+    return this.recorded(LATEST_RELEASE, () ->
+      this.gitRepository()
+        .mapTry(repo -> this.timed(LATEST_RELEASE, () -> latestRelease(repo, prefix)).get())
+        .recoverWith(TimeoutException.class, e -> this.fallback(e, () -> null))
+        .recover(NoSuchElementException.class, e -> null)
+        .onFailure(e -> this.log.error("failed to find the latest release {}", prefix, e))
+        .getOrNull()
+    );
+  }
+
+  private static @Nullable String latestRelease(Repository repo, String prefix) throws IOException {
+    var head = repo.resolve(Constants.HEAD);
+    return head != null ? TagIndex.of(repo, prefix).releases().highestReachableFrom(repo, head) : null;
+  }
+
+  // how long the build waited for one value, the walks behind it are events of their own
+  private <T> T recorded(String operation, Supplier<T> read) {
+    var event = GitEvent.start(operation);
+    var value = read.get();
+    if (event.recording()) event.record(this.git.tryGit(Git::getRepository).getOrNull());
+    return value;
+  }
+
+  private <T> Try<T> timed(String operation, CheckedFunction0<T> work) {
+    return Try.of(() -> TimeBudget.within(this.timeout.get(), operation, work));
+  }
+
+  private <T> Try<T> fallback(TimeoutException e, CheckedFunction0<T> fallback) {
+    this.log.warn("{}, continuing without it", e.getMessage());
+    return Try.of(fallback);
   }
 
   /**
@@ -100,49 +238,43 @@ public class GitMetadataImpl implements GitMetadata {
 
   @Override
   public @Nullable String uniqueShort() {
-    return this.gitRepository()
-      .mapTry(Repository::newObjectReader)
-      .mapTry(reader -> reader.abbreviate(this.getObjectIdFor(Constants.HEAD).get()))
-      .map(AbbreviatedObjectId::name)
-      .recover(NoSuchElementException.class, e -> null)
-      .onFailure(e -> this.log.error("failed to get unique short", e))
-      .getOrNull();
+    return this.recorded(UNIQUE_SHORT, () -> this.take().uniqueShort());
   }
 
   @Override
   public @Nullable String tag() {
-    return this.git.tryCommand(g -> g.describe().setMatch(VERSION_GLOB).setAbbrev(0))
-      .recover(NoSuchElementException.class, e -> null)
-      .recover(GitMetadataImpl.allWith(null))
-      .onFailure(e -> this.log.error("failed to get tag", e))
-      .getOrNull();
-  }
-
-  long shortCount() {
-    return this.git.tryCommand(git -> git.log().setMaxCount(5))
-      .map(IterableTools::of)
-      .map(Stream::count)
-      .getOrElse(0L);
+    return this.recorded(TAG, () -> this.take().tag());
   }
 
   @Override
   public long distance() {
-    var shortCount = this.shortCount();
-    if (shortCount < 4) {
-      this.log.warn("shallow clone detected! git only has {} commits", shortCount);
-    }
-    return new DistanceCalculator(this.git).apply(Constants.HEAD);
+    return this.recorded(DISTANCE, () -> this.take().distance());
   }
 
   @Override
   public GitStatus status() {
-    return this.git.tryCommand(Git::status)
-      .filter(Objects::nonNull)
-      .map(status -> status.isClean() ? GitStatus.CLEAN : GitStatus.DIRTY)
-      .recover(NoSuchElementException.class, e -> GitStatus.NO_REPO)
-      .recover(RepositoryNotFoundException.class, e -> GitStatus.NO_REPO)
-      .onFailure(e -> this.log.error("failed to get status", e))
-      .getOrElseThrow(ExceptionTools::toRuntime);
+    return this.status(true);
+  }
+
+  /**
+   * Gets status, stopping at the first change found.
+   *
+   * @param untracked
+   *   whether untracked files make the tree dirty
+   * @return the status
+   */
+  GitStatus status(boolean untracked) {
+    return this.recorded(STATUS, () ->
+      this.git.tryGit(git ->
+          this.timed(STATUS, () -> this.dirtyCheck.isDirty(git.getRepository(), untracked)).get()
+        )
+        .map(dirty -> dirty ? GitStatus.DIRTY : GitStatus.CLEAN)
+        .recoverWith(TimeoutException.class, e -> this.fallback(e, () -> GitStatus.TIMED_OUT))
+        .recover(NoSuchElementException.class, e -> GitStatus.NO_REPO)
+        .recover(RepositoryNotFoundException.class, e -> GitStatus.NO_REPO)
+        .onFailure(e -> this.log.error("failed to get status", e))
+        .getOrElseThrow(ExceptionTools::toRuntime)
+    );
   }
 
   /**
@@ -152,33 +284,45 @@ public class GitMetadataImpl implements GitMetadata {
    */
   @Override
   public @Nullable String commit() {
-    return this.getRev(Constants.HEAD);
+    return this.recorded(COMMIT, () -> this.take().commit());
   }
 
   @Override
   public List<GitRemote> remotes() {
-    return this.git.tryCommand(Git::remoteList)
-      .map(Collection::stream)
-      .map(s -> s.map(RemoteConfig::getName))
-      .map(s -> s.filter(Objects::nonNull))
-      .map(s -> s.map(name -> RemoteImpl.nullCheck(name, this.headBranch(name))))
-      .map(s -> s.collect(Collectors.<GitRemote>toList()))
-      .onFailure(e -> this.log.error("failed to get remotes", e))
-      .getOrElse(ArrayList::new);
+    return this.recorded(REMOTES, () ->
+      this.take()
+        .remotes()
+        .entrySet()
+        .stream()
+        .map(remote -> RemoteImpl.nullCheck(remote.getKey(), remote.getValue()))
+        .collect(Collectors.toList())
+    );
   }
 
+  /**
+   * Gets one remote by name, without creating the others.
+   *
+   * @param name
+   *   the remote name, such as {@code origin}
+   * @return the remote, or null if there is no remote by that name
+   */
   @Nullable
-  String headBranch(String remote) {
-    var remoteRef = Constants.R_REMOTES + remote + GIT_SEPARATOR + Constants.HEAD;
-    return this.gitRepository()
-      .mapTry(r -> r.findRef(remoteRef))
-      .filter(Objects::nonNull)
-      .filter(Ref::isSymbolic)
-      .map(Ref::getLeaf)
-      .map(Ref::getName)
-      .recover(NoSuchElementException.class, e -> null)
-      .onFailure(e -> this.log.error("failed to get HEAD branch", e))
-      .getOrNull();
+  GitRemote remote(String name) {
+    return this.recorded(REMOTES, () ->
+      this.gitRepository()
+        .mapTry(repo -> remote(repo, name))
+        .recover(NoSuchElementException.class, e -> null)
+        .onFailure(e -> this.log.error("failed to get remote {}", name, e))
+        .getOrNull()
+    );
+  }
+
+  // only the remote's config and its HEAD are read, there is no snapshot and no history walk
+  private static @Nullable GitRemote remote(Repository repo, String name) throws IOException {
+    var remotes = repo.getConfig().getSubsections(ConfigConstants.CONFIG_REMOTE_SECTION);
+    if (!remotes.contains(name)) return null;
+    var head = FastRefs.of(repo).exactRef(Constants.R_REMOTES + name + '/' + Constants.HEAD);
+    return new RemoteImpl(name, head != null && head.isSymbolic() ? head.getLeaf().getName() : null);
   }
 
   private static class RemoteImpl implements GitRemote {
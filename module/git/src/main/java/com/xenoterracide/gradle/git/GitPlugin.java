@@ -4,8 +4,12 @@
 
 package com.xenoterracide.gradle.git;
 
+import java.io.File;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
+import org.gradle.api.invocation.Gradle;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
 
 /**
  * A plugin that provides Git-related functionality.
@@ -13,24 +17,55 @@ import org.gradle.api.Project;
 public class GitPlugin implements Plugin<Project> {
 
   private static final String GIT = "git";
+  private static final String CACHE = "caches/com.xenoterracide.gradle.git";
+  private static final String WATCH = "com.xenoterracide.gradle.git.watch";
+  private static final String PREFETCH = "com.xenoterracide.gradle.git.prefetch";
 
   @Override
   public void apply(Project project) {
-    var gitDir = project
-      .getProviders()
-      .of(GitDirectoryValueSource.class, c ->
-        c.parameters(p -> {
-          p.getProjectDirectory().set(project.getLayout().getProjectDirectory());
-        })
-      );
+    var gitDir = gitDirectory(project.getProviders(), project.getProjectDir());
+    var gitService = register(project.getGradle(), project.getProviders(), gitDir);
+    project.getExtensions().add(GIT, new GitExtension(gitService, gitDir, new ProvidedFactory(project)));
+  }
+
+  /**
+   * Finds the git directory.
+   *
+   * @param providers
+   *   providers of the project or settings
+   * @param directory
+   *   the directory to search for a repository from
+   * @return the git directory, missing if there is no repository
+   */
+  static Provider<File> gitDirectory(ProviderFactory providers, File directory) {
+    return providers.of(GitDirectoryValueSource.class, c ->
+      c.parameters(p -> {
+        p.getProjectDirectory().set(directory);
+      })
+    );
+  }
 
-    var gitService = project
-      .getGradle()
+  /**
+   * Registers the {@link GitService} for the build if no project or settings has already, and starts prefetching its
+   * metadata when {@code com.xenoterracide.gradle.git.prefetch} is true.
+   *
+   * @param gradle
+   *   the build
+   * @param providers
+   *   providers of the project or settings
+   * @param gitDir
+   *   the git directory
+   * @return the shared service
+   */
+  static Provider<GitService> register(Gradle gradle, ProviderFactory providers, Provider<File> gitDir) {
+    var service = gradle
       .getSharedServices()
       .registerIfAbsent(GitService.class.getCanonicalName(), GitService.class, spec -> {
         spec.getParameters().getGitDirectory().fileProvider(gitDir);
+        spec.getParameters().getCacheDirectory().set(new File(gradle.getGradleUserHomeDir(), CACHE));
+        spec.getParameters().getWatch().set(providers.gradleProperty(WATCH).map(Boolean::parseBoolean));
       });
-
-    project.getExtensions().add(GIT, new GitExtension(gitService, new ProvidedFactory(project)));
+    if (providers.gradleProperty(PREFETCH).map(Boolean::parseBoolean).getOrElse(false)) service.get().prefetch();
+    return service;
   }
 }
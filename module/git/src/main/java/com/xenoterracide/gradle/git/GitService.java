@@ -4,23 +4,58 @@
 
 package com.xenoterracide.gradle.git;
 
+import io.vavr.CheckedFunction1;
+import io.vavr.CheckedFunction2;
 import io.vavr.control.Try;
+import java.io.File;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.inject.Inject;
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
 import org.gradle.api.file.Directory;
 import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
 import org.gradle.api.services.BuildService;
 import org.gradle.api.services.BuildServiceParameters;
-import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Build Service for Git. Primary goal is to allow for lazy initialization of the Git object and keeping it open for
- * later usage. This Service should not be considered a published API, and may change or be removed in future versions.
+ * later usage. Projects configured in parallel share it, so the repository is opened once and each snapshot and status
+ * is computed once, by whichever project asks first, while the others wait for that result. This Service should not be
+ * considered a published API, and may change or be removed in future versions.
  */
 public abstract class GitService implements BuildService<GitService.Params>, AutoCloseable, Provides<Git> {
 
-  private @Nullable Git git;
+  private static final String SNAPSHOT = "snapshot";
+  private static final String STATUS = "status";
+  private static final String DESCRIBE = "describe";
+  private static final String MERGE_BASE_DISTANCE = "merge-base-distance";
+  // how long closing waits for a cancelled prefetch to stop
+  private static final long PREFETCH_TIMEOUT_SECONDS = 10;
+
+  private final Logger log = LoggerFactory.getLogger(this.getClass());
+  // no thread is started unless something is prefetched
+  private final ExecutorService prefetcher = Executors.newSingleThreadExecutor(GitService::prefetchThread);
+  private final AtomicBoolean prefetching = new AtomicBoolean();
+  private final AtomicBoolean closing = new AtomicBoolean();
+
+  private final Memo<File, Git> git = new Memo<>();
+  // keyed by git directory, the only repository a service opens
+  private final Memo<File, GitSnapshot> snapshots = new Memo<>();
+  // keyed by whether untracked files count
+  private final Memo<Boolean, Boolean> dirty = new Memo<>();
+  // keyed by tag prefix, every prefix is described from the same scan of the tags
+  private final Memo<String, DescribeWalk.Described> described = new Memo<>();
+  // keyed by the pair of commits and the tag prefix, projects asking for the same remote share one lookup
+  private final Memo<String, Optional<Long>> mergeBaseDistances = new Memo<>();
 
   /**
    * Constructor for the Git Service.
@@ -34,13 +69,122 @@ public abstract class GitService implements BuildService<GitService.Params>, Aut
     return this.getParameters()
       .getGitDirectory()
       .map(Directory::getAsFile)
-      .map(file -> this.git = this.git == null ? Try.ofCallable(() -> Git.open(file)).get() : this.git);
+      .map(file -> Try.ofCallable(() -> this.git.get(file, Git::open)).get());
+  }
+
+  /**
+   * How snapshots of the repository are taken, through the on disk cache when one is configured.
+   *
+   * @return snapshot function
+   */
+  CheckedFunction1<Repository, GitSnapshot> snapshots() {
+    var directory = this.getParameters().getCacheDirectory().getAsFile().getOrNull();
+    SnapshotCache.Loader loader = directory != null ? new SnapshotCache(directory.toPath())::get : GitSnapshot::take;
+    var load = this.watching() ? RepositoryWatcher.snapshots(this, loader) : loader;
+    return repo -> recorded(SNAPSHOT, repo, this.snapshots, repo.getDirectory(), gitDir -> load.take(repo));
+  }
+
+  /**
+   * How the working tree is checked for changes, answered from memory while nothing changed when watching.
+   *
+   * @return dirty check
+   */
+  DirtyCheck.Check dirtyCheck() {
+    DirtyCheck.Check check = ParallelStatus::isDirty;
+    var load = this.watching() ? RepositoryWatcher.dirtyChecks(this, check) : check;
+    return (repo, untracked) -> recorded(STATUS, repo, this.dirty, untracked, u -> load.isDirty(repo, u));
+  }
+
+  /**
+   * How {@code HEAD} is described with the tags of one prefix, once per prefix.
+   *
+   * @return describe function
+   */
+  CheckedFunction2<Repository, String, DescribeWalk.Described> describer() {
+    return (repo, prefix) -> recorded(DESCRIBE, repo, this.described, prefix, p -> IncrementalDescribe.head(repo, p));
+  }
+
+  /**
+   * How the distance from the merge base of {@code HEAD} and a remote branch to its nearest tag is counted, through the
+   * on disk cache when one is configured.
+   *
+   * @return distance function
+   */
+  MergeBaseCache.Loader mergeBaseDistances() {
+    var directory = this.getParameters().getCacheDirectory().getAsFile().getOrNull();
+    MergeBaseCache.Loader loader = directory != null
+      ? new MergeBaseCache(directory.toPath())::distance
+      : MergeBaseCache::uncached;
+    return (repo, head, remote, prefix) -> {
+      var key = head.name() + ' ' + remote.name() + ' ' + prefix;
+      var distances = this.mergeBaseDistances;
+      return recorded(MERGE_BASE_DISTANCE, repo, distances, key, k -> loader.distance(repo, head, remote, prefix));
+    };
+  }
+
+  // a hit is a value another project already asked for this build
+  private static <K, V> V recorded(
+    String operation,
+    Repository repo,
+    Memo<K, V> memo,
+    K key,
+    Memo.Loader<? super K, V> loader
+  ) throws IOException {
+    var event = GitEvent.start(operation);
+    var loaded = new AtomicBoolean();
+    var value = memo.get(key, k -> {
+      loaded.set(true);
+      return loader.load(k);
+    });
+    if (event.recording()) event.hit(!loaded.get()).record(repo);
+    return value;
+  }
+
+  /**
+   * Starts opening the repository and taking its snapshot on a background thread, so the git I/O overlaps compiling
+   * build scripts and configuring other projects. Whichever of the prefetch and the first provider to ask gets there
+   * first takes the snapshot, the other waits for it. Only the first call starts anything.
+   */
+  void prefetch() {
+    if (this.prefetching.compareAndSet(false, true)) this.prefetcher.execute(this::warm);
   }
 
+  // a failure is left for the providers to report, they get the same one
+  private void warm() {
+    Try.run(() ->
+      TimeBudget.until(this.closing, () -> {
+        var git = this.getProvider().getOrNull();
+        return git != null ? this.snapshots().apply(git.getRepository()) : null;
+      })
+    ).onFailure(e -> this.log.debug("git metadata prefetch failed", e));
+  }
+
+  // a daemon, so the prefetch never keeps the JVM alive
+  private static Thread prefetchThread(Runnable runnable) {
+    var thread = new Thread(runnable, "git metadata prefetch");
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  private boolean watching() {
+    return this.getParameters().getWatch().getOrElse(false);
+  }
+
+  // a prefetch still running is no longer needed, it is cancelled rather than interrupted, which would close the pack
+  // files it reads for every repository in the JVM, and the repository is only closed once the prefetch has stopped
   @Override
   public void close() {
-    if (this.git != null) {
-      this.git.close();
+    this.closing.set(true);
+    this.prefetcher.shutdown();
+    var stopped = Try.of(() -> this.prefetcher.awaitTermination(PREFETCH_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+      // awaiting only fails by being interrupted
+      .onFailure(e -> Thread.currentThread().interrupt())
+      .getOrElse(false);
+    RepositoryWatcher.release(this);
+    if (stopped) {
+      this.git.values().forEach(Git::close);
+    } else {
+      this.log.warn("git metadata prefetch did not stop, leaving the repository open");
     }
   }
 
@@ -54,5 +198,20 @@ public abstract class GitService implements BuildService<GitService.Params>, Aut
      * @return The project directory.
      */
     DirectoryProperty getGitDirectory();
+
+    /**
+     * Where git metadata is cached between builds, caching is disabled when unset.
+     *
+     * @return The cache directory.
+     */
+    DirectoryProperty getCacheDirectory();
+
+    /**
+     * Whether the repository is watched for changes so that metadata and status are kept in memory by the daemon
+     * between builds, defaults to false.
+     *
+     * @return whether to watch
+     */
+    Property<Boolean> getWatch();
   }
 }
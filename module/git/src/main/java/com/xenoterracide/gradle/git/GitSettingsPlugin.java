@@ -0,0 +1,40 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import javax.inject.Inject;
+import org.gradle.api.Plugin;
+import org.gradle.api.initialization.Settings;
+import org.gradle.api.model.ObjectFactory;
+
+/**
+ * {@link GitPlugin} for settings, the {@code git} extension is available before any project is configured and shares
+ * its {@link GitService} with every project that applies {@link GitPlugin}.
+ */
+public class GitSettingsPlugin implements Plugin<Settings> {
+
+  private static final String GIT = "git";
+
+  private final ObjectFactory objects;
+
+  /**
+   * Instantiates a new Git settings plugin.
+   *
+   * @param objects
+   *   object factory, settings do not expose one
+   */
+  @Inject
+  public GitSettingsPlugin(ObjectFactory objects) {
+    this.objects = objects;
+  }
+
+  @Override
+  public void apply(Settings settings) {
+    var gitDir = GitPlugin.gitDirectory(settings.getProviders(), settings.getRootDir());
+    var gitService = GitPlugin.register(settings.getGradle(), settings.getProviders(), gitDir);
+    var pf = new ProvidedFactory(this.objects, settings.getProviders());
+    settings.getExtensions().add(GIT, new GitExtension(gitService, gitDir, pf));
+  }
+}
@@ -0,0 +1,190 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import com.google.errorprone.annotations.Var;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import org.eclipse.jgit.lib.ConfigConstants;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Immutable metadata about {@code HEAD}, computed from a single walk of its history.
+ */
+final class GitSnapshot {
+
+  static final GitSnapshot EMPTY = new GitSnapshot(null, 0, null, null, null, 0, Map.of());
+
+  // enough commits to tell a shallow clone from a real history
+  private static final int SHORT_COUNT = 5;
+  // jgit's default, without checking it is unique which could mean reading the object database
+  private static final int ABBREVIATION = 7;
+
+  private final @Nullable String tag;
+  private final long distance;
+  private final @Nullable String commit;
+  private final @Nullable String uniqueShort;
+  private final @Nullable String branch;
+  private final long shortCount;
+  private final Map<String, @Nullable String> remotes;
+  private final boolean timedOut;
+
+  GitSnapshot(
+    @Nullable String tag,
+    long distance,
+    @Nullable String commit,
+    @Nullable String uniqueShort,
+    @Nullable String branch,
+    long shortCount,
+    Map<String, @Nullable String> remotes
+  ) {
+    this.tag = tag;
+    this.distance = distance;
+    this.commit = commit;
+    this.uniqueShort = uniqueShort;
+    this.branch = branch;
+    this.shortCount = shortCount;
+    this.remotes = remotes;
+    this.timedOut = false;
+  }
+
+  private GitSnapshot(GitSnapshot refsOnly) {
+    this.tag = refsOnly.tag;
+    this.distance = refsOnly.distance;
+    this.commit = refsOnly.commit;
+    this.uniqueShort = refsOnly.uniqueShort;
+    this.branch = refsOnly.branch;
+    this.shortCount = refsOnly.shortCount;
+    this.remotes = refsOnly.remotes;
+    this.timedOut = true;
+  }
+
+  /**
+   * Takes a snapshot of the repository {@code HEAD}.
+   *
+   * @param repo
+   *   the repository
+   * @return the snapshot
+   * @throws IOException
+   *   if the repository cannot be read
+   */
+  static GitSnapshot take(Repository repo) throws IOException {
+    var refs = FastRefs.of(repo);
+    var head = refs.exactRef(Constants.HEAD);
+    var branch = branchOf(head);
+    var remotes = remotes(repo, refs);
+    var oid = head != null ? head.getObjectId() : null;
+    if (oid == null) return new GitSnapshot(null, 0, null, null, branch, 0, remotes);
+
+    try (var reader = repo.newObjectReader()) {
+      var described = IncrementalDescribe.describe(repo, reader, oid);
+      var shortCount = described.walked() >= SHORT_COUNT ? SHORT_COUNT : count(reader, oid);
+      var uniqueShort = reader.abbreviate(oid).name();
+      var tag = described.tag();
+      return new GitSnapshot(tag, described.distance(), oid.name(), uniqueShort, branch, shortCount, remotes);
+    }
+  }
+
+  /**
+   * What the refs alone tell of {@code HEAD}, for when taking a snapshot took longer than its time budget. There is no
+   * tag or distance, the history was never walked.
+   *
+   * @param repo
+   *   the repository
+   * @return the partial snapshot
+   * @throws IOException
+   *   if the refs cannot be read
+   */
+  static GitSnapshot timedOut(Repository repo) throws IOException {
+    var refs = FastRefs.of(repo);
+    var head = refs.exactRef(Constants.HEAD);
+    var oid = head != null ? head.getObjectId() : null;
+    var commit = oid != null ? oid.name() : null;
+    var uniqueShort = oid != null ? oid.abbreviate(ABBREVIATION).name() : null;
+    // as many commits as a full history, a timeout is not a shallow clone
+    var refsOnly = new GitSnapshot(null, 0, commit, uniqueShort, branchOf(head), SHORT_COUNT, remotes(repo, refs));
+    return new GitSnapshot(refsOnly);
+  }
+
+  private static @Nullable String branchOf(@Nullable Ref head) {
+    if (head == null) return null;
+    var full = head.isSymbolic() ? head.getTarget().getName() : ObjectId.toString(head.getObjectId());
+    return full != null ? Repository.shortenRefName(full) : null;
+  }
+
+  // remote name to the ref its HEAD points at, sorted by name like `git remote`
+  private static Map<String, @Nullable String> remotes(Repository repo, FastRefs refs) throws IOException {
+    var names = repo.getConfig().getSubsections(ConfigConstants.CONFIG_REMOTE_SECTION);
+    return Collections.unmodifiableMap(refs.remoteHeads(names));
+  }
+
+  private static int count(ObjectReader reader, ObjectId head) throws IOException {
+    try (var walk = new RevWalk(reader)) {
+      walk.markStart(walk.parseCommit(head));
+      @Var int count = 0;
+      while (count < SHORT_COUNT && walk.next() != null) count++;
+      GitEvent.commitsWalked(count);
+      return count;
+    }
+  }
+
+  @Nullable
+  String tag() {
+    return this.tag;
+  }
+
+  long distance() {
+    return this.distance;
+  }
+
+  @Nullable
+  String commit() {
+    return this.commit;
+  }
+
+  @Nullable
+  String uniqueShort() {
+    return this.uniqueShort;
+  }
+
+  @Nullable
+  String branch() {
+    return this.branch;
+  }
+
+  /**
+   * Number of commits in history, capped at a handful.
+   *
+   * @return commits reachable from {@code HEAD}, at most {@value #SHORT_COUNT}
+   */
+  long shortCount() {
+    return this.shortCount;
+  }
+
+  /**
+   * Remotes, sorted by name.
+   *
+   * @return remote name to the ref name of its {@code HEAD} branch, if known
+   */
+  Map<String, @Nullable String> remotes() {
+    return this.remotes;
+  }
+
+  /**
+   * Whether this is only what the refs tell, because walking the history took longer than its time budget.
+   *
+   * @return true if the snapshot timed out
+   */
+  boolean timedOut() {
+    return this.timedOut;
+  }
+}
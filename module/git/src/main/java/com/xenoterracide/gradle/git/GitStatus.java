@@ -21,7 +21,11 @@ public enum GitStatus {
   /**
    * No Repository found.
    */
-  NO_REPO;
+  NO_REPO,
+  /**
+   * Checking took longer than its time budget, so the working tree may or may not be clean.
+   */
+  TIMED_OUT;
 
   @Override
   public String toString() {
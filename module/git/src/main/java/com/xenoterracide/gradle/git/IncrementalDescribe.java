@@ -0,0 +1,163 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import com.google.errorprone.annotations.Var;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Remembers the last description of each repository so that after a fast-forward only the new commits are walked.
+ * Every commit reachable from the previous target keeps its distance to the tag, so the new distance is the old one
+ * plus the commits that were added. That holds only while the previous target is an ancestor, none of the added
+ * commits is tagged and no tag was created or moved; anything else is described from scratch.
+ */
+final class IncrementalDescribe {
+
+  // past this, a history rewrite is more likely than a pull and a full describe is cheaper
+  private static final int MAX_ADDED = 10_000;
+  // keyed by git directory and tag prefix, a repository is reopened for every build
+  private static final Map<Map.Entry<Path, String>, Last> LAST = new ConcurrentHashMap<>();
+
+  private IncrementalDescribe() {}
+
+  /**
+   * Describes the target commit, reusing the previous description of the repository when it can.
+   *
+   * @param repo
+   *   the repository
+   * @param reader
+   *   reader to parse commits with, the caller retains ownership
+   * @param target
+   *   commit to describe
+   * @return the nearest tag, if any, and the distance to it
+   * @throws IOException
+   *   if the object database cannot be read
+   */
+  static DescribeWalk.Described describe(Repository repo, ObjectReader reader, AnyObjectId target)
+    throws IOException {
+    return describe(repo, reader, target, TagIndex.DEFAULT_PREFIX);
+  }
+
+  /**
+   * Describes the target commit with the tags that have a prefix, reusing the previous description of the repository
+   * with that prefix when it can.
+   *
+   * @param repo
+   *   the repository
+   * @param reader
+   *   reader to parse commits with, the caller retains ownership
+   * @param target
+   *   commit to describe
+   * @param prefix
+   *   what comes before the version in the tag name
+   * @return the nearest tag, if any, and the distance to it
+   * @throws IOException
+   *   if the object database cannot be read
+   */
+  static DescribeWalk.Described describe(Repository repo, ObjectReader reader, AnyObjectId target, String prefix)
+    throws IOException {
+    var key = Map.entry(repo.getDirectory().toPath().toAbsolutePath().normalize(), prefix);
+    var tags = TagIndex.of(repo, prefix);
+    var last = LAST.get(key);
+    // the previous target is gone after a rewrite and gc
+    var forwarded = last != null && last.tags.sameTags(tags) && reader.has(last.head)
+      ? forward(reader, tags, last, target)
+      : null;
+    var described = forwarded != null ? forwarded : DescribeWalk.describe(repo, reader, target, tags);
+    LAST.put(key, new Last(tags, target.copy(), described));
+    return described;
+  }
+
+  /**
+   * Describes {@code HEAD} with the tags that have a prefix.
+   *
+   * @param repo
+   *   the repository
+   * @param prefix
+   *   what comes before the version in the tag name
+   * @return the nearest tag, if any, and the distance to it, or nothing for a repository without commits
+   * @throws IOException
+   *   if the repository cannot be read
+   */
+  static DescribeWalk.Described head(Repository repo, String prefix) throws IOException {
+    var head = FastRefs.of(repo).exactRef(Constants.HEAD);
+    var oid = head != null ? head.getObjectId() : null;
+    if (oid == null) return new DescribeWalk.Described(null, 0, 0);
+    try (var reader = repo.newObjectReader()) {
+      return describe(repo, reader, oid, prefix);
+    }
+  }
+
+  /**
+   * Moves a previous description forward to a descendant.
+   *
+   * @param reader
+   *   reader to parse commits with, the caller retains ownership
+   * @param tags
+   *   version tags, the same as when the previous description was made
+   * @param last
+   *   the previous description
+   * @param target
+   *   commit to describe
+   * @return the description, or null if it has to be made from scratch
+   * @throws IOException
+   *   if the object database cannot be read
+   */
+  static DescribeWalk.@Nullable Described forward(ObjectReader reader, TagIndex tags, Last last, AnyObjectId target)
+    throws IOException {
+    try (var walk = new RevWalk(reader)) {
+      walk.setRetainBody(false);
+      walk.markStart(walk.parseCommit(target));
+      walk.markUninteresting(walk.parseCommit(last.head));
+      var added = added(walk, tags, last.head, target);
+      var previous = last.described;
+      return added < 0
+        ? null
+        : new DescribeWalk.Described(previous.tag(), previous.distance() + added, previous.walked() + added);
+    }
+  }
+
+  // commits reachable from the target but not the previous one, or -1 if they cannot just be added
+  private static long added(RevWalk walk, TagIndex tags, ObjectId previous, AnyObjectId target) throws IOException {
+    @Var long added = 0;
+    // when the previous target is an ancestor, one of the added commits is its child
+    @Var var descends = previous.equals(target);
+    @Var var tagged = false;
+    for (@Var var commit = walk.next(); commit != null && added < MAX_ADDED; commit = walk.next()) {
+      added++;
+      tagged = tags.tagOn(commit) != null;
+      if (tagged) break;
+      for (var parent : commit.getParents()) descends |= parent.equals(previous);
+    }
+    GitEvent.commitsWalked(added);
+    return descends && !tagged && added < MAX_ADDED ? added : -1;
+  }
+
+  /**
+   * A description and what it was made from.
+   */
+  static final class Last {
+
+    private final TagIndex tags;
+    private final ObjectId head;
+    private final DescribeWalk.Described described;
+
+    Last(TagIndex tags, ObjectId head, DescribeWalk.Described described) {
+      this.tags = tags;
+      this.head = head;
+      this.described = described;
+    }
+  }
+}
@@ -0,0 +1,47 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+import org.eclipse.jgit.lib.Repository;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Keeps the last {@link GitSnapshot} taken, taking another only once the refs it was taken from change, checked with
+ * the {@link SnapshotCache#fingerprint(Repository) fingerprint} the cache on disk uses. Reading each value of a
+ * {@link GitMetadataImpl} made without a build service otherwise walks history again.
+ */
+final class LatestSnapshot implements SnapshotCache.Loader {
+
+  private final SnapshotCache.Loader loader;
+  private final AtomicReference<@Nullable Taken> latest = new AtomicReference<>();
+
+  LatestSnapshot(SnapshotCache.Loader loader) {
+    this.loader = loader;
+  }
+
+  @Override
+  public GitSnapshot take(Repository repo) throws IOException {
+    var fingerprint = SnapshotCache.fingerprint(repo);
+    var taken = this.latest.get();
+    if (taken != null && taken.fingerprint.equals(fingerprint)) return taken.snapshot;
+    // callers racing on a change may both take one, either is current
+    var snapshot = this.loader.take(repo);
+    this.latest.set(new Taken(fingerprint, snapshot));
+    return snapshot;
+  }
+
+  private static final class Taken {
+
+    private final String fingerprint;
+    private final GitSnapshot snapshot;
+
+    Taken(String fingerprint, GitSnapshot snapshot) {
+      this.fingerprint = fingerprint;
+      this.snapshot = snapshot;
+    }
+  }
+}
@@ -0,0 +1,105 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Computes a value once per key no matter how many threads ask for it. The first caller puts a future in place and
+ * computes on its own thread, every other caller waits on that future, so nothing is computed while holding a lock and
+ * a failure is shared just like a value.
+ *
+ * @param <K>
+ *   key type
+ * @param <V>
+ *   value type
+ */
+final class Memo<K, V> {
+
+  private final Map<K, CompletableFuture<V>> futures = new ConcurrentHashMap<>();
+
+  /**
+   * Gets the value for a key, computing it if no other caller has.
+   *
+   * @param key
+   *   the key
+   * @param loader
+   *   computes the value, called at most once per key
+   * @return the value
+   * @throws IOException
+   *   if the value could not be computed
+   */
+  V get(K key, Loader<? super K, V> loader) throws IOException {
+    var created = new CompletableFuture<V>();
+    var shared = this.futures.putIfAbsent(key, created);
+    if (shared == null) {
+      // runs on this thread, an exception completes the future instead of escaping
+      created.completeAsync(() -> load(loader, key), Runnable::run);
+    }
+    return join(shared != null ? shared : created);
+  }
+
+  /**
+   * Values computed successfully so far.
+   *
+   * @return the values
+   */
+  List<V> values() {
+    return this.futures.values()
+      .stream()
+      .filter(future -> future.isDone() && !future.isCompletedExceptionally())
+      .map(CompletableFuture::join)
+      .collect(Collectors.toList());
+  }
+
+  private static <K, V> V load(Loader<? super K, V> loader, K key) {
+    try {
+      return loader.load(key);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // the exception the loader threw, rather than the future's wrapper
+  private static <V> V join(CompletableFuture<V> future) throws IOException {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      var cause = e.getCause();
+      if (cause instanceof UncheckedIOException) throw ((UncheckedIOException) cause).getCause();
+      if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+      throw e;
+    }
+  }
+
+  /**
+   * Computes a value.
+   *
+   * @param <K>
+   *   key type
+   * @param <V>
+   *   value type
+   */
+  @FunctionalInterface
+  interface Loader<K, V> {
+    /**
+     * Computes the value for a key.
+     *
+     * @param key
+     *   the key
+     * @return the value
+     * @throws IOException
+     *   if the value could not be computed
+     */
+    V load(K key) throws IOException;
+  }
+}
@@ -0,0 +1,253 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import com.google.common.base.Splitter;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps merge bases on disk between builds, keyed by the commit being built, the commit of the remote branch and the
+ * tag prefix. The merge base of two commits never changes, so an entry is never invalidated, only dropped once it is
+ * the least recently used of more than {@link #MAX_ENTRIES}. The distance from the merge base to its nearest tag
+ * changes with the tags, so it is stored with the tags of its prefix it was counted against and counted again, without
+ * finding the merge base again, when they differ.
+ */
+final class MergeBaseCache {
+
+  /**
+   * How many pairs of commits are kept, each is one short line.
+   */
+  static final int MAX_ENTRIES = 1024;
+
+  private static final String ENTRY = ".merge-bases";
+  private static final String NONE = "-";
+  private static final Splitter FIELDS = Splitter.on(' ');
+
+  private final Logger log = LoggerFactory.getLogger(this.getClass());
+  private final Path directory;
+  private final int maxEntries;
+  private final Finder finder;
+
+  MergeBaseCache(Path directory) {
+    this(directory, MAX_ENTRIES, BranchWalk::walk);
+  }
+
+  MergeBaseCache(Path directory, int maxEntries, Finder finder) {
+    this.directory = directory;
+    this.maxEntries = maxEntries;
+    this.finder = finder;
+  }
+
+  /**
+   * Counts the distance without storing anything, for when there is no cache directory.
+   *
+   * @param repo
+   *   the repository
+   * @param head
+   *   the commit being built
+   * @param remote
+   *   the commit of the remote branch
+   * @param prefix
+   *   what comes before the version in the tag name
+   * @return the distance from the merge base to its nearest tag, or empty if the commits share no history
+   * @throws IOException
+   *   if the repository cannot be read
+   */
+  static Optional<Long> uncached(Repository repo, AnyObjectId head, AnyObjectId remote, String prefix)
+    throws IOException {
+    var branch = BranchWalk.walk(repo, head, remote, prefix);
+    return branch.mergeBase() != null ? Optional.of(branch.distance()) : Optional.empty();
+  }
+
+  /**
+   * Gets the distance from the merge base of two commits to its nearest tag, finding the merge base only for a pair
+   * of commits not seen before.
+   *
+   * @param repo
+   *   the repository
+   * @param head
+   *   the commit being built
+   * @param remote
+   *   the commit of the remote branch
+   * @param prefix
+   *   what comes before the version in the tag name
+   * @return the distance, or empty if the commits share no history
+   * @throws IOException
+   *   if the repository cannot be read
+   */
+  Optional<Long> distance(Repository repo, AnyObjectId head, AnyObjectId remote, String prefix) throws IOException {
+    // deepening a shallow clone can change the merge base, so the answer is only fixed with the full history
+    if (Files.exists(repo.getCommonDirectory().toPath().resolve(Constants.SHALLOW))) {
+      return uncached(repo, head, remote, prefix);
+    }
+    var file = this.directory.resolve(entryName(repo) + ENTRY);
+    // tag names cannot contain a space, so neither can the prefix
+    var key = head.name() + ' ' + remote.name() + ' ' + prefix;
+    var tags = TagIndex.of(repo, prefix).fingerprint();
+    var entries = this.read(file);
+    var cached = entries.get(key);
+    var current = cached != null && cached.tags.equals(tags)
+      ? cached
+      : this.count(repo, head, remote, prefix, cached, tags);
+    // a hit on the most recently used entry leaves the file as it is, which is every build on an unchanged branch
+    var mostRecent = entries.keySet().stream().reduce((first, second) -> second).orElse(null);
+    if (current != cached || !key.equals(mostRecent)) {
+      entries.remove(key);
+      entries.put(key, current);
+      this.write(file, entries);
+    }
+    return current.distance();
+  }
+
+  // a pair not seen before is walked once for both the merge base and its distance, new tags only need the distance
+  private Entry count(
+    Repository repo,
+    AnyObjectId head,
+    AnyObjectId remote,
+    String prefix,
+    @Nullable Entry cached,
+    String tags
+  ) throws IOException {
+    if (cached == null) {
+      var branch = this.finder.walk(repo, head, remote, prefix);
+      return new Entry(branch.mergeBase(), tags, branch.distance());
+    }
+    var mergeBase = cached.mergeBase;
+    var distance = mergeBase != null ? DistanceCalculator.distance(repo, mergeBase, prefix) : 0;
+    return new Entry(mergeBase, tags, distance);
+  }
+
+  // least recently used first
+  private Map<String, Entry> read(Path file) {
+    var entries = new LinkedHashMap<String, Entry>();
+    try {
+      for (var line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+        var fields = FIELDS.splitToList(line);
+        entries.put(fields.get(0) + ' ' + fields.get(1) + ' ' + fields.get(2), Entry.decode(fields));
+      }
+    } catch (NoSuchFileException e) {
+      this.log.debug("no merge base cache {}", file);
+    } catch (IOException | IllegalArgumentException | IndexOutOfBoundsException e) {
+      this.log.debug("merge base cache unreadable {}", file, e);
+      entries.clear();
+    }
+    return entries;
+  }
+
+  // readers never see a partial file, it is renamed into place once complete. Builds writing at once can lose each
+  // other's entries, which only costs finding those merge bases again
+  private void write(Path file, Map<String, Entry> entries) {
+    var lines = new ArrayList<String>(entries.size());
+    entries.forEach((key, entry) -> lines.add(key + ' ' + entry.encode()));
+    var kept = lines.subList(Math.max(0, lines.size() - this.maxEntries), lines.size());
+    try {
+      Files.createDirectories(this.directory);
+      var temp = Files.createTempFile(this.directory, file.getFileName().toString(), null);
+      Files.write(temp, kept, StandardCharsets.UTF_8);
+      Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      this.log.warn("unable to write merge base cache {}", file, e);
+    }
+  }
+
+  // one file per repository, shared by its worktrees
+  private static String entryName(Repository repo) {
+    var path = repo.getCommonDirectory().toPath().toAbsolutePath().normalize().toString();
+    return Hashing.sha256().hashString(path, StandardCharsets.UTF_8).toString();
+  }
+
+  private static final class Entry {
+
+    private final @Nullable ObjectId mergeBase;
+    private final String tags;
+    private final long distance;
+
+    Entry(@Nullable ObjectId mergeBase, String tags, long distance) {
+      this.mergeBase = mergeBase;
+      this.tags = tags;
+      this.distance = distance;
+    }
+
+    // head remote prefix mergeBase tags distance, with - for commits that share no history
+    static Entry decode(List<String> fields) {
+      var mergeBase = fields.get(3);
+      var oid = NONE.equals(mergeBase) ? null : ObjectId.fromString(mergeBase);
+      return new Entry(oid, fields.get(4), Long.parseLong(fields.get(5)));
+    }
+
+    String encode() {
+      var oid = this.mergeBase != null ? this.mergeBase.name() : NONE;
+      return oid + ' ' + this.tags + ' ' + this.distance;
+    }
+
+    Optional<Long> distance() {
+      return this.mergeBase != null ? Optional.of(this.distance) : Optional.empty();
+    }
+  }
+
+  /**
+   * Finds the merge base and its distance on a cache miss.
+   */
+  @FunctionalInterface
+  interface Finder {
+    /**
+     * Walks the history of two commits.
+     *
+     * @param repo
+     *   the repository
+     * @param head
+     *   the commit being built
+     * @param remote
+     *   the commit of the remote branch
+     * @param prefix
+     *   what comes before the version in the tag name
+     * @return the merge base, if any, and the distance from it
+     * @throws IOException
+     *   if the repository cannot be read
+     */
+    BranchWalk.Branch walk(Repository repo, AnyObjectId head, AnyObjectId remote, String prefix) throws IOException;
+  }
+
+  /**
+   * Counts the distance from the merge base of two commits to its nearest tag.
+   */
+  @FunctionalInterface
+  interface Loader {
+    /**
+     * Counts the distance.
+     *
+     * @param repo
+     *   the repository
+     * @param head
+     *   the commit being built
+     * @param remote
+     *   the commit of the remote branch
+     * @param prefix
+     *   what comes before the version in the tag name
+     * @return the distance, or empty if the commits share no history
+     * @throws IOException
+     *   if the repository cannot be read
+     */
+    Optional<Long> distance(Repository repo, AnyObjectId head, AnyObjectId remote, String prefix) throws IOException;
+  }
+}
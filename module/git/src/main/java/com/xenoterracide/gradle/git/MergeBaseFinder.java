@@ -8,8 +8,11 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Optional;
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraph;
+import org.eclipse.jgit.lib.AnyObjectId;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevWalk;
@@ -24,24 +27,101 @@ class MergeBaseFinder {
     this.repo = repo;
   }
 
+  /**
+   * Finds a merge base, using generation numbers from the commit-graph when there is one.
+   *
+   * @param reader
+   *   reader to parse commits with
+   * @param graph
+   *   commit-graph of the repository, if any
+   * @param one
+   *   a commit
+   * @param two
+   *   another commit
+   * @return the merge base, or empty if the commits share no history
+   * @throws IOException
+   *   if the object database cannot be read
+   */
+  static Optional<ObjectId> mergeBase(
+    ObjectReader reader,
+    @Nullable CommitGraph graph,
+    AnyObjectId one,
+    AnyObjectId two
+  ) throws IOException {
+    if (graph != null) return GenerationMergeBase.find(reader, graph, one, two);
+    try (var walk = new RevWalk(reader)) {
+      walk.setRevFilter(RevFilter.MERGE_BASE);
+      walk.markStart(List.of(walk.parseCommit(one), walk.parseCommit(two)));
+
+      var mergeBase = walk.next();
+
+      return Optional.ofNullable(mergeBase).map(ObjectId::copy);
+    }
+  }
+
+  /**
+   * Finds the merge base of two commits in a repository.
+   *
+   * @param repo
+   *   the repository
+   * @param head
+   *   the commit being built
+   * @param remote
+   *   the commit of the remote branch
+   * @return the merge base, or null if the commits share no history
+   * @throws IOException
+   *   if the object database cannot be read
+   */
+  static @Nullable ObjectId mergeBase(Repository repo, AnyObjectId head, AnyObjectId remote) throws IOException {
+    var event = GitEvent.start("merge-base");
+    try (var reader = repo.newObjectReader()) {
+      var mergeBase = mergeBase(reader, new CommitGraphs(repo).load(reader), remote, head).orElse(null);
+      if (event.recording()) event.record(repo);
+      return mergeBase;
+    }
+  }
+
   public Optional<ObjectId> find(@Nullable GitRemote gitRemote) {
     if (gitRemote == null || gitRemote.headBranch() == null) return Optional.empty();
     try {
-      var current = Optional.ofNullable(this.repo.findRef(Constants.HEAD)).map(Ref::getObjectId).orElseThrow();
-      var remote = Optional.ofNullable(this.repo.findRef(gitRemote.headBranchRefName()))
-        .map(Ref::getObjectId)
-        .orElseThrow();
-
-      try (var walk = new RevWalk(this.repo)) {
-        walk.setRevFilter(RevFilter.MERGE_BASE);
-        walk.markStart(List.of(walk.parseCommit(remote), walk.parseCommit(current)));
-
-        var mergeBase = walk.next();
+      var refs = FastRefs.of(this.repo);
+      var current = objectId(refs, Constants.HEAD);
+      var remote = objectId(refs, gitRemote.headBranchRefName());
+      return Optional.ofNullable(mergeBase(this.repo, current, remote));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
 
-        return Optional.ofNullable(mergeBase).map(ObjectId::toObjectId);
-      }
+  /**
+   * Finds the distance from the merge base of {@code HEAD} and the remote's {@code HEAD} branch to its nearest tag
+   * with a prefix.
+   *
+   * @param gitRemote
+   *   the remote
+   * @param prefix
+   *   what comes before the version in the tag name, such as {@code semver-v}
+   * @param distances
+   *   counts the distance for a pair of commits
+   * @return the distance, or empty if the remote has no {@code HEAD} branch or shares no history
+   */
+  Optional<Long> distance(@Nullable GitRemote gitRemote, String prefix, MergeBaseCache.Loader distances) {
+    if (gitRemote == null || gitRemote.headBranch() == null) return Optional.empty();
+    var event = GitEvent.start("merge-base-distance");
+    try {
+      var refs = FastRefs.of(this.repo);
+      var head = objectId(refs, Constants.HEAD);
+      var remote = objectId(refs, gitRemote.headBranchRefName());
+      var distance = distances.distance(this.repo, head, remote, prefix);
+      if (event.recording()) event.record(this.repo);
+      return distance;
     } catch (IOException e) {
       throw new UncheckedIOException(e);
     }
   }
+
+  private static ObjectId objectId(FastRefs refs, @Nullable String name) throws IOException {
+    var ref = name != null ? refs.exactRef(name) : null;
+    return Optional.ofNullable(ref).map(Ref::getObjectId).orElseThrow();
+  }
 }
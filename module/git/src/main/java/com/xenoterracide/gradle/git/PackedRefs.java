@@ -0,0 +1,190 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import com.google.errorprone.annotations.Var;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectIdRef;
+import org.eclipse.jgit.lib.Ref;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A read only view of a sorted {@code packed-refs} file. The file is read into memory as bytes and never parsed as a
+ * whole, exact names and prefixes are binary searched and only the records asked for become {@link Ref}s, with the
+ * peeled object read from the {@code ^} line that follows a record. The bytes are kept until git rewrites the file, so
+ * every lookup of a build, and of the builds after it, shares one read.
+ *
+ * @see <a href="https://git-scm.com/docs/git-pack-refs">git-pack-refs</a>
+ */
+final class PackedRefs {
+
+  private static final String HEADER = "# pack-refs with:";
+  private static final String SORTED = "sorted";
+  private static final String PEELED = "peeled";
+  private static final String FULLY_PEELED = "fully-peeled";
+  private static final byte NEWLINE = '\n';
+  private static final byte PEELED_LINE = '^';
+  private static final int OID = Constants.OBJECT_ID_STRING_LENGTH;
+  private static final FileCache<PackedRefs> READ = new FileCache<>();
+
+  private final ByteBuffer file;
+  private final int start;
+  private final boolean peeled;
+  private final boolean fullyPeeled;
+
+  private PackedRefs(ByteBuffer file, int start, List<String> traits) {
+    this.file = file;
+    this.start = start;
+    this.peeled = traits.contains(PEELED);
+    this.fullyPeeled = traits.contains(FULLY_PEELED);
+  }
+
+  /**
+   * Reads a {@code packed-refs} file, or gets it as it was last read if it has not changed since.
+   *
+   * @param path
+   *   the file
+   * @return the refs, empty if the file does not exist, or null if it is not declared sorted or is too large to read
+   * @throws IOException
+   *   if the file cannot be read
+   */
+  static @Nullable PackedRefs open(Path path) throws IOException {
+    if (!Files.isRegularFile(path)) return new PackedRefs(ByteBuffer.allocate(0), 0, List.of(SORTED, FULLY_PEELED));
+    return READ.get(path, PackedRefs::read);
+  }
+
+  // not mapped, a mapping lasts until it is garbage collected and on Windows git cannot replace a mapped file
+  private static @Nullable PackedRefs read(Path path) throws IOException {
+    return Files.size(path) < Integer.MAX_VALUE ? of(ByteBuffer.wrap(Files.readAllBytes(path))) : null;
+  }
+
+  private static @Nullable PackedRefs of(ByteBuffer file) {
+    if (!file.hasRemaining()) return new PackedRefs(file, 0, List.of(SORTED, FULLY_PEELED));
+    var end = lineEnd(file, 0);
+    var header = new String(bytes(file, 0, end), StandardCharsets.UTF_8);
+    var traits = header.startsWith(HEADER)
+      ? Arrays.asList(header.substring(HEADER.length()).trim().split(" "))
+      : List.<String>of();
+    // without the trait the order is unknown, and JGit cannot read the longer object names of a SHA-256 repository
+    var first = end + 1 + OID;
+    var records = end + 1 < file.limit();
+    var searchable = traits.contains(SORTED) && (!records || (first < file.limit() && file.get(first) == ' '));
+    return searchable ? new PackedRefs(file, Math.min(end + 1, file.limit()), traits) : null;
+  }
+
+  /**
+   * Finds a ref by its full name.
+   *
+   * @param name
+   *   the full ref name
+   * @return the ref, or null if it is not packed
+   */
+  @Nullable
+  Ref get(String name) {
+    var key = name.getBytes(StandardCharsets.UTF_8);
+    var record = this.lowerBound(key);
+    return record < this.file.limit() && this.compare(record, key, false) == 0 ? this.ref(record) : null;
+  }
+
+  /**
+   * Finds the refs whose name starts with a prefix.
+   *
+   * @param prefix
+   *   the prefix, such as {@code refs/tags/v}
+   * @return the refs in name order
+   */
+  List<Ref> byPrefix(String prefix) {
+    var key = prefix.getBytes(StandardCharsets.UTF_8);
+    var refs = new ArrayList<Ref>();
+    @Var var record = this.lowerBound(key);
+    while (record < this.file.limit() && this.compare(record, key, true) == 0) {
+      refs.add(this.ref(record));
+      record = this.nextRecord(record);
+    }
+    return refs;
+  }
+
+  // the first record whose name is not less than the key, every record before lo is less and none from hi on is
+  private int lowerBound(byte[] key) {
+    @Var var lo = this.start;
+    @Var var hi = this.file.limit();
+    while (lo < hi) {
+      var record = this.recordStart(lo + (hi - lo) / 2);
+      if (this.compare(record, key, false) < 0) {
+        lo = this.nextRecord(record);
+      } else {
+        hi = record;
+      }
+    }
+    return lo;
+  }
+
+  // compares the record's name with the key, or with only as much of the name as the key is long
+  private int compare(int record, byte[] key, boolean prefix) {
+    var name = record + OID + 1;
+    var length = lineEnd(this.file, name) - name;
+    var common = Math.min(length, key.length);
+    @Var var diff = 0;
+    for (var i = 0; i < common && diff == 0; i++) {
+      diff = Byte.toUnsignedInt(this.file.get(name + i)) - Byte.toUnsignedInt(key[i]);
+    }
+    return diff != 0 || (prefix && length >= key.length) ? diff : length - key.length;
+  }
+
+  private Ref ref(int record) {
+    var nameStart = record + OID + 1;
+    var nameEnd = lineEnd(this.file, nameStart);
+    var name = new String(bytes(this.file, nameStart, nameEnd), StandardCharsets.UTF_8);
+    var oid = ObjectId.fromString(bytes(this.file, record, record + OID), 0);
+    var next = nameEnd + 1;
+    if (next < this.file.limit() && this.file.get(next) == PEELED_LINE) {
+      var peeledOid = ObjectId.fromString(bytes(this.file, next + 1, next + 1 + OID), 0);
+      return new ObjectIdRef.PeeledTag(Ref.Storage.PACKED, name, oid, peeledOid);
+    }
+    // with no peeled line the ref is known not to be an annotated tag only if the file says it peeled it
+    var known = this.fullyPeeled || (this.peeled && name.startsWith(Constants.R_TAGS));
+    return known
+      ? new ObjectIdRef.PeeledNonTag(Ref.Storage.PACKED, name, oid)
+      : new ObjectIdRef.Unpeeled(Ref.Storage.PACKED, name, oid);
+  }
+
+  // a peeled line belongs to the record before it
+  private int recordStart(int offset) {
+    var line = this.lineStart(offset);
+    return this.file.get(line) == PEELED_LINE ? this.lineStart(line - 1) : line;
+  }
+
+  private int nextRecord(int record) {
+    var next = lineEnd(this.file, record) + 1;
+    return next < this.file.limit() && this.file.get(next) == PEELED_LINE ? lineEnd(this.file, next) + 1 : next;
+  }
+
+  private int lineStart(int offset) {
+    @Var var i = offset;
+    while (i > this.start && this.file.get(i - 1) != NEWLINE) i--;
+    return i;
+  }
+
+  private static int lineEnd(ByteBuffer file, int offset) {
+    @Var var i = offset;
+    while (i < file.limit() && file.get(i) != NEWLINE) i++;
+    return i;
+  }
+
+  private static byte[] bytes(ByteBuffer file, int from, int to) {
+    var bytes = new byte[to - from];
+    file.duplicate().position(from).get(bytes);
+    return bytes;
+  }
+}
@@ -0,0 +1,217 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.errors.StopWalkException;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * {@link DirtyCheck} split across a {@link ForkJoinPool}, the top-level directories are divided into a few groups per
+ * worker and each group is walked on its own, as are the files at the root. Every directory belongs to exactly one
+ * walk, so its {@code .gitignore} is compiled once per scan just as in a single walk, only the root is listed and its
+ * rules compiled by each. The first walk to find a change stops the others, as does cancelling the operation that
+ * started the scan.
+ */
+final class ParallelStatus {
+
+  // enough for idle workers to steal from busy ones, few enough that listing the root again stays cheap
+  private static final int GROUPS_PER_WORKER = 4;
+  private static final TreeFilter ROOT_FILES = new RootFiles();
+
+  private ParallelStatus() {}
+
+  /**
+   * Checks the working tree for changes on the common pool.
+   *
+   * @param repo
+   *   a repository with a working tree
+   * @param untracked
+   *   whether untracked files count as changes
+   * @return true if any walk found a change
+   * @throws IOException
+   *   if the repository or working tree cannot be read
+   */
+  static boolean isDirty(Repository repo, boolean untracked) throws IOException {
+    return isDirty(repo, untracked, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Checks the working tree for changes.
+   *
+   * @param repo
+   *   a repository with a working tree
+   * @param untracked
+   *   whether untracked files count as changes
+   * @param pool
+   *   runs the walks
+   * @return true if any walk found a change
+   * @throws IOException
+   *   if the repository or working tree cannot be read
+   */
+  static boolean isDirty(Repository repo, boolean untracked, ForkJoinPool pool) throws IOException {
+    var index = repo.readDirCache();
+    // iterators build the cache tree on demand, which must not happen concurrently
+    index.getCacheTree(true);
+    var scan = new Scan(repo, index, DirtyCheck.headTree(repo), untracked);
+    var directories = scan.directories();
+    var groups = Math.min(directories.size(), pool.getParallelism() * GROUPS_PER_WORKER);
+    try {
+      var dirty = pool.getParallelism() < 2 || groups < 2
+        ? scan.walk(TreeFilter.ALL)
+        : pool.invoke(new Task(scan, partitions(directories, groups)));
+      // walks stopped by cancelling found nothing, which does not make the tree clean
+      TimeBudget.checkInterrupted();
+      return dirty;
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static List<TreeFilter> partitions(List<String> directories, int groups) {
+    var partitions = new ArrayList<TreeFilter>(groups + 1);
+    partitions.add(ROOT_FILES);
+    for (var group = 0; group < groups; group++) {
+      var from = directories.size() * group / groups;
+      var to = directories.size() * (group + 1) / groups;
+      partitions.add(PathFilterGroup.createFromStrings(directories.subList(from, to)));
+    }
+    return partitions;
+  }
+
+  private static final class Scan {
+
+    private final Repository repo;
+    private final DirCache index;
+    private final @Nullable ObjectId head;
+    private final boolean untracked;
+    private final AtomicBoolean found = new AtomicBoolean();
+    // the walks run on pool workers, which do not see the caller's operation cancelled on their own
+    private final BooleanSupplier cancelled = TimeBudget.cancellation();
+
+    Scan(Repository repo, DirCache index, @Nullable ObjectId head, boolean untracked) {
+      this.repo = repo;
+      this.index = index;
+      this.head = head;
+      this.untracked = untracked;
+    }
+
+    // a directory in any of the trees, ignored ones are skipped as soon as their walk reaches them
+    List<String> directories() throws IOException {
+      var directories = new ArrayList<String>();
+      try (var walk = DirtyCheck.walk(this.repo, this.index, this.head)) {
+        walk.setRecursive(false);
+        while (walk.next()) {
+          if (walk.isSubtree()) directories.add(walk.getPathString());
+        }
+      }
+      return directories;
+    }
+
+    boolean walk(TreeFilter partition) throws IOException {
+      try (var walk = DirtyCheck.walk(this.repo, this.index, this.head)) {
+        var stop = new Stop(this.found, this.cancelled);
+        var filters = new TreeFilter[] { stop, partition, DirtyCheck.filter(this.untracked) };
+        walk.setFilter(AndTreeFilter.create(filters));
+        var dirty = walk.next();
+        if (dirty) this.found.set(true);
+        return dirty;
+      }
+    }
+  }
+
+  // halves the partitions until one is left, idle workers steal the other halves
+  private static final class Task extends RecursiveTask<Boolean> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Scan scan;
+    private final transient List<TreeFilter> partitions;
+
+    Task(Scan scan, List<TreeFilter> partitions) {
+      this.scan = scan;
+      this.partitions = partitions;
+    }
+
+    @Override
+    protected Boolean compute() {
+      if (this.partitions.size() == 1) return this.walk(this.partitions.get(0));
+      var half = this.partitions.size() / 2;
+      var left = new Task(this.scan, this.partitions.subList(0, half));
+      var right = new Task(this.scan, this.partitions.subList(half, this.partitions.size()));
+      invokeAll(left, right);
+      return left.join() || right.join();
+    }
+
+    private boolean walk(TreeFilter partition) {
+      try {
+        return this.scan.walk(partition);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  // everything at the root that is not a directory, subtrees belong to their own partition
+  private static final class RootFiles extends TreeFilter {
+
+    @Override
+    public boolean include(TreeWalk walker) {
+      return !walker.isSubtree();
+    }
+
+    @Override
+    public boolean shouldBeRecursive() {
+      return false;
+    }
+
+    @Override
+    public TreeFilter clone() {
+      return this;
+    }
+  }
+
+  // ends a walk once another one has found a change or the scan has been cancelled
+  private static final class Stop extends TreeFilter {
+
+    private final AtomicBoolean found;
+    private final BooleanSupplier cancelled;
+
+    Stop(AtomicBoolean found, BooleanSupplier cancelled) {
+      this.found = found;
+      this.cancelled = cancelled;
+    }
+
+    @Override
+    public boolean include(TreeWalk walker) {
+      if (this.found.get() || this.cancelled.getAsBoolean()) throw StopWalkException.INSTANCE;
+      return true;
+    }
+
+    @Override
+    public boolean shouldBeRecursive() {
+      return false;
+    }
+
+    @Override
+    public TreeFilter clone() {
+      return this;
+    }
+  }
+}
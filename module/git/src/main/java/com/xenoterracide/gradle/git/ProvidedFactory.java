@@ -6,11 +6,15 @@ package com.xenoterracide.gradle.git;
 
 import java.util.List;
 import java.util.concurrent.Callable;
+import org.gradle.api.Action;
 import org.gradle.api.Project;
 import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
 import org.gradle.api.provider.ProviderFactory;
+import org.gradle.api.provider.ValueSource;
+import org.gradle.api.provider.ValueSourceParameters;
 import org.jspecify.annotations.Nullable;
 
 /**
@@ -31,7 +35,15 @@ public final class ProvidedFactory {
     this(project.getObjects(), project.getProviders());
   }
 
-  private ProvidedFactory(ObjectFactory objectFactory, ProviderFactory providerFactory) {
+  /**
+   * Instantiates a new Provided factory, for when there is no {@link Project}, such as in a settings plugin.
+   *
+   * @param objectFactory
+   *   the object factory
+   * @param providerFactory
+   *   the provider factory
+   */
+  public ProvidedFactory(ObjectFactory objectFactory, ProviderFactory providerFactory) {
     this.objectFactory = objectFactory;
     this.providerFactory = providerFactory;
   }
@@ -132,6 +144,27 @@ public final class ProvidedFactory {
     return prop;
   }
 
+  /**
+   * Obtains a {@link ValueSource}, which the configuration cache records as an input.
+   *
+   * @param <T>
+   *   type the value source returns
+   * @param <P>
+   *   parameters of the value source
+   * @param type
+   *   the value source
+   * @param parameters
+   *   configures the parameters
+   * @return provider
+   * @see ProviderFactory#of(Class, Action)
+   */
+  public <T, P extends ValueSourceParameters> Provider<T> of(
+    Class<? extends ValueSource<T, P>> type,
+    Action<? super P> parameters
+  ) {
+    return this.providerFactory.of(type, spec -> spec.parameters(parameters));
+  }
+
   /**
    * Shortcut to {@link #property(Class)} for {@link Boolean}.
    *
@@ -167,4 +200,20 @@ public final class ProvidedFactory {
     prop.finalizeValueOnRead();
     return prop;
   }
+
+  /**
+   * Creates a {@link ListProperty} of a given element type that is {@link ListProperty#finalizeValueOnRead()}.
+   *
+   * @param type
+   *   class type of the elements
+   * @param <E>
+   *   type of the elements
+   * @return the new property
+   * @see ObjectFactory#listProperty(Class)
+   */
+  public <E> ListProperty<E> listProperty(Class<E> type) {
+    var prop = this.objectFactory.listProperty(type);
+    prop.finalizeValueOnRead();
+    return prop;
+  }
 }
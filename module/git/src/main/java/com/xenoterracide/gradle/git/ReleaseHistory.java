@@ -0,0 +1,176 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import com.google.errorprone.annotations.Var;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevFlag;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The version tags of one prefix, highest first. Each version is packed into two primitive sort keys and the tags are
+ * sorted as an array of indexes ordered by them, so a hundred thousand tags are sorted without boxing or parsing a
+ * pre-release, only tags whose keys tie are compared in full.
+ */
+final class ReleaseHistory {
+
+  private final TagIndex.Version[] versions;
+  private final ObjectId[] targets;
+
+  private ReleaseHistory(TagIndex.Version[] versions, ObjectId[] targets) {
+    this.versions = versions;
+    this.targets = targets;
+  }
+
+  /**
+   * Sorts version tags.
+   *
+   * @param tags
+   *   the version tags and the objects they point at, peeled
+   * @return the tags, highest first
+   */
+  static ReleaseHistory of(Map<TagIndex.Version, ObjectId> tags) {
+    var size = tags.size();
+    var versions = tags.keySet().toArray(new TagIndex.Version[0]);
+    var order = new Keys(versions).sort();
+    var sorted = new TagIndex.Version[size];
+    var targets = new ObjectId[size];
+    for (var i = 0; i < size; i++) {
+      sorted[i] = versions[order[i]];
+      targets[i] = tags.get(sorted[i]);
+    }
+    return new ReleaseHistory(sorted, targets);
+  }
+
+  /**
+   * Names of the tags.
+   *
+   * @return tag names, highest version first
+   */
+  List<String> names() {
+    var versions = this.versions;
+    return new AbstractList<>() {
+      @Override
+      public String get(int index) {
+        return versions[index].name();
+      }
+
+      @Override
+      public int size() {
+        return versions.length;
+      }
+    };
+  }
+
+  /**
+   * Finds the highest version on a commit reachable from another. One walk from the commit is shared by every tag
+   * asked about, it goes on from where the last tag was found, so history is walked at most once however many of the
+   * highest tags are on other branches.
+   *
+   * @param repo
+   *   the repository
+   * @param from
+   *   the commit, usually {@code HEAD}
+   * @return the tag name, or null if no version tag is reachable
+   * @throws IOException
+   *   if the object database cannot be read
+   */
+  @Nullable
+  String highestReachableFrom(Repository repo, AnyObjectId from) throws IOException {
+    try (var walk = new RevWalk(repo)) {
+      walk.setRetainBody(false);
+      var reached = walk.newFlag("reached");
+      walk.markStart(walk.parseCommit(from));
+      for (var i = 0; i < this.versions.length; i++) {
+        // a tag may point at a tree or a blob
+        var target = walk.parseAny(this.targets[i]);
+        if (target instanceof RevCommit && reaches(walk, reached, (RevCommit) target)) return this.versions[i].name();
+      }
+      return null;
+    }
+  }
+
+  private static boolean reaches(RevWalk walk, RevFlag reached, RevCommit commit) throws IOException {
+    while (!commit.has(reached)) {
+      TimeBudget.checkInterrupted();
+      var next = walk.next();
+      if (next == null) return false;
+      GitEvent.commitsWalked(1);
+      next.add(reached);
+    }
+    return true;
+  }
+
+  /**
+   * Number of version tags.
+   *
+   * @return tag count
+   */
+  int size() {
+    return this.versions.length;
+  }
+
+  /**
+   * Sort keys of versions, ordering indexes into them with a merge sort.
+   */
+  private static final class Keys {
+
+    private final TagIndex.Version[] versions;
+    private final long[] core;
+    private final long[] preRelease;
+
+    Keys(TagIndex.Version[] versions) {
+      this.versions = versions;
+      this.core = new long[versions.length];
+      this.preRelease = new long[versions.length];
+      for (var i = 0; i < versions.length; i++) {
+        this.core[i] = versions[i].coreKey();
+        this.preRelease[i] = versions[i].preReleaseKey();
+      }
+    }
+
+    // bottom up, merging runs of doubling width back and forth between two arrays
+    int[] sort() {
+      var size = this.versions.length;
+      @Var var order = new int[size];
+      @Var var merged = new int[size];
+      for (var i = 0; i < size; i++) order[i] = i;
+      for (var width = 1; width < size; width *= 2) {
+        for (var start = 0; start < size; start += 2 * width) {
+          this.merge(order, merged, start, Math.min(start + width, size), Math.min(start + 2 * width, size));
+        }
+        var swap = order;
+        order = merged;
+        merged = swap;
+      }
+      return order;
+    }
+
+    private void merge(int[] from, int[] to, int start, int middle, int end) {
+      @Var var left = start;
+      @Var var right = middle;
+      for (var i = start; i < end; i++) {
+        var takeLeft = right >= end || left < middle && this.compare(from[left], from[right]) <= 0;
+        to[i] = takeLeft ? from[left++] : from[right++];
+      }
+    }
+
+    // highest first
+    private int compare(int left, int right) {
+      var core = Long.compare(this.core[right], this.core[left]);
+      if (core != 0) return core;
+      var preRelease = Long.compare(this.preRelease[right], this.preRelease[left]);
+      return preRelease != 0 ? preRelease : this.versions[right].compareTo(this.versions[left]);
+    }
+  }
+}
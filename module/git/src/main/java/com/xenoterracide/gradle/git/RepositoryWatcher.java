@@ -0,0 +1,367 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import com.google.errorprone.annotations.Var;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.treewalk.FileTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.WorkingTreeIterator;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the snapshot and dirty state of a repository in memory for as long as the daemon lives, recomputing them only
+ * after the file system reports a change. {@code HEAD}, the refs, {@code packed-refs} and the index are watched along
+ * with every directory of the working tree that is not ignored. A change to the refs invalidates both, a change to the
+ * index or working tree only the dirty state. When the watch queue overflows events have been lost, so everything is
+ * recomputed and the working tree registered again. Each {@link GitService} holds the watchers it uses, once the last
+ * of them closes every watcher that build did not use is closed, so a daemon only watches repositories it still builds.
+ */
+final class RepositoryWatcher implements AutoCloseable {
+
+  // platforms without native file events poll every few seconds, which is too late to trust
+  private static final String POLLING = "PollingWatchService";
+  private static final Set<String> REF_FILES = Set.of(
+    Constants.HEAD,
+    Constants.PACKED_REFS,
+    Constants.SHALLOW,
+    Constants.CONFIG
+  );
+  // keyed by git directory, a repository is reopened for every build
+  private static final Map<Path, Lease> WATCHERS = new ConcurrentHashMap<>();
+
+  private final Logger log = LoggerFactory.getLogger(this.getClass());
+  private final WatchService service;
+  private final Map<WatchKey, Watched> keys = new ConcurrentHashMap<>();
+  private final Set<Path> gitDirectories;
+  private final Path index;
+  // bumped on every relevant event, a value is only served while the generation it was computed at is current
+  private final AtomicLong refs = new AtomicLong();
+  private final AtomicLong tree = new AtomicLong();
+  private final Map<Boolean, Cached<Boolean>> dirty = new ConcurrentHashMap<>();
+  private volatile @Nullable Cached<GitSnapshot> snapshot;
+  private volatile boolean rescan;
+  private volatile boolean closed;
+
+  /**
+   * Starts watching a repository.
+   *
+   * @param repo
+   *   the repository
+   * @throws IOException
+   *   if any of the directories cannot be watched
+   */
+  RepositoryWatcher(Repository repo) throws IOException {
+    this.service = FileSystems.getDefault().newWatchService();
+    // the same directory unless this is a linked worktree
+    this.gitDirectories = new HashSet<>(List.of(repo.getDirectory().toPath(), repo.getCommonDirectory().toPath()));
+    this.index = repo.getIndexFile().toPath();
+    try {
+      if (this.service.getClass().getSimpleName().equals(POLLING)) {
+        throw new IOException("file system events are polled on this platform");
+      }
+      this.register(repo);
+    } catch (IOException e) {
+      this.service.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Decorates a snapshot loader so that a watched repository is only loaded again once its refs change.
+   *
+   * @param owner
+   *   the service holding the watcher until it is {@link #release(Object) released}
+   * @param loader
+   *   takes the snapshot
+   * @return the watching loader
+   */
+  static SnapshotCache.Loader snapshots(Object owner, SnapshotCache.Loader loader) {
+    return repo -> {
+      var watcher = of(repo, owner);
+      return watcher != null ? watcher.snapshot(repo, loader) : loader.take(repo);
+    };
+  }
+
+  /**
+   * Decorates a dirty check so that a watched repository is only checked again once it changes.
+   *
+   * @param owner
+   *   the service holding the watcher until it is {@link #release(Object) released}
+   * @param check
+   *   checks the working tree
+   * @return the watching check
+   */
+  static DirtyCheck.Check dirtyChecks(Object owner, DirtyCheck.Check check) {
+    return (repo, untracked) -> {
+      var watcher = of(repo, owner);
+      return watcher != null ? watcher.isDirty(repo, untracked, check) : check.isDirty(repo, untracked);
+    };
+  }
+
+  /**
+   * Lets go of the watchers a service used. Once no service holds any watcher the build is over, and every watcher it
+   * did not use is closed.
+   *
+   * @param owner
+   *   the service, which is closing
+   */
+  static synchronized void release(Object owner) {
+    WATCHERS.values().forEach(lease -> lease.owners.remove(owner));
+    if (WATCHERS.values().stream().anyMatch(lease -> !lease.owners.isEmpty())) return;
+    for (var entries = WATCHERS.values().iterator(); entries.hasNext(); ) {
+      var lease = entries.next();
+      if (lease.used) {
+        lease.used = false;
+      } else {
+        entries.remove();
+        lease.close();
+      }
+    }
+  }
+
+  // started once per git directory, a repository that cannot be watched is not tried again while it is built
+  private static @Nullable RepositoryWatcher of(Repository repo, Object owner) {
+    var key = repo.getDirectory().toPath().toAbsolutePath().normalize();
+    var lease = WATCHERS.computeIfAbsent(key, k -> new Lease(start(repo)));
+    lease.owners.add(owner);
+    lease.used = true;
+    return lease.watcher;
+  }
+
+  private static @Nullable RepositoryWatcher start(Repository repo) {
+    try {
+      return new RepositoryWatcher(repo);
+    } catch (IOException e) {
+      LoggerFactory.getLogger(RepositoryWatcher.class).warn("unable to watch {}", repo.getDirectory(), e);
+      return null;
+    }
+  }
+
+  /**
+   * Gets the snapshot, loading it if the refs changed since it was last loaded.
+   *
+   * @param repo
+   *   the repository being watched
+   * @param loader
+   *   takes the snapshot
+   * @return the snapshot
+   * @throws IOException
+   *   if the repository cannot be read
+   */
+  GitSnapshot snapshot(Repository repo, SnapshotCache.Loader loader) throws IOException {
+    if (!this.poll(repo)) return loader.take(repo);
+    // read before loading, a change made while loading is then seen on the next call
+    var generation = this.refs.get();
+    var cached = this.snapshot;
+    if (cached != null && cached.generation == generation) return cached.value;
+    var taken = loader.take(repo);
+    this.snapshot = new Cached<>(generation, taken);
+    return taken;
+  }
+
+  /**
+   * Gets whether the working tree is dirty, checking it if anything changed since it was last checked.
+   *
+   * @param repo
+   *   the repository being watched
+   * @param untracked
+   *   whether untracked files make the tree dirty
+   * @param check
+   *   checks the working tree
+   * @return true if dirty
+   * @throws IOException
+   *   if the repository or working tree cannot be read
+   */
+  boolean isDirty(Repository repo, boolean untracked, DirtyCheck.Check check) throws IOException {
+    if (!this.poll(repo)) return check.isDirty(repo, untracked);
+    var generation = this.tree.get();
+    var cached = this.dirty.get(untracked);
+    if (cached != null && cached.generation == generation) return cached.value;
+    var checked = check.isDirty(repo, untracked);
+    this.dirty.put(untracked, new Cached<>(generation, checked));
+    return checked;
+  }
+
+  /**
+   * Forgets everything, as when events were lost.
+   */
+  void overflowed() {
+    this.refs.incrementAndGet();
+    this.tree.incrementAndGet();
+    this.rescan = true;
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.closed = true;
+    this.service.close();
+  }
+
+  // false once closed, as when the working tree cannot be registered again, the watcher is then forgotten and the
+  // caller reads the repository as if it was never watched
+  private synchronized boolean poll(Repository repo) throws IOException {
+    if (this.closed) return false;
+    for (@Var var key = this.service.poll(); key != null; key = this.service.poll()) {
+      var watched = this.keys.get(key);
+      for (var event : key.pollEvents()) this.changed(watched, event);
+      // the directory is gone, whatever was in it changed
+      if (!key.reset() && this.keys.remove(key) != null) this.tree.incrementAndGet();
+    }
+    if (!this.rescan) return true;
+    this.rescan = false;
+    try {
+      this.registerWorkTree(repo);
+      return true;
+    } catch (IOException e) {
+      this.log.warn("unable to watch {} any longer", repo.getDirectory(), e);
+      WATCHERS.values().removeIf(lease -> lease.watcher == this);
+      this.close();
+      return false;
+    }
+  }
+
+  private void changed(@Nullable Watched watched, WatchEvent<?> event) throws IOException {
+    if (watched == null || event.kind() == OVERFLOW) {
+      this.log.debug("git file events were lost, recomputing");
+      this.overflowed();
+      return;
+    }
+    var path = watched.directory.resolve((Path) event.context());
+    var directory = event.kind() == ENTRY_CREATE && Files.isDirectory(path);
+    if (watched.area == Area.REFS) {
+      this.refsChanged();
+      if (directory) this.registerAll(path, Area.REFS);
+    } else if (watched.area == Area.GIT_DIRECTORY) {
+      this.gitFileChanged(path);
+    } else {
+      this.tree.incrementAndGet();
+      // may be ignored, the walk on the next call decides
+      if (directory) this.rescan = true;
+    }
+  }
+
+  // lock files, logs and objects change without changing what HEAD is or what the index holds
+  private void gitFileChanged(Path path) {
+    if (REF_FILES.contains(path.getFileName().toString())) {
+      this.refsChanged();
+    } else if (path.equals(this.index)) {
+      this.tree.incrementAndGet();
+    }
+  }
+
+  // a reset moves a ref without touching the working tree, but it does change the status
+  private void refsChanged() {
+    this.refs.incrementAndGet();
+    this.tree.incrementAndGet();
+  }
+
+  private void register(Repository repo) throws IOException {
+    for (var directory : this.gitDirectories) this.watch(directory, Area.GIT_DIRECTORY);
+    this.registerAll(repo.getCommonDirectory().toPath().resolve(Constants.R_REFS), Area.REFS);
+    this.registerWorkTree(repo);
+  }
+
+  private void registerAll(Path root, Area area) throws IOException {
+    if (!Files.isDirectory(root)) return;
+    try (var directories = Files.walk(root)) {
+      for (var directory : directories.filter(Files::isDirectory).collect(Collectors.toList())) {
+        this.watch(directory, area);
+      }
+    }
+  }
+
+  // ignored directories are where builds write, watching them would invalidate the status on every build
+  private void registerWorkTree(Repository repo) throws IOException {
+    if (repo.isBare()) return;
+    var root = repo.getWorkTree().toPath();
+    this.watch(root, Area.WORK_TREE);
+    try (var walk = new TreeWalk(repo)) {
+      walk.addTree(new FileTreeIterator(repo));
+      while (walk.next()) {
+        var ignored = walk.getTree(0, WorkingTreeIterator.class).isEntryIgnored();
+        if (walk.isSubtree() && !ignored) {
+          this.watch(root.resolve(walk.getPathString()), Area.WORK_TREE);
+          walk.enterSubtree();
+        }
+      }
+    }
+  }
+
+  private void watch(Path directory, Area area) throws IOException {
+    var key = directory.register(this.service, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+    this.keys.put(key, new Watched(directory, area));
+  }
+
+  private enum Area {
+    GIT_DIRECTORY,
+    REFS,
+    WORK_TREE,
+  }
+
+  private static final class Watched {
+
+    private final Path directory;
+    private final Area area;
+
+    Watched(Path directory, Area area) {
+      this.directory = directory;
+      this.area = area;
+    }
+  }
+
+  private static final class Lease {
+
+    private final @Nullable RepositoryWatcher watcher;
+    private final Set<Object> owners = ConcurrentHashMap.newKeySet();
+    private volatile boolean used;
+
+    Lease(@Nullable RepositoryWatcher watcher) {
+      this.watcher = watcher;
+    }
+
+    void close() {
+      if (this.watcher == null) return;
+      try {
+        this.watcher.close();
+      } catch (IOException e) {
+        LoggerFactory.getLogger(RepositoryWatcher.class).debug("unable to close watcher", e);
+      }
+    }
+  }
+
+  private static final class Cached<T> {
+
+    private final long generation;
+    private final T value;
+
+    Cached(long generation, T value) {
+      this.generation = generation;
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,272 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps {@link GitSnapshot}s on disk between builds. An entry is only used while the repository still has the refs it
+ * was computed from, checked with a fingerprint of {@code HEAD}, the commit it resolves to, {@code packed-refs} and the
+ * loose tags, so a warm build reads a small file instead of walking history. An entry written in another
+ * {@link #FORMAT_VERSION format} is a miss, as is one the fingerprint no longer matches.
+ */
+final class SnapshotCache {
+
+  /**
+   * Version of what an entry holds and means, changed with either so that entries from other versions are ignored.
+   */
+  static final String FORMAT_VERSION = "1";
+
+  private static final String FORMAT = "format";
+  private static final String FINGERPRINT = "fingerprint";
+  private static final String TAG = "tag";
+  private static final String DISTANCE = "distance";
+  private static final String COMMIT = "commit";
+  private static final String UNIQUE_SHORT = "uniqueShort";
+  private static final String BRANCH = "branch";
+  private static final String SHORT_COUNT = "shortCount";
+  private static final String REMOTE = "remote.";
+  private static final String ENTRY = ".properties";
+  private static final String LOCK = ".lock";
+  private static final String ABSENT = "";
+  // files whose size and timestamp are enough to notice a change, relative to the common git directory
+  private static final List<String> STAT_ONLY = List.of(
+    Constants.PACKED_REFS,
+    Constants.SHALLOW,
+    Constants.CONFIG,
+    "reftable/tables.list"
+  );
+  // a FileChannel lock is held by the whole JVM, so builds sharing this JVM must take turns first
+  private static final Object MUTEX = new Object();
+
+  private final Logger log = LoggerFactory.getLogger(this.getClass());
+  private final Path directory;
+  private final Loader loader;
+
+  SnapshotCache(Path directory) {
+    this(directory, GitSnapshot::take);
+  }
+
+  SnapshotCache(Path directory, Loader loader) {
+    this.directory = directory;
+    this.loader = loader;
+  }
+
+  /**
+   * Gets the snapshot of the repository {@code HEAD}, taking and storing a new one if the refs have changed.
+   *
+   * @param repo
+   *   the repository
+   * @return the snapshot
+   * @throws IOException
+   *   if the repository cannot be read
+   */
+  GitSnapshot get(Repository repo) throws IOException {
+    var fingerprint = fingerprint(repo);
+    var entry = this.directory.resolve(entryName(repo) + ENTRY);
+    var cached = this.read(entry, fingerprint);
+    return cached != null ? cached : this.load(repo, entry, fingerprint);
+  }
+
+  private GitSnapshot load(Repository repo, Path entry, String fingerprint) throws IOException {
+    synchronized (MUTEX) {
+      try (var channel = this.open(entry)) {
+        var locked = channel != null && this.lock(channel);
+        // another build may have stored the entry while this one waited for the lock
+        var cached = locked ? this.read(entry, fingerprint) : null;
+        if (cached != null) return cached;
+
+        var snapshot = this.loader.take(repo);
+        if (locked) this.write(entry, fingerprint, snapshot);
+        return snapshot;
+      }
+    }
+  }
+
+  private @Nullable FileChannel open(Path entry) {
+    try {
+      Files.createDirectories(this.directory);
+      var lockFile = entry.resolveSibling(entry.getFileName() + LOCK);
+      return FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    } catch (IOException e) {
+      this.log.warn("git metadata cache is not writable {}", this.directory, e);
+      return null;
+    }
+  }
+
+  // released when the channel is closed
+  private boolean lock(FileChannel channel) {
+    try {
+      channel.lock();
+      return true;
+    } catch (IOException e) {
+      this.log.warn("unable to lock git metadata cache", e);
+      return false;
+    }
+  }
+
+  private @Nullable GitSnapshot read(Path entry, String fingerprint) {
+    try (var reader = Files.newBufferedReader(entry, StandardCharsets.UTF_8)) {
+      var properties = new Properties();
+      properties.load(reader);
+      var current = FORMAT_VERSION.equals(properties.getProperty(FORMAT))
+        && fingerprint.equals(properties.getProperty(FINGERPRINT));
+      return current ? decode(properties) : null;
+    } catch (IOException | IllegalArgumentException e) {
+      this.log.debug("git metadata cache miss {}", entry, e);
+      return null;
+    }
+  }
+
+  // readers never see a partial entry, it is renamed into place once complete
+  private void write(Path entry, String fingerprint, GitSnapshot snapshot) {
+    try {
+      var temp = Files.createTempFile(this.directory, entry.getFileName().toString(), null);
+      try (var writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+        encode(fingerprint, snapshot).store(writer, null);
+      }
+      Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      this.log.warn("unable to write git metadata cache {}", entry, e);
+    }
+  }
+
+  private static Properties encode(String fingerprint, GitSnapshot snapshot) {
+    var properties = new Properties();
+    properties.setProperty(FORMAT, FORMAT_VERSION);
+    properties.setProperty(FINGERPRINT, fingerprint);
+    properties.setProperty(DISTANCE, Long.toString(snapshot.distance()));
+    properties.setProperty(SHORT_COUNT, Long.toString(snapshot.shortCount()));
+    putIfPresent(properties, TAG, snapshot.tag());
+    putIfPresent(properties, COMMIT, snapshot.commit());
+    putIfPresent(properties, UNIQUE_SHORT, snapshot.uniqueShort());
+    putIfPresent(properties, BRANCH, snapshot.branch());
+    // a remote without a known HEAD is stored as empty, ref names never are
+    snapshot.remotes().forEach((name, head) -> properties.setProperty(REMOTE + name, Objects.toString(head, ABSENT)));
+    return properties;
+  }
+
+  private static GitSnapshot decode(Properties properties) {
+    var remotes = new TreeMap<String, @Nullable String>();
+    for (var key : properties.stringPropertyNames()) {
+      var head = properties.getProperty(key, ABSENT);
+      if (key.startsWith(REMOTE)) remotes.put(key.substring(REMOTE.length()), head.isEmpty() ? null : head);
+    }
+    return new GitSnapshot(
+      properties.getProperty(TAG),
+      number(properties, DISTANCE),
+      properties.getProperty(COMMIT),
+      properties.getProperty(UNIQUE_SHORT),
+      properties.getProperty(BRANCH),
+      number(properties, SHORT_COUNT),
+      remotes
+    );
+  }
+
+  // a missing number is as corrupt as a malformed one, both fail with NumberFormatException
+  private static long number(Properties properties, String key) {
+    return Long.parseLong(properties.getProperty(key, ABSENT));
+  }
+
+  private static void putIfPresent(Properties properties, String key, @Nullable String value) {
+    if (value != null) properties.setProperty(key, value);
+  }
+
+  // one entry per git directory, so each worktree keeps its own
+  private static String entryName(Repository repo) {
+    var path = repo.getDirectory().toPath().toAbsolutePath().normalize().toString();
+    return Hashing.sha256().hashString(path, StandardCharsets.UTF_8).toString();
+  }
+
+  /**
+   * Fingerprints what a snapshot of the repository is computed from, so a snapshot is reused only while it matches.
+   *
+   * @param repo
+   *   the repository
+   * @return the fingerprint, which includes where the repository is
+   * @throws IOException
+   *   if the refs cannot be read
+   */
+  static String fingerprint(Repository repo) throws IOException {
+    var hasher = Hashing.sha256().newHasher();
+    var common = repo.getCommonDirectory().toPath();
+    contents(hasher, repo.getDirectory().toPath().resolve(Constants.HEAD));
+    // HEAD and its branch are usually loose, packed-refs is only searched when the branch is not
+    var head = FastRefs.of(repo).exactRef(Constants.HEAD);
+    var oid = head != null ? head.getObjectId() : null;
+    hasher.putString(Objects.requireNonNullElse(oid, ObjectId.zeroId()).name(), StandardCharsets.UTF_8);
+    for (var file : STAT_ONLY) stat(hasher, common.resolve(file));
+    loose(hasher, common.resolve(Constants.R_TAGS), false);
+    loose(hasher, common.resolve(Constants.R_REMOTES), true);
+    return hasher.hash().toString();
+  }
+
+  private static void contents(Hasher hasher, Path file) throws IOException {
+    hasher.putString(file.toString(), StandardCharsets.UTF_8);
+    if (Files.isRegularFile(file)) hasher.putBytes(Files.readAllBytes(file));
+  }
+
+  private static void stat(Hasher hasher, Path file) throws IOException {
+    hasher.putString(file.toString(), StandardCharsets.UTF_8);
+    if (Files.exists(file)) {
+      var attributes = Files.readAttributes(file, BasicFileAttributes.class);
+      hasher.putLong(attributes.size());
+      hasher.putLong(attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS));
+      hasher.putInt(Objects.hashCode(attributes.fileKey()));
+    }
+  }
+
+  // loose refs are a single line each, so reading them is as cheap as a stat
+  private static void loose(Hasher hasher, Path directory, boolean onlyHead) throws IOException {
+    if (!Files.isDirectory(directory)) return;
+    try (var files = Files.walk(directory)) {
+      var refs = files
+        .filter(Files::isRegularFile)
+        .filter(file -> !onlyHead || file.endsWith(Constants.HEAD))
+        .sorted(Comparator.naturalOrder())
+        .collect(Collectors.toList());
+      for (var ref : refs) contents(hasher, ref);
+    }
+  }
+
+  /**
+   * Computes a snapshot on a cache miss.
+   */
+  @FunctionalInterface
+  interface Loader {
+    /**
+     * Takes a snapshot of the repository {@code HEAD}.
+     *
+     * @param repo
+     *   the repository
+     * @return the snapshot
+     * @throws IOException
+     *   if the repository cannot be read
+     */
+    GitSnapshot take(Repository repo) throws IOException;
+  }
+}
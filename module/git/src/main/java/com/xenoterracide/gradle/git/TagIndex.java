@@ -0,0 +1,389 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import com.google.common.base.Splitter;
+import com.google.common.hash.Hashing;
+import com.google.common.math.LongMath;
+import com.google.errorprone.annotations.Var;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.regex.Pattern;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Version tags of a repository with one prefix, indexed by the commit they point at. Every prefix is built from the
+ * same single scan of {@code refs/tags}, with annotated tags peeled and every name parsed once, so looking up the tag
+ * on a commit is a hash lookup and versioning many modules independently costs no more than one.
+ */
+final class TagIndex {
+
+  /**
+   * Prefix of version tags unless configured otherwise, as in {@code v1.2.3}.
+   */
+  static final String DEFAULT_PREFIX = "v";
+
+  // <prefix><major>.<minor>.<patch>, the prefix is as short as it can be and anything after the patch is pre-release
+  // and build metadata
+  private static final Pattern VERSION = Pattern.compile("(.*?)(\\d{1,18})\\.(\\d{1,18})\\.(\\d{1,18})(.*)");
+  private static final TagIndex EMPTY = new TagIndex(Map.of());
+  // one scan per open repository, dropped when JGit notices the refs change
+  private static final Map<Repository, Holder> INDEXES = Collections.synchronizedMap(new WeakHashMap<>());
+
+  // every version tag, the tags of one commit included
+  private final Map<Version, ObjectId> versions;
+  private final Map<ObjectId, Version> tags = new HashMap<>();
+  private volatile @Nullable String fingerprint;
+  private volatile @Nullable ReleaseHistory releases;
+
+  private TagIndex(Map<Version, ObjectId> versions) {
+    this.versions = versions;
+    versions.forEach((version, target) -> this.tags.merge(target, version, (a, b) -> a.compareTo(b) >= 0 ? a : b));
+  }
+
+  /**
+   * Gets the index of {@code v} tags for the repository.
+   *
+   * @param repo
+   *   the repository
+   * @return the index
+   * @throws IOException
+   *   if the refs cannot be read
+   * @see #of(Repository, String)
+   */
+  static TagIndex of(Repository repo) throws IOException {
+    return of(repo, DEFAULT_PREFIX);
+  }
+
+  /**
+   * Gets the index of tags with a prefix for the repository, scanning its tags only if they changed since the last
+   * call for any prefix.
+   *
+   * @param repo
+   *   the repository
+   * @param prefix
+   *   what comes before the version in the tag name, such as {@code semver-v}
+   * @return the index
+   * @throws IOException
+   *   if the refs cannot be read
+   */
+  static TagIndex of(Repository repo, String prefix) throws IOException {
+    var holder = INDEXES.computeIfAbsent(repo, r -> {
+      var created = new Holder();
+      r.getListenerList().addRefsChangedListener(event -> created.indexes = null);
+      return created;
+    });
+    return holder.get(repo).getOrDefault(prefix, EMPTY);
+  }
+
+  /**
+   * Scans the repository tags for {@code v} tags.
+   *
+   * @param repo
+   *   the repository
+   * @return a new index
+   * @throws IOException
+   *   if the refs cannot be read
+   */
+  static TagIndex scan(Repository repo) throws IOException {
+    return scanAll(repo).getOrDefault(DEFAULT_PREFIX, EMPTY);
+  }
+
+  /**
+   * Scans the repository tags once for every prefix.
+   *
+   * @param repo
+   *   the repository
+   * @return a new index for each prefix found
+   * @throws IOException
+   *   if the refs cannot be read
+   */
+  static Map<String, TagIndex> scanAll(Repository repo) throws IOException {
+    var refs = FastRefs.of(repo);
+    var prefixes = new HashMap<String, Map<Version, ObjectId>>();
+    for (var ref : refs.getRefsByPrefix(Constants.R_TAGS)) {
+      var version = Version.parse(ref.getName().substring(Constants.R_TAGS.length()));
+      if (version != null) {
+        var peeled = refs.peel(ref);
+        var target = Objects.requireNonNullElse(peeled.getPeeledObjectId(), peeled.getObjectId());
+        prefixes.computeIfAbsent(version.prefix(), p -> new HashMap<>()).put(version, target);
+      }
+    }
+    var indexes = new HashMap<String, TagIndex>();
+    prefixes.forEach((prefix, versions) -> indexes.put(prefix, new TagIndex(versions)));
+    return indexes;
+  }
+
+  /**
+   * The highest version tag pointing at the commit.
+   *
+   * @param commit
+   *   the commit
+   * @return the tag name, or null if the commit has no version tag
+   */
+  @Nullable
+  String tagOn(AnyObjectId commit) {
+    var version = this.tags.get(commit);
+    return version != null ? version.name() : null;
+  }
+
+  /**
+   * Whether both indexes have the same version tags on the same commits.
+   *
+   * @param other
+   *   another index
+   * @return true if no version tag was created, deleted or moved between them
+   */
+  boolean sameTags(TagIndex other) {
+    return this.tags.equals(other.tags);
+  }
+
+  /**
+   * A hash of the version tags and the commits they are on, equal for indexes of the same tags whichever build scanned
+   * them, so that something counted against the tags can be stored and later found to be stale.
+   *
+   * @return the fingerprint
+   */
+  String fingerprint() {
+    var current = this.fingerprint;
+    if (current != null) return current;
+    var hasher = Hashing.sha256().newHasher();
+    new TreeMap<>(this.tags).forEach((oid, version) ->
+      hasher.putString(oid.name() + ' ' + version.name(), StandardCharsets.UTF_8)
+    );
+    var computed = hasher.hash().toString();
+    this.fingerprint = computed;
+    return computed;
+  }
+
+  /**
+   * Every version tag, highest first, sorted the first time it is asked for.
+   *
+   * @return the release history
+   */
+  ReleaseHistory releases() {
+    var current = this.releases;
+    if (current != null) return current;
+    var sorted = ReleaseHistory.of(this.versions);
+    this.releases = sorted;
+    return sorted;
+  }
+
+  /**
+   * Number of tagged commits.
+   *
+   * @return tagged commit count
+   */
+  int size() {
+    return this.tags.size();
+  }
+
+  private static final class Holder {
+
+    private volatile @Nullable Map<String, TagIndex> indexes;
+
+    synchronized Map<String, TagIndex> get(Repository repo) throws IOException {
+      var current = this.indexes;
+      if (current != null) return current;
+      // assigned after the scan, a change the scan itself notices must not discard its own result
+      var scanned = TagIndex.scanAll(repo);
+      this.indexes = scanned;
+      return scanned;
+    }
+  }
+
+  /**
+   * A version tag, ordered by semantic version precedence.
+   */
+  static final class Version implements Comparable<Version> {
+
+    private static final Splitter IDENTIFIERS = Splitter.on('.');
+    // major, minor and patch take 21 bits each of a sort key
+    private static final int PART_BITS = 21;
+    private static final long PART = (1L << PART_BITS) - 1;
+    // a pre-release key starting with an alphanumeric identifier has its top bit set, then holds the identifier's
+    // first characters and the identifier after it
+    private static final long ALPHANUMERIC = 1L << 62;
+    private static final int CHARS = 6;
+    private static final int CHAR_BITS = 7;
+    private static final char MAX_CHAR = 126;
+    private static final int NEXT_BITS = 20;
+    private static final long NEXT = (1L << NEXT_BITS) - 1;
+    private static final int MAX_DIGITS = 18;
+    private static final Comparator<Version> CORE = Comparator.<Version>comparingLong(v -> v.major)
+      .thenComparingLong(v -> v.minor)
+      .thenComparingLong(v -> v.patch);
+
+    private final String name;
+    private final String prefix;
+    private final long major;
+    private final long minor;
+    private final long patch;
+    private final String preRelease;
+
+    private Version(String name, String prefix, long major, long minor, long patch, String preRelease) {
+      this.name = name;
+      this.prefix = prefix;
+      this.major = major;
+      this.minor = minor;
+      this.patch = patch;
+      this.preRelease = preRelease;
+    }
+
+    /**
+     * Parses a tag name.
+     *
+     * @param name
+     *   tag name without {@code refs/tags/}
+     * @return the version, or null if the name has no version in it
+     */
+    static @Nullable Version parse(String name) {
+      var matcher = VERSION.matcher(name);
+      if (!matcher.matches()) return null;
+      var rest = matcher.group(5);
+      var build = rest.indexOf('+');
+      var preRelease = build < 0 ? rest : rest.substring(0, build);
+      return new Version(
+        name,
+        matcher.group(1),
+        Long.parseLong(matcher.group(2)),
+        Long.parseLong(matcher.group(3)),
+        Long.parseLong(matcher.group(4)),
+        preRelease.startsWith("-") ? preRelease.substring(1) : preRelease
+      );
+    }
+
+    String name() {
+      return this.name;
+    }
+
+    /**
+     * Major, minor and patch packed into a sort key, 21 bits each. A part too large for its bits saturates itself and
+     * the parts after it, so a higher version never has a lower key, versions with equal keys are to be compared in
+     * full.
+     *
+     * @return the key
+     */
+    long coreKey() {
+      @Var var key = 0L;
+      @Var var saturated = false;
+      for (var part : new long[] { this.major, this.minor, this.patch }) {
+        saturated |= part >= PART;
+        key = key << PART_BITS | (saturated ? PART : part);
+      }
+      return key;
+    }
+
+    /**
+     * The pre-release packed into a sort key ranking as {@link #compareTo(Version)} does, a release above every
+     * pre-release. A numeric first identifier is kept as its value, an alphanumeric one, ranked above, as its first 6
+     * characters followed by the identifier after it. What does not fit saturates, versions with equal keys are to be
+     * compared in full.
+     *
+     * @return the key
+     */
+    long preReleaseKey() {
+      if (this.preRelease.isEmpty()) return Long.MAX_VALUE;
+      var identifiers = IDENTIFIERS.split(this.preRelease).iterator();
+      var first = identifiers.next();
+      if (isNumeric(first)) return numericKey(first, ALPHANUMERIC - 1);
+      @Var var key = ALPHANUMERIC;
+      @Var var clipped = false;
+      for (var i = 0; i < CHARS; i++) {
+        var c = i < first.length() ? first.charAt(i) : 0;
+        // once a character is clipped the rest cannot be told apart
+        clipped |= c > MAX_CHAR;
+        key |= (long) (clipped ? MAX_CHAR : c) << (NEXT_BITS + (CHARS - 1 - i) * CHAR_BITS);
+      }
+      return key | (clipped || first.length() > CHARS ? NEXT : nextKey(identifiers));
+    }
+
+    // no identifier ranks lowest, an alphanumeric one highest
+    private static long nextKey(Iterator<String> identifiers) {
+      if (!identifiers.hasNext()) return 0;
+      var next = identifiers.next();
+      return isNumeric(next) ? numericKey(next, NEXT - 1) + 1 : NEXT;
+    }
+
+    // ranks by length and then digits as identifiers compare, one with leading zeros ties with the highest a digit
+    // shorter
+    private static long numericKey(String identifier, long max) {
+      var length = identifier.length();
+      if (length > MAX_DIGITS) return max;
+      var value = length > 1 && identifier.charAt(0) == '0'
+        ? LongMath.pow(10, length - 1) - 1
+        : Long.parseLong(identifier);
+      return Math.min(value, max);
+    }
+
+    String prefix() {
+      return this.prefix;
+    }
+
+    @Override
+    public int compareTo(Version other) {
+      var core = CORE.compare(this, other);
+      if (core != 0) return core;
+      var preRelease = comparePreRelease(this.preRelease, other.preRelease);
+      return preRelease != 0 ? preRelease : this.name.compareTo(other.name);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object other) {
+      return other instanceof Version && this.name.equals(((Version) other).name);
+    }
+
+    @Override
+    public int hashCode() {
+      return this.name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return this.name;
+    }
+
+    // a release outranks its pre-releases, pre-releases compare identifier by identifier
+    private static int comparePreRelease(String left, String right) {
+      if (left.isEmpty() || right.isEmpty()) return Boolean.compare(left.isEmpty(), right.isEmpty());
+      return compareIdentifiers(IDENTIFIERS.split(left).iterator(), IDENTIFIERS.split(right).iterator());
+    }
+
+    private static int compareIdentifiers(Iterator<String> left, Iterator<String> right) {
+      while (left.hasNext() && right.hasNext()) {
+        var compared = compareIdentifier(left.next(), right.next());
+        if (compared != 0) return compared;
+      }
+      return Boolean.compare(left.hasNext(), right.hasNext());
+    }
+
+    // numeric identifiers compare numerically and rank below alphanumeric ones
+    private static int compareIdentifier(String left, String right) {
+      var leftNumeric = isNumeric(left);
+      var rightNumeric = isNumeric(right);
+      if (leftNumeric && rightNumeric) {
+        var length = Integer.compare(left.length(), right.length());
+        return length != 0 ? length : left.compareTo(right);
+      }
+      return leftNumeric || rightNumeric ? Boolean.compare(rightNumeric, leftNumeric) : left.compareTo(right);
+    }
+
+    private static boolean isNumeric(String identifier) {
+      return !identifier.isEmpty() && identifier.chars().allMatch(c -> c >= '0' && c <= '9');
+    }
+  }
+}
@@ -0,0 +1,124 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import io.vavr.CheckedFunction0;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Runs a git operation within a time budget. The operation runs on a thread of its own while the caller waits at most
+ * the budget, after that the operation is cancelled and the caller gets a {@link TimeoutException}. Cancelling sets a
+ * flag rather than interrupting the thread, an interrupt closes the channel JGit is reading a pack file through and
+ * leaves the pack unusable for everything else in the JVM. History walks and the status scan check the flag as they
+ * go, so a cancelled operation stops reading the repository soon after, and fails rather than leaving a partial answer
+ * for the next caller. Work that may be abandoned without a budget, such as a prefetch, is cancelled the same way.
+ */
+final class TimeBudget {
+
+  // set on the thread of an operation that can be cancelled, an operation with a budget runs on a thread of its own and
+  // is also cancelled with whatever started it
+  private static final ThreadLocal<@Nullable BooleanSupplier> CANCELLED = new ThreadLocal<>();
+
+  private TimeBudget() {}
+
+  /**
+   * Runs an operation, on the calling thread when there is no budget.
+   *
+   * @param <T>
+   *   result type
+   * @param budget
+   *   how long the caller waits, null to wait for as long as it takes
+   * @param operation
+   *   what is run, names the thread and the timeout
+   * @param work
+   *   the operation
+   * @return the result
+   * @throws Throwable
+   *   what the operation threw, or {@link TimeoutException} if it took longer than the budget or an earlier call that
+   *   ran out of time left it cancelled, an {@link InterruptedIOException} if what started it was cancelled
+   */
+  static <T> T within(@Nullable Duration budget, String operation, CheckedFunction0<T> work) throws Throwable {
+    if (budget == null) return work.apply();
+    var cancelled = new AtomicBoolean();
+    var outer = cancellation();
+    var task = new FutureTask<T>(() -> {
+      CANCELLED.set(() -> cancelled.get() || outer.getAsBoolean());
+      return work.unchecked().apply();
+    });
+    var thread = new Thread(task, "git " + operation);
+    // a daemon, so an operation ignoring the flag never keeps the JVM alive
+    thread.setDaemon(true);
+    thread.start();
+    try {
+      return task.get(budget.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      cancelled.set(true);
+      throw exceeded(operation, budget);
+    } catch (ExecutionException e) {
+      var cause = e.getCause();
+      // cancelled with whatever started it is not this budget running out
+      throw cause instanceof InterruptedIOException && !outer.getAsBoolean() ? exceeded(operation, budget) : cause;
+    }
+  }
+
+  /**
+   * Runs an operation on the calling thread that stops once a flag is set.
+   *
+   * @param <T>
+   *   result type
+   * @param cancelled
+   *   set to cancel the operation
+   * @param work
+   *   the operation
+   * @return the result
+   * @throws Throwable
+   *   what the operation threw, an {@link InterruptedIOException} once it was cancelled
+   */
+  static <T> T until(AtomicBoolean cancelled, CheckedFunction0<T> work) throws Throwable {
+    var previous = CANCELLED.get();
+    CANCELLED.set(cancelled::get);
+    try {
+      return work.apply();
+    } finally {
+      CANCELLED.set(previous);
+    }
+  }
+
+  /**
+   * Fails the operation running on this thread if it has been cancelled.
+   *
+   * @throws InterruptedIOException
+   *   if the operation has been cancelled or the thread interrupted
+   */
+  static void checkInterrupted() throws InterruptedIOException {
+    var cancelled = CANCELLED.get();
+    if ((cancelled != null && cancelled.getAsBoolean()) || Thread.currentThread().isInterrupted()) {
+      throw new InterruptedIOException("git operation cancelled");
+    }
+  }
+
+  /**
+   * Whether the operation running on this thread has been cancelled, for work it hands to other threads.
+   *
+   * @return true once the operation is cancelled or the thread interrupted
+   */
+  static BooleanSupplier cancellation() {
+    var cancelled = CANCELLED.get();
+    var thread = Thread.currentThread();
+    return () -> (cancelled != null && cancelled.getAsBoolean()) || thread.isInterrupted();
+  }
+
+  private static TimeoutException exceeded(String operation, Duration budget) {
+    return new TimeoutException("git " + operation + " took longer than " + budget);
+  }
+}
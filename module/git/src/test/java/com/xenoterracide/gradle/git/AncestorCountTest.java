@@ -0,0 +1,56 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.errorprone.annotations.Var;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class AncestorCountTest {
+
+  @TempDir(cleanup = CleanupMode.ON_SUCCESS)
+  File projectDir;
+
+  static long revListCount(ObjectReader reader, ObjectId from) throws IOException {
+    try (var walk = new RevWalk(reader)) {
+      walk.markStart(walk.parseCommit(from));
+      @Var long count = 0;
+      while (walk.next() != null) count++;
+      return count;
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = { true, false })
+  void countsLikeRevList(boolean withGraph) throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).call()) {
+      var repo = git.getRepository();
+      var random = new Random(42);
+      var commits = GenerationMergeBaseTest.history(repo, random);
+      if (withGraph) GenerationMergeBaseTest.writeGraph(repo, commits.subList(0, GenerationMergeBaseTest.IN_GRAPH));
+
+      try (var reader = repo.newObjectReader()) {
+        var graph = new CommitGraphs(repo).load(reader);
+        assertThat(graph != null).isEqualTo(withGraph);
+        for (var i = 0; i < 50; i++) {
+          var from = commits.get(random.nextInt(commits.size()));
+
+          assertThat(AncestorCount.count(reader, graph, from)).as(from.name()).isEqualTo(revListCount(reader, from));
+        }
+      }
+    }
+  }
+}
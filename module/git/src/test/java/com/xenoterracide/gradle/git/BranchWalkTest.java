@@ -0,0 +1,135 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import static com.xenoterracide.gradle.git.GenerationMergeBaseTest.COMMITS;
+import static com.xenoterracide.gradle.git.GenerationMergeBaseTest.IN_GRAPH;
+import static com.xenoterracide.gradle.git.GenerationMergeBaseTest.history;
+import static com.xenoterracide.gradle.git.GenerationMergeBaseTest.insert;
+import static com.xenoterracide.gradle.git.GenerationMergeBaseTest.mergeBases;
+import static com.xenoterracide.gradle.git.GenerationMergeBaseTest.writeGraph;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.TreeFormatter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class BranchWalkTest {
+
+  static final int TAG_EVERY = 25;
+  static final int DAY = 86_400;
+
+  @TempDir(cleanup = CleanupMode.ON_SUCCESS)
+  File projectDir;
+
+  static void tag(Repository repo, List<ObjectId> commits) throws IOException {
+    for (var i = TAG_EVERY; i < commits.size(); i += TAG_EVERY) {
+      var update = repo.getRefDatabase().newUpdate(Constants.R_TAGS + "v0." + i + ".0", false);
+      update.setNewObjectId(commits.get(i));
+      update.forceUpdate();
+    }
+  }
+
+  // every parent on main is a day newer than its child, and both sides merge in a newer commit forked from an older
+  // one, so in commit time order the older fork point is the first commit seen from both
+  static List<ObjectId> skewed(Repository repo) throws IOException {
+    var commits = new ArrayList<ObjectId>();
+    try (var inserter = repo.newObjectInserter()) {
+      var tree = inserter.insert(new TreeFormatter());
+      for (var i = 0; i < 10; i++) {
+        var parents = i > 0 ? List.of(commits.get(i - 1)) : List.<ObjectId>of();
+        commits.add(insert(inserter, tree, (10 - i) * DAY, parents));
+      }
+      var topic = insert(inserter, tree, 30 * DAY, List.of(commits.get(2)));
+      var other = insert(inserter, tree, 31 * DAY, List.of(commits.get(2)));
+      commits.add(insert(inserter, tree, 0, List.of(commits.get(4), topic)));
+      commits.add(insert(inserter, tree, 0, List.of(commits.get(9), other)));
+      inserter.flush();
+    }
+    return commits;
+  }
+
+  @ParameterizedTest
+  @CsvSource({ "1, true", "2, true", "3, true", "4, true", "5, false", "6, false" })
+  void agreesWithSeparateWalks(long seed, boolean graphed) throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).call()) {
+      var repo = git.getRepository();
+      var random = new Random(seed);
+      var commits = history(repo, random);
+      tag(repo, commits);
+      if (graphed) writeGraph(repo, commits.subList(0, IN_GRAPH));
+      var tags = TagIndex.scan(repo);
+
+      try (var reader = repo.newObjectReader()) {
+        var graph = new CommitGraphs(repo).load(reader);
+        for (var i = 0; i < 100; i++) {
+          var head = commits.get(random.nextInt(COMMITS));
+          var remote = commits.get(random.nextInt(COMMITS));
+          var expected = mergeBases(reader, head, remote);
+
+          var branch = BranchWalk.walk(reader, graph, tags, head, remote);
+
+          var pair = head.name() + ' ' + remote.name();
+          if (expected.isEmpty()) {
+            assertThat(branch.mergeBase()).as(pair).isNull();
+          } else {
+            var mergeBase = Objects.requireNonNull(branch.mergeBase());
+            assertThat(mergeBase).as(pair).isIn(expected);
+            assertThat(branch.distance()).as(pair).isEqualTo(DescribeWalk.describe(reader, tags, mergeBase).distance());
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  void clockSkewWithoutGraph() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).call()) {
+      var repo = git.getRepository();
+      var commits = skewed(repo);
+      var tags = TagIndex.scan(repo);
+
+      try (var reader = repo.newObjectReader()) {
+        var branch = BranchWalk.walk(reader, null, tags, commits.get(10), commits.get(11));
+
+        assertThat(branch.mergeBase()).isEqualTo(commits.get(4));
+        assertThat(branch.distance()).isEqualTo(5);
+      }
+    }
+  }
+
+  @Test
+  void clockSkewAboveGraph() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).call()) {
+      var repo = git.getRepository();
+      var commits = skewed(repo);
+      // every other commit is newer than the graph, so only commit time orders them
+      writeGraph(repo, commits.subList(0, 1));
+      var tags = TagIndex.scan(repo);
+
+      try (var reader = repo.newObjectReader()) {
+        var graph = new CommitGraphs(repo).load(reader);
+        var branch = BranchWalk.walk(reader, graph, tags, commits.get(10), commits.get(11));
+
+        assertThat(graph).isNotNull();
+        assertThat(branch.mergeBase()).isEqualTo(commits.get(4));
+        assertThat(branch.distance()).isEqualTo(5);
+      }
+    }
+  }
+}
@@ -0,0 +1,134 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+
+class DirtyCheckTest {
+
+  static final String TRACKED = "tracked.txt";
+  static final String UNTRACKED = "untracked/file.txt";
+
+  @TempDir(cleanup = CleanupMode.ON_SUCCESS)
+  File projectDir;
+
+  static void write(Git git, String path, String content) throws Exception {
+    var file = git.getRepository().getWorkTree().toPath().resolve(path);
+    Files.createDirectories(file.getParent());
+    Files.writeString(file, content);
+  }
+
+  // the same answer as a full status, with untracked files counted
+  static boolean dirty(Git git) throws Exception {
+    var dirty = DirtyCheck.isDirty(git.getRepository(), true);
+    assertThat(dirty).isEqualTo(!git.status().call().isClean());
+    return dirty;
+  }
+
+  static boolean trackedDirty(Git git) throws Exception {
+    return DirtyCheck.isDirty(git.getRepository(), false);
+  }
+
+  Git committed() throws Exception {
+    var git = Git.init().setDirectory(projectDir).call();
+    write(git, TRACKED, "one");
+    write(git, ".gitignore", "build/\n");
+    git.add().addFilepattern(".").call();
+    git.commit().setMessage("initial").call();
+    return git;
+  }
+
+  @Test
+  void noCommits() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).call()) {
+      assertThat(dirty(git)).isFalse();
+
+      write(git, TRACKED, "one");
+      git.add().addFilepattern(TRACKED).call();
+
+      assertThat(dirty(git)).isTrue();
+      assertThat(trackedDirty(git)).isTrue();
+    }
+  }
+
+  @Test
+  void clean() throws Exception {
+    try (var git = this.committed()) {
+      write(git, "build/output.txt", "ignored");
+
+      assertThat(dirty(git)).isFalse();
+      assertThat(trackedDirty(git)).isFalse();
+    }
+  }
+
+  @Test
+  void untracked() throws Exception {
+    try (var git = this.committed()) {
+      write(git, UNTRACKED, "new");
+
+      assertThat(dirty(git)).isTrue();
+      assertThat(trackedDirty(git)).isFalse();
+    }
+  }
+
+  @Test
+  void modifiedSameSize() throws Exception {
+    try (var git = this.committed()) {
+      write(git, TRACKED, "two");
+
+      assertThat(dirty(git)).isTrue();
+      assertThat(trackedDirty(git)).isTrue();
+    }
+  }
+
+  @Test
+  void staged() throws Exception {
+    try (var git = this.committed()) {
+      write(git, TRACKED, "changed");
+      git.add().addFilepattern(TRACKED).call();
+
+      assertThat(dirty(git)).isTrue();
+      assertThat(trackedDirty(git)).isTrue();
+    }
+  }
+
+  @Test
+  void missing() throws Exception {
+    try (var git = this.committed()) {
+      Files.delete(projectDir.toPath().resolve(TRACKED));
+
+      assertThat(dirty(git)).isTrue();
+      assertThat(trackedDirty(git)).isTrue();
+    }
+  }
+
+  @Test
+  void removed() throws Exception {
+    try (var git = this.committed()) {
+      git.rm().addFilepattern(TRACKED).call();
+
+      assertThat(dirty(git)).isTrue();
+      assertThat(trackedDirty(git)).isTrue();
+    }
+  }
+
+  @Test
+  void touchedButUnchanged() throws Exception {
+    try (var git = this.committed()) {
+      Files.setLastModifiedTime(projectDir.toPath().resolve(TRACKED), FileTime.fromMillis(0));
+
+      assertThat(dirty(git)).isFalse();
+      assertThat(trackedDirty(git)).isFalse();
+    }
+  }
+}
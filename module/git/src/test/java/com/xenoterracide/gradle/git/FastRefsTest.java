@@ -0,0 +1,178 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import static com.xenoterracide.gradle.git.fixtures.CommitTools.commit;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+
+class FastRefsTest {
+
+  static final String MAIN = "main";
+  static final String GIT_HEADER = "# pack-refs with: peeled fully-peeled sorted ";
+  static final String VERSIONS = "refs/tags/v";
+  static final String ORIGIN = "origin";
+  static final String ORIGIN_MAIN = "refs/remotes/origin/main";
+
+  @TempDir(cleanup = CleanupMode.ON_SUCCESS)
+  File projectDir;
+
+  static void setRef(Repository repo, String name, ObjectId oid) throws Exception {
+    var update = repo.getRefDatabase().newUpdate(name, false);
+    update.setNewObjectId(oid);
+    update.forceUpdate();
+  }
+
+  // JGit writes refs sorted and peeled but does not say so, git does
+  static Path packAsGit(Git git) throws Exception {
+    git.packRefs().setAll(true).call();
+    var packedRefs = git.getRepository().getDirectory().toPath().resolve(Constants.PACKED_REFS);
+    var lines = Files.readAllLines(packedRefs, StandardCharsets.UTF_8);
+    lines.removeIf(line -> line.startsWith("#"));
+    lines.add(0, GIT_HEADER);
+    Files.write(packedRefs, lines, StandardCharsets.UTF_8);
+    return packedRefs;
+  }
+
+  // what each ref resolves and peels to, so refs read differently compare equal
+  static List<String> describe(List<Ref> refs, FastRefs peeler) throws Exception {
+    var described = new ArrayList<String>();
+    for (var ref : refs) {
+      var peeled = peeler.peel(ref);
+      var target = Objects.requireNonNullElse(peeled.getPeeledObjectId(), peeled.getObjectId());
+      described.add(ref.getName() + ' ' + ref.getObjectId().name() + ' ' + target.name());
+    }
+    return described;
+  }
+
+  Repository history(Git git) throws Exception {
+    var repo = git.getRepository();
+    var commits = new ArrayList<ObjectId>();
+    for (var i = 0; i < 20; i++) commits.add(commit(git));
+    for (var i = 0; i < 200; i++) {
+      var commit = commits.get(i % commits.size());
+      if (i % 3 == 0) {
+        var target = repo.parseCommit(commit);
+        git.tag().setName("v0." + i + ".0").setAnnotated(true).setMessage("release").setObjectId(target).call();
+      } else {
+        setRef(repo, VERSIONS + "1." + i + ".0", commit);
+      }
+      setRef(repo, "refs/pull/" + i + "/head", commit);
+    }
+    setRef(repo, "refs/tags/unversioned", commits.get(0));
+    setRef(repo, ORIGIN_MAIN, commits.get(3));
+    repo.getRefDatabase().newUpdate("refs/remotes/origin/HEAD", false).link(ORIGIN_MAIN);
+    return repo;
+  }
+
+  @Test
+  void matchesJGit() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      var repo = this.history(git);
+      packAsGit(git);
+      // a loose ref shadows the packed one and a new one is only loose
+      setRef(repo, VERSIONS + "1.1.0", repo.resolve("HEAD~5"));
+      setRef(repo, VERSIONS + "9.0.0", repo.resolve("HEAD~6"));
+      var packed = PackedRefs.open(repo.getDirectory().toPath().resolve(Constants.PACKED_REFS));
+      var refs = FastRefs.of(repo);
+
+      assertThat(packed).isNotNull();
+      assertThat(describe(refs.getRefsByPrefix(VERSIONS), refs)).isEqualTo(
+        describe(repo.getRefDatabase().getRefsByPrefix(VERSIONS), refs)
+      );
+      for (var name : List.of("HEAD", "refs/remotes/origin/HEAD", "refs/pull/7/head", "refs/tags/v0.3.0")) {
+        var fast = refs.exactRef(name);
+        var jgit = repo.exactRef(name);
+        assertThat(fast.getObjectId()).as(name).isEqualTo(jgit.getObjectId());
+        assertThat(fast.getLeaf().getName()).as(name).isEqualTo(jgit.getLeaf().getName());
+      }
+      assertThat(refs.remoteHeads(List.of(ORIGIN, "fork")))
+        .containsExactly(entry("fork", null), entry(ORIGIN, ORIGIN_MAIN));
+      assertThat(refs.exactRef("refs/tags/v0.3.0").isPeeled()).isTrue();
+      assertThat(refs.exactRef("refs/pull/0")).isNull();
+      assertThat(refs.exactRef("refs/tags/v")).isNull();
+      assertThat(refs.exactRef("refs/pull/99/head/")).isNull();
+    }
+  }
+
+  @Test
+  void everyPackedRefIsFound() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      var repo = this.history(git);
+      var packed = PackedRefs.open(packAsGit(git));
+      var all = repo.getRefDatabase().getRefsByPrefix("refs/").stream().map(Ref::getName).collect(Collectors.toList());
+
+      assertThat(packed).isNotNull();
+      for (var name : all) {
+        if (!"refs/remotes/origin/HEAD".equals(name)) assertThat(packed.get(name)).as(name).isNotNull();
+      }
+      assertThat(packed.byPrefix("refs/pull/1")).hasSize(111);
+      assertThat(packed.byPrefix("refs/")).hasSize(all.size() - 1);
+      assertThat(packed.byPrefix("refs/z")).isEmpty();
+    }
+  }
+
+  @Test
+  void packedReadOnceUntilRewritten() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      var repo = this.history(git);
+      var file = packAsGit(git);
+      var packed = PackedRefs.open(file);
+
+      assertThat(PackedRefs.open(file)).isSameAs(packed);
+
+      setRef(repo, VERSIONS + "9.0.0", repo.resolve("HEAD~6"));
+      var repacked = PackedRefs.open(packAsGit(git));
+      assertThat(repacked).isNotSameAs(packed);
+      assertThat(repacked.get(VERSIONS + "9.0.0")).isNotNull();
+    }
+  }
+
+  @Test
+  void unsortedIsLeftToJGit() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      var repo = this.history(git);
+      git.packRefs().setAll(true).call();
+      var refs = FastRefs.of(repo);
+
+      assertThat(PackedRefs.open(repo.getDirectory().toPath().resolve(Constants.PACKED_REFS))).isNull();
+      assertThat(refs.getRefsByPrefix(VERSIONS)).hasSize(200);
+      assertThat(refs.remoteHeads(List.of(ORIGIN))).containsEntry(ORIGIN, ORIGIN_MAIN);
+      var pull = "refs/pull/7/head";
+      assertThat(refs.exactRef(pull).getObjectId()).isEqualTo(repo.exactRef(pull).getObjectId());
+    }
+  }
+
+  @Test
+  void noPackedRefs() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      var repo = git.getRepository();
+      var refs = FastRefs.of(repo);
+      assertThat(refs.exactRef("HEAD").isSymbolic()).isTrue();
+      assertThat(refs.exactRef("HEAD").getObjectId()).isNull();
+
+      var head = commit(git);
+      assertThat(refs.exactRef("HEAD").getObjectId()).isEqualTo(head);
+      assertThat(refs.getRefsByPrefix(VERSIONS)).isEmpty();
+    }
+  }
+}
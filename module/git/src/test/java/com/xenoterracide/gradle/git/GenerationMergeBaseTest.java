@@ -0,0 +1,179 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraphWriter;
+import org.eclipse.jgit.internal.storage.commitgraph.GraphCommits;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.NullProgressMonitor;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.TreeFormatter;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.revwalk.filter.RevFilter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class GenerationMergeBaseTest {
+
+  static final int COMMITS = 200;
+  static final int IN_GRAPH = 150;
+  static final int SECOND_ROOT = 120;
+
+  @TempDir(cleanup = CleanupMode.ON_SUCCESS)
+  File projectDir;
+
+  static ObjectId insert(ObjectInserter inserter, ObjectId tree, int time, List<ObjectId> parents) throws IOException {
+    var ident = new PersonIdent("dev", "dev@example.com", Instant.ofEpochSecond(1_700_000_000L + time), ZoneOffset.UTC);
+    var builder = new CommitBuilder();
+    builder.setTreeId(tree);
+    builder.setAuthor(ident);
+    builder.setCommitter(ident);
+    builder.setMessage("commit " + time);
+    builder.setParentIds(parents);
+    return inserter.insert(builder);
+  }
+
+  // random merges, some reaching far back, and an unrelated root part way through
+  static List<ObjectId> history(Repository repo, Random random) throws IOException {
+    var commits = new ArrayList<ObjectId>();
+    try (var inserter = repo.newObjectInserter()) {
+      var tree = inserter.insert(new TreeFormatter());
+      for (var i = 0; i < COMMITS; i++) {
+        var parents = new ArrayList<ObjectId>();
+        if (i > 0 && i != SECOND_ROOT) {
+          parents.add(commits.get(i - 1 - random.nextInt(Math.min(i, 3))));
+          if (i > 1 && random.nextInt(4) == 0) parents.add(commits.get(random.nextInt(i - 1)));
+        }
+        commits.add(insert(inserter, tree, i * 60, parents.stream().distinct().toList()));
+      }
+      inserter.flush();
+    }
+    return commits;
+  }
+
+  static void writeGraph(Repository repo, Collection<ObjectId> tips) throws IOException {
+    var file = repo.getDirectory().toPath().resolve(Constants.OBJECTS).resolve(Constants.INFO_COMMIT_GRAPH);
+    Files.createDirectories(file.getParent());
+    try (var walk = new RevWalk(repo); var out = Files.newOutputStream(file)) {
+      var commits = GraphCommits.fromWalk(NullProgressMonitor.INSTANCE, Set.copyOf(tips), walk);
+      new CommitGraphWriter(commits).write(NullProgressMonitor.INSTANCE, out);
+    }
+  }
+
+  static Set<ObjectId> mergeBases(ObjectReader reader, ObjectId one, ObjectId two) throws IOException {
+    var bases = new HashSet<ObjectId>();
+    try (var walk = new RevWalk(reader)) {
+      walk.setRevFilter(RevFilter.MERGE_BASE);
+      walk.markStart(List.of(walk.parseCommit(one), walk.parseCommit(two)));
+      for (var base = walk.next(); base != null; base = walk.next()) bases.add(base.toObjectId());
+    }
+    return bases;
+  }
+
+  @ParameterizedTest
+  @ValueSource(longs = { 1, 2, 3, 4, 5, 6, 7, 8 })
+  void agreesWithMergeBaseWalk(long seed) throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).call()) {
+      var repo = git.getRepository();
+      var random = new Random(seed);
+      var commits = history(repo, random);
+      // newer commits are above the graph, like those made since the last gc
+      writeGraph(repo, commits.subList(0, IN_GRAPH));
+
+      try (var reader = repo.newObjectReader()) {
+        var graph = new CommitGraphs(repo).load(reader);
+        assertThat(graph).isNotNull();
+        for (var i = 0; i < 100; i++) {
+          var one = commits.get(random.nextInt(COMMITS));
+          var two = commits.get(random.nextInt(COMMITS));
+          var expected = mergeBases(reader, one, two);
+
+          var actual = GenerationMergeBase.find(reader, graph, one, two);
+
+          if (expected.isEmpty()) {
+            assertThat(actual).as("%s %s", one.name(), two.name()).isEmpty();
+          } else {
+            assertThat(actual).as("%s %s", one.name(), two.name()).get().isIn(expected);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  void clockSkewAboveGraph() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).call()) {
+      var repo = git.getRepository();
+      var commits = BranchWalkTest.skewed(repo);
+      writeGraph(repo, commits.subList(0, 1));
+
+      try (var reader = repo.newObjectReader()) {
+        var graph = new CommitGraphs(repo).load(reader);
+        assertThat(graph).isNotNull();
+
+        assertThat(GenerationMergeBase.find(reader, graph, commits.get(10), commits.get(11))).contains(commits.get(4));
+      }
+    }
+  }
+
+  @Test
+  void noGraphFallsBack() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).call()) {
+      var repo = git.getRepository();
+      var commits = history(repo, new Random(0));
+
+      try (var reader = repo.newObjectReader()) {
+        var graph = new CommitGraphs(repo).load(reader);
+        var one = commits.get(10);
+        var two = commits.get(20);
+        var base = MergeBaseFinder.mergeBase(reader, graph, one, two);
+
+        assertThat(graph).isNull();
+        assertThat(base).get().isIn(mergeBases(reader, one, two));
+      }
+    }
+  }
+
+  @Test
+  void graphIsReadAgainOnlyOnceReplaced() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).call()) {
+      var repo = git.getRepository();
+      var commits = history(repo, new Random(0));
+      writeGraph(repo, commits.subList(0, 100));
+
+      try (var reader = repo.newObjectReader()) {
+        var first = new CommitGraphs(repo).load(reader);
+        assertThat(new CommitGraphs(repo).load(reader)).isNotNull().isSameAs(first);
+
+        writeGraph(repo, commits.subList(0, IN_GRAPH));
+        var replaced = new CommitGraphs(repo).load(reader);
+
+        assertThat(replaced).isNotNull().isNotSameAs(first);
+      }
+    }
+  }
+}
@@ -0,0 +1,94 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import static com.xenoterracide.gradle.git.fixtures.CommitTools.commit;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+
+class GitEventTest {
+
+  static final String OPERATION = "com.xenoterracide.gradle.git.Operation";
+
+  @TempDir(cleanup = CleanupMode.ON_SUCCESS)
+  File projectDir;
+
+  @TempDir(cleanup = CleanupMode.ON_SUCCESS)
+  File recordingDir;
+
+  @Test
+  void recordsOperations() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).call()) {
+      commit(git);
+      git.tag().setName("v0.1.0").call();
+      var dump = recordingDir.toPath().resolve("git.jfr");
+
+      try (var recording = new Recording()) {
+        recording.enable(OPERATION);
+        recording.start();
+        var metadata = new GitMetadataImpl(() -> git);
+        assertThat(metadata.tag()).isEqualTo("v0.1.0");
+        assertThat(metadata.distance()).isZero();
+        recording.stop();
+        recording.dump(dump);
+      }
+
+      var events = RecordingFile.readAllEvents(dump)
+        .stream()
+        .filter(e -> e.getEventType().getName().equals(OPERATION))
+        .collect(Collectors.toList());
+      assertThat(events.stream().map(e -> e.getString("operation")).collect(Collectors.toList())).contains(
+        "tag",
+        "distance"
+      );
+      assertThat(events.stream().map(e -> e.getString("repository")).collect(Collectors.toSet())).containsOnly(
+        git.getRepository().getDirectory().getPath()
+      );
+    }
+  }
+
+  @Test
+  void countsWhatWasRead() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).call()) {
+      commit(git);
+      git.tag().setName("v0.1.0").call();
+      commit(git);
+      commit(git);
+      var dump = recordingDir.toPath().resolve("git.jfr");
+
+      try (var recording = new Recording()) {
+        recording.enable(OPERATION);
+        recording.start();
+        var repo = git.getRepository();
+        assertThat(DistanceCalculator.distance(repo, repo.resolve("HEAD"), TagIndex.DEFAULT_PREFIX)).isEqualTo(2L);
+        recording.stop();
+        recording.dump(dump);
+      }
+
+      var distance = RecordingFile.readAllEvents(dump)
+        .stream()
+        .filter(e -> e.getEventType().getName().equals(OPERATION) && "distance".equals(e.getString("operation")))
+        .findFirst()
+        .orElseThrow();
+      // both commits since the tag and the tagged one, and every tag ref
+      assertThat(distance.getLong("walked")).isEqualTo(3L);
+      assertThat(distance.getLong("refs")).isEqualTo(1L);
+    }
+  }
+
+  @Test
+  void disabledIsNotRecorded() {
+    var event = GitEvent.start("test");
+    assertThat(event.recording()).isFalse();
+  }
+}
@@ -0,0 +1,107 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import static com.xenoterracide.gradle.git.GitFingerprintValueSource.fingerprint;
+import static com.xenoterracide.gradle.git.fixtures.CommitTools.commit;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+
+class GitFingerprintValueSourceTest {
+
+  static final String MAIN = "main";
+  static final String ORIGIN_MAIN = "refs/remotes/origin/main";
+
+  @TempDir(cleanup = CleanupMode.ON_SUCCESS)
+  File projectDir;
+
+  static void setRef(Git git, String name, ObjectId oid) throws Exception {
+    var update = git.getRepository().getRefDatabase().newUpdate(name, false);
+    update.setNewObjectId(oid);
+    update.forceUpdate();
+  }
+
+  @Test
+  void changesOnlyWithRefs() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      var gitDir = git.getRepository().getDirectory().toPath();
+      var unborn = fingerprint(gitDir, false);
+      var head = commit(git);
+      var committed = fingerprint(gitDir, false);
+
+      assertThat(committed).isNotEqualTo(unborn).isEqualTo(fingerprint(gitDir, false)).startsWith(head.name());
+
+      git.tag().setName("v0.1.0").call();
+      var tagged = fingerprint(gitDir, false);
+      assertThat(tagged).isNotEqualTo(committed);
+
+      // the same refs, only stored differently
+      git.packRefs().setAll(true).call();
+      assertThat(fingerprint(gitDir, false)).isEqualTo(tagged);
+
+      // a tag still being written
+      Files.writeString(gitDir.resolve("refs/tags/v0.2.0.lock"), head.name());
+      assertThat(fingerprint(gitDir, false)).isEqualTo(tagged);
+
+      commit(git);
+      assertThat(fingerprint(gitDir, false)).isNotEqualTo(tagged);
+    }
+  }
+
+  @Test
+  void remoteHead() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      var gitDir = git.getRepository().getDirectory().toPath();
+      var first = commit(git);
+      setRef(git, ORIGIN_MAIN, first);
+      git.getRepository().getRefDatabase().newUpdate("refs/remotes/origin/HEAD", false).link(ORIGIN_MAIN);
+      var before = fingerprint(gitDir, false);
+      assertThat(before).endsWith("origin=" + first.name());
+
+      git.checkout().setCreateBranch(true).setName("topic").call();
+      var second = commit(git);
+      var topic = fingerprint(gitDir, false);
+      setRef(git, ORIGIN_MAIN, second);
+
+      assertThat(fingerprint(gitDir, false)).isNotEqualTo(topic).endsWith("origin=" + second.name());
+    }
+  }
+
+  @Test
+  void branchAtSameCommit() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      var gitDir = git.getRepository().getDirectory().toPath();
+      var head = commit(git);
+      var main = fingerprint(gitDir, false);
+
+      git.checkout().setCreateBranch(true).setName("topic").call();
+      var topic = fingerprint(gitDir, false);
+      assertThat(topic).isNotEqualTo(main).startsWith(head.name());
+
+      git.checkout().setName(head.name()).call();
+      assertThat(fingerprint(gitDir, false)).isNotEqualTo(topic).isNotEqualTo(main).startsWith(head.name());
+    }
+  }
+
+  @Test
+  void workTreeNeverReused() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      var gitDir = git.getRepository().getDirectory().toPath();
+      commit(git);
+      var refs = fingerprint(gitDir, false);
+
+      // an unstaged edit changes neither a ref nor the index
+      assertThat(fingerprint(gitDir, true)).isNotEqualTo(fingerprint(gitDir, true)).startsWith(refs);
+      assertThat(fingerprint(gitDir, false)).isEqualTo(refs);
+    }
+  }
+}
@@ -24,6 +24,7 @@ class GitMetadataImplTest {
 
   static final String MAIN = "main";
   static final String ORIGIN = "origin";
+  static final String ORIGIN_MAIN = "refs/remotes/origin/main";
 
   @TempDir(cleanup = CleanupMode.ON_SUCCESS)
   File projectDir;
@@ -218,4 +219,32 @@ class GitMetadataImplTest {
       );
     }
   }
+
+  @Test
+  void remoteWithoutSnapshot() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      git.remoteAdd().setUri(new URIish("https://example.org/repo.git")).setName(ORIGIN).call();
+      var head = commit(git);
+      var refs = git.getRepository().getRefDatabase();
+      var branch = refs.newUpdate(ORIGIN_MAIN, false);
+      branch.setNewObjectId(head);
+      branch.update();
+      refs.newUpdate("refs/remotes/origin/HEAD", false).link(ORIGIN_MAIN);
+      var pg = new GitMetadataImpl(
+        () -> git,
+        repo -> {
+          throw new AssertionError("took a snapshot for one remote");
+        },
+        ParallelStatus::isDirty,
+        IncrementalDescribe::head
+      );
+
+      var origin = pg.remote(ORIGIN);
+
+      assertThat(origin).isNotNull();
+      assertThat(origin.name()).isEqualTo(ORIGIN);
+      assertThat(origin.headBranchRefName()).isEqualTo(ORIGIN_MAIN);
+      assertThat(pg.remote("upstream")).isNull();
+    }
+  }
 }
@@ -0,0 +1,126 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import static com.xenoterracide.gradle.git.fixtures.CommitTools.commit;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jgit.api.Git;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+
+class GitServiceConcurrencyTest {
+
+  static final int PROJECTS = 200;
+
+  @TempDir(cleanup = CleanupMode.ON_SUCCESS)
+  File projectDir;
+
+  // what one project sees when it is configured
+  static List<Object> configure(Project project) {
+    var ext = project.getExtensions().getByType(GitExtension.class);
+    var metadata = (GitMetadataImpl) ext.getProvider().get();
+    var service = project
+      .getGradle()
+      .getSharedServices()
+      .registerIfAbsent(GitService.class.getCanonicalName(), GitService.class)
+      .get();
+    return List.of(ext.getCommit().get(), ext.getStatus().get(), metadata.snapshot(), service.getProvider().get());
+  }
+
+  @Test
+  void everyProjectSharesOneComputation() throws Exception {
+    String head;
+    try (var git = Git.init().setDirectory(this.projectDir).call()) {
+      head = commit(git).name();
+    }
+    var root = ProjectBuilder.builder().withProjectDir(this.projectDir).build();
+    var projects = new ArrayList<Project>();
+    for (var i = 0; i < PROJECTS; i++) {
+      var name = "project" + i;
+      var project = ProjectBuilder.builder()
+        .withName(name)
+        .withParent(root)
+        .withProjectDir(new File(this.projectDir, name))
+        .build();
+      project.getPluginManager().apply(GitPlugin.class);
+      projects.add(project);
+    }
+
+    var pool = Executors.newFixedThreadPool(32);
+    var start = new CountDownLatch(1);
+    try {
+      var futures = new ArrayList<Future<List<Object>>>();
+      for (var project : projects) {
+        futures.add(pool.submit(() -> {
+          start.await();
+          return configure(project);
+        }));
+      }
+      start.countDown();
+      var first = futures.get(0).get(1, TimeUnit.MINUTES);
+      for (var future : futures) {
+        var seen = future.get(1, TimeUnit.MINUTES);
+        assertThat(seen.get(0)).isEqualTo(head);
+        assertThat(seen.get(1)).isEqualTo(first.get(1));
+        // the same instances, so the snapshot was taken and the repository opened exactly once
+        assertThat(seen.get(2)).isSameAs(first.get(2));
+        assertThat(seen.get(3)).isSameAs(first.get(3));
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  void prefetchIsShared() throws Exception {
+    String head;
+    try (var git = Git.init().setDirectory(this.projectDir).call()) {
+      head = commit(git).name();
+    }
+    var project = ProjectBuilder.builder().withProjectDir(this.projectDir).build();
+    project.getPluginManager().apply(GitPlugin.class);
+    var service = project
+      .getGradle()
+      .getSharedServices()
+      .registerIfAbsent(GitService.class.getCanonicalName(), GitService.class)
+      .get();
+
+    service.prefetch();
+    service.prefetch();
+    var seen = configure(project);
+    var again = configure(project);
+
+    assertThat(seen.get(0)).isEqualTo(head);
+    assertThat(again.get(2)).isSameAs(seen.get(2));
+    service.close();
+  }
+
+  @Test
+  void prefetchWithoutRepository() {
+    var project = ProjectBuilder.builder().withProjectDir(this.projectDir).build();
+    project.getPluginManager().apply(GitPlugin.class);
+    var service = project
+      .getGradle()
+      .getSharedServices()
+      .registerIfAbsent(GitService.class.getCanonicalName(), GitService.class)
+      .get();
+
+    service.prefetch();
+    service.close();
+
+    assertThat(project.getExtensions().getByType(GitExtension.class).getCommit().getOrNull()).isNull();
+  }
+}
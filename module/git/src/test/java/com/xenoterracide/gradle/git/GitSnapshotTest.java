@@ -0,0 +1,108 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import static com.xenoterracide.gradle.git.fixtures.CommitTools.commit;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.MergeCommand;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+
+class GitSnapshotTest {
+
+  static final String MAIN = "main";
+  static final String TOPIC = "topic";
+
+  @TempDir(cleanup = CleanupMode.ON_SUCCESS)
+  File projectDir;
+
+  @Test
+  void noCommits() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      var snapshot = GitSnapshot.take(git.getRepository());
+
+      assertThat(snapshot.tag()).isNull();
+      assertThat(snapshot.distance()).isZero();
+      assertThat(snapshot.commit()).isNull();
+      assertThat(snapshot.uniqueShort()).isNull();
+      assertThat(snapshot.branch()).isEqualTo(MAIN);
+      assertThat(snapshot.shortCount()).isZero();
+    }
+  }
+
+  @Test
+  void untagged() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      commit(git);
+      commit(git);
+      var head = commit(git);
+
+      var snapshot = GitSnapshot.take(git.getRepository());
+
+      assertThat(snapshot.tag()).isNull();
+      assertThat(snapshot.distance()).isEqualTo(3L);
+      assertThat(snapshot.commit()).isEqualTo(head.getName());
+      assertThat(snapshot.uniqueShort()).hasSize(7).isEqualTo(head.abbreviate(7).name());
+      assertThat(snapshot.shortCount()).isEqualTo(3L);
+    }
+  }
+
+  @Test
+  void ignoresNonVersionTags() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      commit(git);
+      git.tag().setName("v0.1.0").call();
+      commit(git);
+      git.tag().setName("release").call();
+
+      var snapshot = GitSnapshot.take(git.getRepository());
+
+      assertThat(snapshot.tag()).isEqualTo("v0.1.0");
+      assertThat(snapshot.distance()).isEqualTo(1L);
+    }
+  }
+
+  @Test
+  void highestVersionWinsOnSameCommit() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      commit(git);
+      git.tag().setName("v0.1.1").call();
+      git.tag().setName("v0.1.1-rc.1").call();
+
+      var snapshot = GitSnapshot.take(git.getRepository());
+
+      assertThat(snapshot.tag()).isEqualTo("v0.1.1");
+      assertThat(snapshot.distance()).isZero();
+    }
+  }
+
+  @Test
+  void mergedHistoryMatchesDescribe() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      commit(git);
+      git.tag().setName("v0.1.0").call();
+      git.branchCreate().setName(TOPIC).call();
+      commit(git);
+      git.checkout().setName(TOPIC).call();
+      commit(git);
+      var tip = commit(git);
+      git.checkout().setName(MAIN).call();
+      git.merge().include(tip).setFastForward(MergeCommand.FastForwardMode.NO_FF).setMessage("merge").call();
+
+      var snapshot = GitSnapshot.take(git.getRepository());
+      var described = git.describe().setLong(true).setTags(true).call();
+
+      assertThat(snapshot.tag()).isEqualTo("v0.1.0");
+      assertThat(snapshot.distance()).isEqualTo(4L);
+      assertThat(described).startsWith("v0.1.0-4-g");
+      assertThat(snapshot.branch()).isEqualTo(MAIN);
+      assertThat(snapshot.shortCount()).isEqualTo(5L);
+    }
+  }
+}
@@ -0,0 +1,115 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import static com.xenoterracide.gradle.git.fixtures.CommitTools.commit;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.ResetCommand;
+import org.eclipse.jgit.lib.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+
+class IncrementalDescribeTest {
+
+  static final String MAIN = "main";
+  static final String V010 = "v0.1.0";
+
+  @TempDir(cleanup = CleanupMode.ON_SUCCESS)
+  File projectDir;
+
+  static IncrementalDescribe.Last last(Git git, ObjectId head) throws Exception {
+    var repo = git.getRepository();
+    try (var reader = repo.newObjectReader()) {
+      var tags = TagIndex.scan(repo);
+      return new IncrementalDescribe.Last(tags, head, DescribeWalk.describe(reader, tags, head));
+    }
+  }
+
+  static DescribeWalk.Described full(Git git, ObjectId head) throws Exception {
+    try (var reader = git.getRepository().newObjectReader()) {
+      return DescribeWalk.describe(reader, TagIndex.scan(git.getRepository()), head);
+    }
+  }
+
+  static DescribeWalk.Described describe(Git git, ObjectId head) throws Exception {
+    try (var reader = git.getRepository().newObjectReader()) {
+      return IncrementalDescribe.describe(git.getRepository(), reader, head);
+    }
+  }
+
+  @Test
+  void fastForwardAddsNewCommits() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      commit(git);
+      git.tag().setName(V010).call();
+      commit(git);
+      var last = last(git, commit(git));
+      commit(git);
+      var head = commit(git);
+
+      try (var reader = git.getRepository().newObjectReader()) {
+        var forwarded = IncrementalDescribe.forward(reader, TagIndex.scan(git.getRepository()), last, head);
+
+        assertThat(forwarded).isNotNull();
+        assertThat(forwarded.tag()).isEqualTo(V010);
+        assertThat(forwarded.distance()).isEqualTo(4L).isEqualTo(full(git, head).distance());
+      }
+    }
+  }
+
+  @Test
+  void rewriteIsDescribedAgain() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      var tagged = commit(git);
+      git.tag().setName(V010).call();
+      var last = last(git, commit(git));
+      git.reset().setMode(ResetCommand.ResetType.HARD).setRef(tagged.name()).call();
+      var head = commit(git);
+
+      try (var reader = git.getRepository().newObjectReader()) {
+        assertThat(IncrementalDescribe.forward(reader, TagIndex.scan(git.getRepository()), last, head)).isNull();
+      }
+    }
+  }
+
+  @Test
+  void taggedNewCommitIsDescribedAgain() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      commit(git);
+      git.tag().setName(V010).call();
+      var last = last(git, commit(git));
+      commit(git);
+      git.tag().setName("v0.2.0").call();
+      var head = commit(git);
+
+      try (var reader = git.getRepository().newObjectReader()) {
+        assertThat(IncrementalDescribe.forward(reader, TagIndex.scan(git.getRepository()), last, head)).isNull();
+      }
+    }
+  }
+
+  @Test
+  void matchesFullDescribe() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      var first = commit(git);
+      assertThat(describe(git, first).distance()).isEqualTo(1L);
+      commit(git);
+      var second = commit(git);
+      assertThat(describe(git, second).distance()).isEqualTo(full(git, second).distance()).isEqualTo(3L);
+
+      // a tag on an old commit is closer than anything the previous description knew about
+      git.tag().setName(V010).setObjectId(git.getRepository().parseCommit(first)).call();
+      var third = commit(git);
+      var described = describe(git, third);
+
+      assertThat(described.tag()).isEqualTo(V010);
+      assertThat(described.distance()).isEqualTo(full(git, third).distance()).isEqualTo(3L);
+    }
+  }
+}
@@ -0,0 +1,66 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import static com.xenoterracide.gradle.git.fixtures.CommitTools.commit;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+
+class LatestSnapshotTest {
+
+  static final String MAIN = "main";
+  static final String VERSION = "v0.1.0";
+
+  @TempDir(cleanup = CleanupMode.ON_SUCCESS)
+  File projectDir;
+
+  final AtomicInteger walks = new AtomicInteger();
+
+  GitSnapshot counted(Repository repo) throws IOException {
+    this.walks.incrementAndGet();
+    return GitSnapshot.take(repo);
+  }
+
+  @Test
+  void sameRefsWalkOnce() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      commit(git);
+      var latest = new LatestSnapshot(this::counted);
+
+      var first = latest.take(git.getRepository());
+      var second = latest.take(git.getRepository());
+
+      assertThat(second).isSameAs(first);
+      assertThat(this.walks).hasValue(1);
+    }
+  }
+
+  @Test
+  void changedRefsWalkAgain() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      commit(git);
+      var latest = new LatestSnapshot(this::counted);
+      assertThat(latest.take(git.getRepository()).distance()).isEqualTo(1L);
+
+      commit(git);
+      assertThat(latest.take(git.getRepository()).distance()).isEqualTo(2L);
+
+      git.tag().setName(VERSION).setAnnotated(false).call();
+      assertThat(latest.take(git.getRepository()).tag()).isEqualTo(VERSION);
+
+      git.checkout().setCreateBranch(true).setName("topic").call();
+      assertThat(latest.take(git.getRepository()).branch()).isEqualTo("topic");
+      assertThat(this.walks).hasValue(4);
+    }
+  }
+}
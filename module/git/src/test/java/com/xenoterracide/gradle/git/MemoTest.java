@@ -0,0 +1,94 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import org.junit.jupiter.api.Test;
+
+class MemoTest {
+
+  static final int CALLERS = 500;
+  static final String KEY = "key";
+
+  final Memo<String, Object> memo = new Memo<>();
+  final AtomicInteger loads = new AtomicInteger();
+
+  // every caller is released at once, so they all race for the first load
+  static <T> List<T> concurrently(Callable<T> call) throws Exception {
+    var pool = Executors.newFixedThreadPool(64);
+    var start = new CountDownLatch(1);
+    try {
+      var futures = new ArrayList<Future<T>>();
+      for (var i = 0; i < CALLERS; i++) {
+        futures.add(pool.submit(() -> {
+          start.await();
+          return call.call();
+        }));
+      }
+      start.countDown();
+      var results = new ArrayList<T>();
+      for (var future : futures) results.add(future.get(1, TimeUnit.MINUTES));
+      return results;
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  Object load(String key) {
+    this.loads.incrementAndGet();
+    // long enough that most callers arrive while it is still loading
+    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(20));
+    // a new instance each time, so results from two loads are never equal
+    return new StringBuilder(key);
+  }
+
+  @Test
+  void loadsOnce() throws Exception {
+    var results = concurrently(() -> this.memo.get(KEY, this::load));
+
+    assertThat(this.loads).hasValue(1);
+    assertThat(results.stream().distinct().count()).isEqualTo(1L);
+    assertThat(this.memo.values()).containsExactly(results.get(0));
+  }
+
+  @Test
+  void loadsOncePerKey() throws Exception {
+    var next = new AtomicInteger();
+    var results = concurrently(() -> this.memo.get("key" + next.getAndIncrement() % 4, this::load));
+
+    assertThat(this.loads).hasValue(4);
+    assertThat(results.stream().distinct().count()).isEqualTo(4L);
+  }
+
+  @Test
+  void failureIsShared() throws Exception {
+    var results = concurrently(() -> {
+      try {
+        return this.memo.get(KEY, key -> {
+          this.load(key);
+          throw new IOException("unreadable");
+        });
+      } catch (IOException e) {
+        return e;
+      }
+    });
+
+    assertThat(this.loads).hasValue(1);
+    assertThat(results.stream().distinct().count()).isEqualTo(1L);
+    assertThat(results.get(0)).isInstanceOf(IOException.class);
+    assertThat(this.memo.values()).isEmpty();
+  }
+}
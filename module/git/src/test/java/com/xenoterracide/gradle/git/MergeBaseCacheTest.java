@@ -0,0 +1,174 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import static com.xenoterracide.gradle.git.fixtures.CommitTools.commit;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+
+class MergeBaseCacheTest {
+
+  static final String MAIN = "main";
+  static final String TOPIC = "topic";
+  static final String V = TagIndex.DEFAULT_PREFIX;
+  static final String MODULE = "foo-v";
+
+  @TempDir(cleanup = CleanupMode.ON_SUCCESS)
+  File projectDir;
+
+  @TempDir(cleanup = CleanupMode.ON_SUCCESS)
+  Path cacheDir;
+
+  final AtomicInteger walks = new AtomicInteger();
+
+  static BranchWalk.Branch walked(Repository repo, AnyObjectId head, AnyObjectId remote, String prefix) {
+    throw new AssertionError("walked history on a cache hit");
+  }
+
+  BranchWalk.Branch counted(Repository repo, AnyObjectId head, AnyObjectId remote, String prefix) throws IOException {
+    this.walks.incrementAndGet();
+    return BranchWalk.walk(repo, head, remote, prefix);
+  }
+
+  MergeBaseCache cache(int maxEntries) {
+    return new MergeBaseCache(cacheDir, maxEntries, this::counted);
+  }
+
+  @Test
+  void hitDoesNotWalk() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      commit(git);
+      git.tag().setName("v0.1.0").call();
+      var remote = commit(git);
+      git.checkout().setCreateBranch(true).setName(TOPIC).call();
+      commit(git);
+      var head = commit(git);
+      var repo = git.getRepository();
+
+      var cold = this.cache(MergeBaseCache.MAX_ENTRIES).distance(repo, head, remote, V);
+      // a later build
+      var warm = new MergeBaseCache(cacheDir, MergeBaseCache.MAX_ENTRIES, MergeBaseCacheTest::walked);
+
+      assertThat(cold).contains(1L);
+      assertThat(warm.distance(repo, head, remote, V)).isEqualTo(cold);
+      assertThat(this.walks).hasValue(1);
+    }
+  }
+
+  @Test
+  void newTagCountsAgainWithoutWalking() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      commit(git);
+      git.tag().setName("v0.1.0").call();
+      commit(git);
+      var remote = commit(git);
+      git.checkout().setCreateBranch(true).setName(TOPIC).call();
+      var head = commit(git);
+      var repo = git.getRepository();
+      assertThat(this.cache(MergeBaseCache.MAX_ENTRIES).distance(repo, head, remote, V)).contains(2L);
+
+      git.tag().setName("v0.2.0").setObjectId(repo.parseCommit(remote)).call();
+      var warm = new MergeBaseCache(cacheDir, MergeBaseCache.MAX_ENTRIES, MergeBaseCacheTest::walked);
+
+      assertThat(warm.distance(repo, head, remote, V)).contains(0L);
+    }
+  }
+
+  // a module versioned by its own tags is counted from those, whatever the v tags say
+  @Test
+  void prefixedTags() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      commit(git);
+      git.tag().setName(MODULE + "1.2.3").call();
+      commit(git);
+      commit(git);
+      git.tag().setName("v0.1.0").call();
+      var remote = commit(git);
+      git.checkout().setCreateBranch(true).setName(TOPIC).call();
+      var head = commit(git);
+      var repo = git.getRepository();
+
+      assertThat(this.cache(MergeBaseCache.MAX_ENTRIES).distance(repo, head, remote, MODULE)).contains(3L);
+      assertThat(MergeBaseCache.uncached(repo, head, remote, MODULE)).contains(3L);
+      assertThat(MergeBaseCache.uncached(repo, head, remote, V)).contains(1L);
+    }
+  }
+
+  @Test
+  void prefixesAreCachedApart() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      commit(git);
+      git.tag().setName(MODULE + "1.2.3").call();
+      commit(git);
+      git.tag().setName("v0.1.0").call();
+      var remote = commit(git);
+      git.checkout().setCreateBranch(true).setName(TOPIC).call();
+      var head = commit(git);
+      var repo = git.getRepository();
+      var cache = this.cache(MergeBaseCache.MAX_ENTRIES);
+
+      assertThat(cache.distance(repo, head, remote, MODULE)).contains(2L);
+      assertThat(cache.distance(repo, head, remote, V)).contains(1L);
+      assertThat(this.walks).hasValue(2);
+
+      // only the tags of its own prefix make an entry stale
+      git.tag().setName(MODULE + "1.3.0").setObjectId(repo.parseCommit(remote)).call();
+      var warm = new MergeBaseCache(cacheDir, MergeBaseCache.MAX_ENTRIES, MergeBaseCacheTest::walked);
+
+      assertThat(warm.distance(repo, head, remote, V)).contains(1L);
+      assertThat(warm.distance(repo, head, remote, MODULE)).contains(0L);
+    }
+  }
+
+  @Test
+  void leastRecentlyUsedIsDropped() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      var first = commit(git);
+      var second = commit(git);
+      var third = commit(git);
+      var fourth = commit(git);
+      var repo = git.getRepository();
+      var cache = this.cache(2);
+
+      cache.distance(repo, fourth, first, V);
+      cache.distance(repo, third, first, V);
+      cache.distance(repo, fourth, first, V);
+      cache.distance(repo, second, first, V);
+      assertThat(this.walks).hasValue(3);
+
+      cache.distance(repo, fourth, first, V);
+      cache.distance(repo, second, first, V);
+      assertThat(this.walks).hasValue(3);
+
+      cache.distance(repo, third, first, V);
+      assertThat(this.walks).hasValue(4);
+    }
+  }
+
+  @Test
+  void unrelatedHistory() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      var remote = commit(git);
+      git.checkout().setOrphan(true).setName(TOPIC).call();
+      var head = commit(git);
+      var repo = git.getRepository();
+
+      assertThat(this.cache(MergeBaseCache.MAX_ENTRIES).distance(repo, head, remote, V)).isEqualTo(Optional.empty());
+      assertThat(this.cache(MergeBaseCache.MAX_ENTRIES).distance(repo, head, remote, V)).isEmpty();
+      assertThat(this.walks).hasValue(1);
+    }
+  }
+}
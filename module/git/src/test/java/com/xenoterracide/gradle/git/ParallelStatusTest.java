@@ -0,0 +1,175 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class ParallelStatusTest {
+
+  static final int SEEDS = 4;
+  static final String KEPT = "keep.log";
+
+  @TempDir(cleanup = CleanupMode.ON_SUCCESS)
+  File projectDir;
+
+  final ForkJoinPool pool = new ForkJoinPool(4);
+
+  // directories at several depths, with ignore rules at the root and in one of them
+  static List<String> generate(Path root, Random random) throws Exception {
+    write(root, ".gitignore", "*.log\nout/\n");
+    write(root, "d1/.gitignore", "!" + KEPT + "\ntmp/\n");
+    var files = new ArrayList<String>();
+    for (var i = 0; i < 3; i++) files.add("root" + i + ".txt");
+    for (var d = 0; d < 6; d++) {
+      for (var f = random.nextInt(6); f >= 0; f--) files.add("d" + d + "/file" + f + ".txt");
+      for (var f = random.nextInt(3); f >= 0; f--) files.add("d" + d + "/sub/file" + f + ".txt");
+    }
+    for (var file : files) write(root, file, "content of " + file);
+    return files;
+  }
+
+  static void write(Path root, String path, String content) throws Exception {
+    var file = root.resolve(path);
+    Files.createDirectories(file.getParent());
+    Files.writeString(file, content);
+  }
+
+  static boolean trackedChanges(Status status) {
+    return !(
+      status.getAdded().isEmpty() &&
+      status.getChanged().isEmpty() &&
+      status.getRemoved().isEmpty() &&
+      status.getMissing().isEmpty() &&
+      status.getModified().isEmpty() &&
+      status.getConflicting().isEmpty()
+    );
+  }
+
+  @AfterEach
+  void shutdown() {
+    this.pool.shutdown();
+  }
+
+  @ParameterizedTest
+  @EnumSource(Mutation.class)
+  void matchesStatus(Mutation mutation) throws Exception {
+    for (var seed = 0; seed < SEEDS; seed++) {
+      var random = new Random(seed);
+      var root = this.projectDir.toPath().resolve(mutation.name() + seed);
+      try (var git = Git.init().setDirectory(root.toFile()).call()) {
+        var files = generate(root, random);
+        git.add().addFilepattern(".").call();
+        git.commit().setMessage("generated").call();
+        mutation.apply(git, root, files.get(random.nextInt(files.size())));
+
+        var status = git.status().call();
+        var repo = git.getRepository();
+        assertThat(ParallelStatus.isDirty(repo, true, this.pool)).isEqualTo(!status.isClean());
+        assertThat(ParallelStatus.isDirty(repo, false, this.pool)).isEqualTo(trackedChanges(status));
+        assertThat(DirtyCheck.isDirty(repo, true)).isEqualTo(!status.isClean());
+      }
+    }
+  }
+
+  enum Mutation {
+    NONE {
+      @Override
+      void apply(Git git, Path root, String file) {}
+    },
+    TOUCHED {
+      @Override
+      void apply(Git git, Path root, String file) throws Exception {
+        Files.setLastModifiedTime(root.resolve(file), FileTime.fromMillis(0));
+      }
+    },
+    IGNORED {
+      @Override
+      void apply(Git git, Path root, String file) throws Exception {
+        write(root, file + ".log", "ignored");
+      }
+    },
+    IGNORED_DIRECTORY {
+      @Override
+      void apply(Git git, Path root, String file) throws Exception {
+        write(root, "d3/out/file.txt", "ignored");
+        write(root, "d1/tmp/file.txt", "ignored");
+      }
+    },
+    EMPTY_DIRECTORY {
+      @Override
+      void apply(Git git, Path root, String file) throws Exception {
+        Files.createDirectories(root.resolve("d2/empty"));
+      }
+    },
+    NEGATED {
+      @Override
+      void apply(Git git, Path root, String file) throws Exception {
+        write(root, "d1/" + KEPT, "not ignored");
+      }
+    },
+    UNTRACKED {
+      @Override
+      void apply(Git git, Path root, String file) throws Exception {
+        write(root, file + ".new", "untracked");
+      }
+    },
+    UNTRACKED_DIRECTORY {
+      @Override
+      void apply(Git git, Path root, String file) throws Exception {
+        write(root, "d9/deep/file.txt", "untracked");
+      }
+    },
+    MODIFIED {
+      @Override
+      void apply(Git git, Path root, String file) throws Exception {
+        write(root, file, "changed");
+      }
+    },
+    DELETED {
+      @Override
+      void apply(Git git, Path root, String file) throws Exception {
+        Files.delete(root.resolve(file));
+      }
+    },
+    STAGED {
+      @Override
+      void apply(Git git, Path root, String file) throws Exception {
+        write(root, file + ".new", "staged");
+        git.add().addFilepattern(file + ".new").call();
+      }
+    },
+    REMOVED {
+      @Override
+      void apply(Git git, Path root, String file) throws Exception {
+        git.rm().setCached(true).addFilepattern(file).call();
+      }
+    },
+    REPLACED_BY_DIRECTORY {
+      @Override
+      void apply(Git git, Path root, String file) throws Exception {
+        Files.delete(root.resolve(file));
+        write(root, file + "/file.txt", "directory");
+      }
+    };
+
+    abstract void apply(Git git, Path root, String file) throws Exception;
+  }
+}
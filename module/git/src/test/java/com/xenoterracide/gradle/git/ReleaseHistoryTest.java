@@ -0,0 +1,106 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import static com.xenoterracide.gradle.git.fixtures.CommitTools.commit;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.xenoterracide.gradle.git.fixtures.HistoryGenerator;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+
+class ReleaseHistoryTest {
+
+  static final String MAIN = "main";
+  // identifiers whose keys tie or saturate, so the full comparison is exercised too
+  static final List<String> IDENTIFIERS = List.of(
+    "alpha",
+    "alphab",
+    "alphabet",
+    "beta",
+    "rc",
+    "0",
+    "1",
+    "2",
+    "10",
+    "01",
+    "1048576",
+    "12345678901234567890"
+  );
+
+  @TempDir(cleanup = CleanupMode.ON_SUCCESS)
+  File projectDir;
+
+  static String random(Random random) {
+    var core = random.nextInt(3) + "." + random.nextInt(3) + "." + (random.nextInt(10) == 0 ? 2097152 : 1);
+    var identifiers = random.ints(random.nextInt(4), 0, IDENTIFIERS.size()).mapToObj(IDENTIFIERS::get);
+    var preRelease = identifiers.collect(Collectors.joining("."));
+    return "v" + core + (preRelease.isEmpty() ? "" : "-" + preRelease);
+  }
+
+  @Test
+  void sortedAsVersionsCompare() {
+    var random = new Random(42);
+    var tags = new HashMap<TagIndex.Version, ObjectId>();
+    for (var i = 0; i < 10_000; i++) {
+      tags.put(Objects.requireNonNull(TagIndex.Version.parse(random(random))), ObjectId.zeroId());
+    }
+    var expected = new ArrayList<>(tags.keySet());
+    expected.sort(Comparator.reverseOrder());
+
+    var names = ReleaseHistory.of(tags).names();
+
+    assertThat(names).containsExactlyElementsOf(expected.stream().map(TagIndex.Version::name).toList());
+  }
+
+  @Test
+  void highestReachableFromHead() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      commit(git);
+      git.tag().setName("v1.0.0").call();
+      git.checkout().setCreateBranch(true).setName("next").call();
+      commit(git);
+      git.tag().setName("v2.0.0").call();
+      git.checkout().setName(MAIN).call();
+      var head = commit(git);
+      git.tag().setName("v1.1.0-rc.1").setAnnotated(false).call();
+      var repo = git.getRepository();
+      try (var walk = new RevWalk(repo)) {
+        git.tag().setName("v3.0.0").setObjectId(walk.parseCommit(head).getTree()).call();
+      }
+
+      var releases = TagIndex.of(repo).releases();
+
+      assertThat(releases.names()).containsExactly("v3.0.0", "v2.0.0", "v1.1.0-rc.1", "v1.0.0");
+      assertThat(releases.highestReachableFrom(repo, head)).isEqualTo("v1.1.0-rc.1");
+      assertThat(releases.highestReachableFrom(repo, repo.resolve("next"))).isEqualTo("v2.0.0");
+    }
+  }
+
+  @Test
+  void hundredThousandTags() throws Exception {
+    var generator = new HistoryGenerator(projectDir.toPath()).commits(100_000).tagEvery(1).diverged(0, 5);
+    try (var repo = generator.open()) {
+      var releases = TagIndex.of(repo).releases();
+
+      assertThat(releases.size()).isEqualTo(99_999);
+      assertThat(releases.names().get(0)).isEqualTo("v0.99999.0");
+      assertThat(releases.highestReachableFrom(repo, repo.resolve(Constants.HEAD))).isEqualTo("v0.99999.0");
+    }
+  }
+}
@@ -0,0 +1,171 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import static com.xenoterracide.gradle.git.fixtures.CommitTools.commit;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.util.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+
+class RepositoryWatcherTest {
+
+  static final String IGNORED = "build";
+
+  @TempDir(cleanup = CleanupMode.ON_SUCCESS)
+  File projectDir;
+
+  final AtomicInteger loads = new AtomicInteger();
+  final AtomicInteger checks = new AtomicInteger();
+
+  // events arrive on another thread, a change shows up within a few milliseconds
+  static boolean eventually(Callable<Boolean> condition) throws Exception {
+    for (var i = 0; i < 200; i++) {
+      if (condition.call()) return true;
+      Thread.sleep(25);
+    }
+    return false;
+  }
+
+  Git committed() throws Exception {
+    var git = Git.init().setDirectory(this.projectDir).call();
+    Files.writeString(this.projectDir.toPath().resolve(".gitignore"), IGNORED + "/\n");
+    Files.createDirectories(this.projectDir.toPath().resolve(IGNORED));
+    git.add().addFilepattern(".").call();
+    commit(git);
+    return git;
+  }
+
+  GitSnapshot snapshot(RepositoryWatcher watcher, Git git) throws Exception {
+    return watcher.snapshot(git.getRepository(), repo -> {
+      this.loads.incrementAndGet();
+      return GitSnapshot.take(repo);
+    });
+  }
+
+  boolean dirty(RepositoryWatcher watcher, Git git) throws Exception {
+    return watcher.isDirty(git.getRepository(), true, (repo, untracked) -> {
+      this.checks.incrementAndGet();
+      return DirtyCheck.isDirty(repo, untracked);
+    });
+  }
+
+  @Test
+  void snapshotIsKeptUntilRefsChange() throws Exception {
+    try (var git = this.committed(); var watcher = new RepositoryWatcher(git.getRepository())) {
+      var first = this.snapshot(watcher, git);
+      assertThat(this.snapshot(watcher, git)).isSameAs(first);
+      assertThat(this.loads).hasValue(1);
+
+      var head = commit(git);
+
+      assertThat(eventually(() -> head.name().equals(this.snapshot(watcher, git).commit()))).isTrue();
+      assertThat(this.loads).hasValue(2);
+    }
+  }
+
+  @Test
+  void statusIsKeptUntilWorkTreeChanges() throws Exception {
+    try (var git = this.committed(); var watcher = new RepositoryWatcher(git.getRepository())) {
+      assertThat(this.dirty(watcher, git)).isFalse();
+      assertThat(this.dirty(watcher, git)).isFalse();
+      assertThat(this.checks).hasValue(1);
+
+      var file = this.projectDir.toPath().resolve("src/new.txt");
+      Files.createDirectories(file.getParent());
+      Files.writeString(file, "new");
+      assertThat(eventually(() -> this.dirty(watcher, git))).isTrue();
+
+      git.add().addFilepattern(".").call();
+      commit(git);
+      assertThat(eventually(() -> !this.dirty(watcher, git))).isTrue();
+
+      // the new directory is watched too
+      Files.writeString(file, "changed");
+      assertThat(eventually(() -> this.dirty(watcher, git))).isTrue();
+    }
+  }
+
+  @Test
+  void ignoredDirectoriesAreNotWatched() throws Exception {
+    try (var git = this.committed(); var watcher = new RepositoryWatcher(git.getRepository())) {
+      assertThat(this.dirty(watcher, git)).isFalse();
+
+      Files.writeString(this.projectDir.toPath().resolve(IGNORED + "/output.txt"), "output");
+      Thread.sleep(250);
+
+      assertThat(this.dirty(watcher, git)).isFalse();
+      assertThat(this.checks).hasValue(1);
+    }
+  }
+
+  @Test
+  void overflowRecomputesEverything() throws Exception {
+    try (var git = this.committed(); var watcher = new RepositoryWatcher(git.getRepository())) {
+      this.snapshot(watcher, git);
+      this.dirty(watcher, git);
+
+      watcher.overflowed();
+      this.snapshot(watcher, git);
+      this.dirty(watcher, git);
+
+      assertThat(this.loads).hasValue(2);
+      assertThat(this.checks).hasValue(2);
+    }
+  }
+
+  @Test
+  void unusedWatchersAreClosedAfterTheBuild() throws Exception {
+    try (var git = this.committed()) {
+      var repo = git.getRepository();
+      SnapshotCache.Loader loader = r -> {
+        this.loads.incrementAndGet();
+        return GitSnapshot.take(r);
+      };
+      var first = new Object();
+      RepositoryWatcher.snapshots(first, loader).take(repo);
+      RepositoryWatcher.release(first);
+
+      var second = new Object();
+      RepositoryWatcher.snapshots(second, loader).take(repo);
+      RepositoryWatcher.release(second);
+      assertThat(this.loads).hasValue(1);
+
+      // a build of another repository
+      RepositoryWatcher.release(new Object());
+
+      var fourth = new Object();
+      RepositoryWatcher.snapshots(fourth, loader).take(repo);
+      RepositoryWatcher.release(fourth);
+      assertThat(this.loads).hasValue(2);
+    }
+  }
+
+  @Test
+  void unwatchedOnceWorkTreeCannotBeRegistered() throws Exception {
+    var workTree = this.projectDir.toPath().resolve("work");
+    var gitDir = this.projectDir.toPath().resolve("repo.git");
+    try (
+      var git = Git.init().setDirectory(workTree.toFile()).setGitDir(gitDir.toFile()).call();
+      var watcher = new RepositoryWatcher(git.getRepository())
+    ) {
+      this.snapshot(watcher, git);
+      FileUtils.delete(workTree.toFile(), FileUtils.RECURSIVE);
+
+      watcher.overflowed();
+      this.snapshot(watcher, git);
+      this.snapshot(watcher, git);
+
+      assertThat(this.loads).hasValue(3);
+    }
+  }
+}
@@ -0,0 +1,153 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import static com.xenoterracide.gradle.git.fixtures.CommitTools.commit;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+
+class SnapshotCacheTest {
+
+  static final String MAIN = "main";
+  static final String VERSION = "v0.1.0";
+  static final String ORIGIN_MAIN = "refs/remotes/origin/main";
+
+  @TempDir(cleanup = CleanupMode.ON_SUCCESS)
+  File projectDir;
+
+  @TempDir(cleanup = CleanupMode.ON_SUCCESS)
+  Path cacheDir;
+
+  final AtomicInteger walks = new AtomicInteger();
+
+  GitSnapshot counted(Repository repo) throws IOException {
+    this.walks.incrementAndGet();
+    return GitSnapshot.take(repo);
+  }
+
+  @Test
+  void hitDoesNotWalk() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      commit(git);
+      git.tag().setName(VERSION).call();
+      commit(git);
+      var cold = new SnapshotCache(cacheDir, this::counted).get(git.getRepository());
+
+      // a later build, anything that would walk history fails it
+      var warm = new SnapshotCache(cacheDir, repo -> {
+        throw new AssertionError("walked history on a cache hit");
+      }).get(git.getRepository());
+
+      assertThat(this.walks).hasValue(1);
+      assertThat(warm).usingRecursiveComparison().isEqualTo(cold);
+      assertThat(warm.tag()).isEqualTo(VERSION);
+      assertThat(warm.distance()).isEqualTo(1L);
+    }
+  }
+
+  @Test
+  void newCommitMisses() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      commit(git);
+      var cache = new SnapshotCache(cacheDir, this::counted);
+      assertThat(cache.get(git.getRepository()).distance()).isEqualTo(1L);
+
+      var head = commit(git);
+      var snapshot = cache.get(git.getRepository());
+
+      assertThat(this.walks).hasValue(2);
+      assertThat(snapshot.distance()).isEqualTo(2L);
+      assertThat(snapshot.commit()).isEqualTo(head.getName());
+    }
+  }
+
+  @Test
+  void newTagMisses() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      commit(git);
+      var cache = new SnapshotCache(cacheDir, this::counted);
+      assertThat(cache.get(git.getRepository()).tag()).isNull();
+
+      git.tag().setName(VERSION).setAnnotated(false).call();
+
+      assertThat(cache.get(git.getRepository()).tag()).isEqualTo(VERSION);
+      assertThat(this.walks).hasValue(2);
+    }
+  }
+
+  @Test
+  void otherFormatMisses() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      commit(git);
+      var cache = new SnapshotCache(cacheDir, this::counted);
+      cache.get(git.getRepository());
+      try (var entries = Files.list(cacheDir)) {
+        for (var entry : entries.filter(file -> file.toString().endsWith(".properties")).toList()) {
+          var properties = Files.readString(entry);
+          Files.writeString(entry, properties.replace("format=" + SnapshotCache.FORMAT_VERSION, "format=0"));
+        }
+      }
+
+      cache.get(git.getRepository());
+
+      assertThat(this.walks).hasValue(2);
+    }
+  }
+
+  @Test
+  void keepsRemotes() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      var head = commit(git);
+      var config = git.getRepository().getConfig();
+      config.setString("remote", "origin", "url", "https://example.com/origin.git");
+      config.save();
+      var refs = git.getRepository().getRefDatabase();
+      var branch = refs.newUpdate(ORIGIN_MAIN, false);
+      branch.setNewObjectId(head);
+      branch.update();
+      refs.newUpdate("refs/remotes/origin/HEAD", false).link(ORIGIN_MAIN);
+      var cold = new SnapshotCache(cacheDir).get(git.getRepository());
+      var warm = new SnapshotCache(cacheDir, this::counted).get(git.getRepository());
+
+      assertThat(this.walks).hasValue(0);
+      assertThat(warm.remotes()).containsExactly(entry("origin", ORIGIN_MAIN)).isEqualTo(cold.remotes());
+    }
+  }
+
+  @Test
+  void concurrentBuildsWalkOnce() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      commit(git);
+      var repo = git.getRepository();
+      var builds = IntStream.range(0, 8)
+        .<Callable<GitSnapshot>>mapToObj(i -> () -> new SnapshotCache(cacheDir, this::counted).get(repo))
+        .toList();
+
+      var pool = Executors.newFixedThreadPool(builds.size());
+      try {
+        for (var future : pool.invokeAll(builds)) {
+          assertThat(future.get().distance()).isEqualTo(1L);
+        }
+      } finally {
+        pool.shutdown();
+      }
+      assertThat(this.walks).hasValue(1);
+    }
+  }
+}
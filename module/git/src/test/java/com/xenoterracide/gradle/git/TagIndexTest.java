@@ -0,0 +1,158 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import static com.xenoterracide.gradle.git.fixtures.CommitTools.commit;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.util.Comparator;
+import java.util.Objects;
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class TagIndexTest {
+
+  static final String MAIN = "main";
+
+  @TempDir(cleanup = CleanupMode.ON_SUCCESS)
+  File projectDir;
+
+  static TagIndex.Version version(String name) {
+    return Objects.requireNonNull(TagIndex.Version.parse(name));
+  }
+
+  @ParameterizedTest
+  @CsvSource(
+    {
+      "v1.0.0-alpha.1, v1.0.0-alpha",
+      "v1.0.0-alpha.beta, v1.0.0-alpha.1",
+      "v1.0.0-beta, v1.0.0-alpha.beta",
+      "v1.0.0-beta.2, v1.0.0-beta",
+      "v1.0.0-beta.11, v1.0.0-beta.2",
+      "v1.0.0-rc.1, v1.0.0-beta.11",
+      "v1.0.0, v1.0.0-rc.1",
+      "v1.0.0+build.1, v1.0.0-rc.1",
+      "v1.0.1, v1.0.0",
+      "v1.1.0, v1.0.10",
+      "v10.0.0, v9.99.99",
+    }
+  )
+  void semverPrecedence(String greater, String than) {
+    assertThat(version(greater)).isGreaterThan(version(than));
+  }
+
+  // equal keys are fine, the versions are then compared in full
+  @ParameterizedTest
+  @CsvSource(
+    {
+      "v1.0.0-alpha.1, v1.0.0-alpha",
+      "v1.0.0-alpha.beta, v1.0.0-alpha.1",
+      "v1.0.0-beta.11, v1.0.0-beta.2",
+      "v1.0.0-rc, v1.0.0-11",
+      "v1.0.0, v1.0.0-rc.1",
+      "v1.0.0-alphabet, v1.0.0-alphab.7",
+      "v1.0.0-alphabeta.0, v1.0.0-alphabet.1",
+      "v1.0.0-alphab.beta, v1.0.0-alphab.1048576",
+      "v1.0.0-01, v1.0.0-9",
+      "v1.0.0-10, v1.0.0-01",
+      "v1.0.0-1234567890123456789, v1.0.0-123456789012345678",
+      "v2097152.0.0, v2097151.5.0",
+      "v2097153.0.0, v2097152.9.0",
+      "v1.2097152.0, v1.2097151.9",
+    }
+  )
+  void sortKeysNeverDisagree(String greater, String than) {
+    var keys = Comparator.comparingLong(TagIndex.Version::coreKey).thenComparingLong(TagIndex.Version::preReleaseKey);
+    assertThat(version(greater)).isGreaterThan(version(than));
+    assertThat(keys.compare(version(greater), version(than))).isNotNegative();
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = { "release", "v1.0", "vx.1.2", "v1.x.2" })
+  void notVersions(String name) {
+    assertThat(TagIndex.Version.parse(name)).isNull();
+  }
+
+  @ParameterizedTest
+  @CsvSource({ "v1.0.0, v", "1.0.0, ''", "semver-v0.13.1, semver-v", "git-v1.2.0-rc.1, git-v", "r2-1.0.0, r2-" })
+  void prefixes(String name, String prefix) {
+    assertThat(version(name).prefix()).isEqualTo(prefix);
+  }
+
+  @Test
+  void indexesPeeledTags() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      var first = commit(git);
+      git.tag().setName("v0.1.0").call();
+      var second = commit(git);
+      git.tag().setName("v0.2.0").setAnnotated(false).call();
+      git.tag().setName("release").call();
+      var third = commit(git);
+
+      var index = TagIndex.scan(git.getRepository());
+
+      assertThat(index.size()).isEqualTo(2);
+      assertThat(index.tagOn(first)).isEqualTo("v0.1.0");
+      assertThat(index.tagOn(second)).isEqualTo("v0.2.0");
+      assertThat(index.tagOn(third)).isNull();
+    }
+  }
+
+  @Test
+  void highestVersionOnCommit() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      var head = commit(git);
+      git.tag().setName("v0.1.1").call();
+      git.tag().setName("v0.1.1-rc.1").call();
+      git.tag().setName("v0.1.0").setAnnotated(false).call();
+
+      assertThat(TagIndex.scan(git.getRepository()).tagOn(head)).isEqualTo("v0.1.1");
+    }
+  }
+
+  @Test
+  void indexedByPrefix() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      var first = commit(git);
+      git.tag().setName("git-v1.2.0").call();
+      git.tag().setName("1.0.0").call();
+      var second = commit(git);
+      git.tag().setName("semver-v0.13.1").call();
+      git.tag().setName("v0.1.0").setAnnotated(false).call();
+      var repo = git.getRepository();
+
+      assertThat(TagIndex.scanAll(repo)).containsOnlyKeys("git-v", "semver-v", "v", "");
+      assertThat(TagIndex.of(repo, "git-v").tagOn(first)).isEqualTo("git-v1.2.0");
+      assertThat(TagIndex.of(repo, "git-v").tagOn(second)).isNull();
+      assertThat(TagIndex.of(repo, "semver-v").tagOn(second)).isEqualTo("semver-v0.13.1");
+      assertThat(TagIndex.of(repo).tagOn(second)).isEqualTo("v0.1.0");
+      assertThat(TagIndex.of(repo).tagOn(first)).isNull();
+      assertThat(TagIndex.of(repo, "none-v").size()).isZero();
+    }
+  }
+
+  @Test
+  void reusedUntilRefsChange() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      var head = commit(git);
+      var repo = git.getRepository();
+      var index = TagIndex.of(repo);
+
+      assertThat(TagIndex.of(repo)).isSameAs(index);
+      assertThat(index.tagOn(head)).isNull();
+
+      git.tag().setName("v0.1.0").call();
+
+      assertThat(TagIndex.of(repo)).isNotSameAs(index);
+      assertThat(TagIndex.of(repo).tagOn(head)).isEqualTo("v0.1.0");
+    }
+  }
+}
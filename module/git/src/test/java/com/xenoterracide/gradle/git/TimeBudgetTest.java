@@ -0,0 +1,144 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git;
+
+import static com.xenoterracide.gradle.git.fixtures.CommitTools.commit;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+
+class TimeBudgetTest {
+
+  static final Duration BUDGET = Duration.ofMillis(100);
+
+  @TempDir(cleanup = CleanupMode.ON_SUCCESS)
+  File projectDir;
+
+  // works until cancelled
+  static <T> T forever() throws InterruptedIOException {
+    while (true) TimeBudget.checkInterrupted();
+  }
+
+  @Test
+  void withoutBudgetRunsOnCaller() throws Throwable {
+    assertThat(TimeBudget.within(null, "test", Thread::currentThread)).isSameAs(Thread.currentThread());
+  }
+
+  @Test
+  void exceededIsCancelled() throws Exception {
+    var stopped = new CountDownLatch(1);
+
+    assertThatThrownBy(() ->
+      TimeBudget.within(BUDGET, "test", () -> {
+        try {
+          return forever();
+        } finally {
+          stopped.countDown();
+        }
+      })
+    ).isInstanceOf(TimeoutException.class);
+    assertThat(stopped.await(1, TimeUnit.MINUTES)).isTrue();
+  }
+
+  @Test
+  void cancellingDoesNotInterrupt() throws Exception {
+    var stopped = new CountDownLatch(1);
+    var interrupted = new AtomicBoolean();
+
+    assertThatThrownBy(() ->
+      TimeBudget.within(BUDGET, "test", () -> {
+        try {
+          return forever();
+        } finally {
+          // an interrupt would have closed any channel the operation was reading
+          interrupted.set(Thread.currentThread().isInterrupted());
+          stopped.countDown();
+        }
+      })
+    ).isInstanceOf(TimeoutException.class);
+    assertThat(stopped.await(1, TimeUnit.MINUTES)).isTrue();
+    assertThat(interrupted.get()).isFalse();
+  }
+
+  @Test
+  void untilFlagIsSet() throws Exception {
+    var cancelled = new AtomicBoolean();
+    var started = new CountDownLatch(1);
+    var failure = new CompletableFuture<Throwable>();
+    var thread = new Thread(() -> {
+      try {
+        TimeBudget.until(cancelled, () -> {
+          started.countDown();
+          // a budget within is cancelled with the work that started it
+          return TimeBudget.within(Duration.ofMinutes(1), "test", TimeBudgetTest::forever);
+        });
+      } catch (Throwable e) {
+        failure.complete(e);
+      }
+    });
+    thread.start();
+    assertThat(started.await(1, TimeUnit.MINUTES)).isTrue();
+
+    cancelled.set(true);
+
+    assertThat(failure.get(1, TimeUnit.MINUTES)).isInstanceOf(InterruptedIOException.class);
+    assertThat(thread.isInterrupted()).isFalse();
+  }
+
+  @Test
+  void cancelledEarlierIsTimeout() {
+    assertThatThrownBy(() ->
+      TimeBudget.within(BUDGET, "test", () -> {
+        throw new InterruptedIOException();
+      })
+    ).isInstanceOf(TimeoutException.class);
+  }
+
+  @Test
+  void failureIsKept() {
+    assertThatThrownBy(() ->
+      TimeBudget.within(BUDGET, "test", () -> {
+        throw new IOException("unreadable");
+      })
+    ).isInstanceOf(IOException.class);
+  }
+
+  @Test
+  void metadataFallsBack() throws Exception {
+    try (var git = Git.init().setDirectory(projectDir).call()) {
+      var head = commit(git);
+      git.tag().setName("v0.1.0").call();
+      var metadata = new GitMetadataImpl(
+        () -> git,
+        repo -> forever(),
+        (repo, untracked) -> forever(),
+        IncrementalDescribe::head,
+        () -> BUDGET
+      );
+
+      var snapshot = metadata.snapshot();
+
+      assertThat(snapshot.timedOut()).isTrue();
+      assertThat(snapshot.commit()).isEqualTo(head.name());
+      assertThat(snapshot.uniqueShort()).isEqualTo(head.abbreviate(7).name());
+      assertThat(snapshot.tag()).isNull();
+      assertThat(metadata.status()).isEqualTo(GitStatus.TIMED_OUT);
+      assertThat(metadata.describe("v").timedOut()).isFalse();
+    }
+  }
+}
@@ -0,0 +1,93 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git.fixtures;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.errorprone.annotations.Var;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.stream.Collectors;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class HistoryGeneratorTest {
+
+  static final String ORIGIN = "origin";
+
+  @TempDir(cleanup = CleanupMode.ON_SUCCESS)
+  File cacheDir;
+
+  // commits reachable from HEAD, and how many of them are merges
+  static long[] count(Repository repo) throws IOException {
+    try (var walk = new RevWalk(repo)) {
+      walk.markStart(walk.parseCommit(repo.resolve(Constants.HEAD)));
+      @Var var commits = 0L;
+      @Var var merges = 0L;
+      for (var commit = walk.next(); commit != null; commit = walk.next()) {
+        commits++;
+        if (commit.getParentCount() > 1) merges++;
+      }
+      return new long[] { commits, merges };
+    }
+  }
+
+  @ParameterizedTest
+  @CsvSource({ "LINEAR, 1000, 0", "MERGE_HEAVY, 1000, 333", "LONG_LIVED, 1001, 1" })
+  void topology(HistoryGenerator.Topology topology, long commits, long merges) throws Exception {
+    try (var repo = new HistoryGenerator(cacheDir.toPath()).commits(1000).topology(topology).open()) {
+      assertThat(count(repo)).containsExactly(commits, merges);
+      assertThat(Git.wrap(repo).status().call().isClean()).isTrue();
+    }
+  }
+
+  @Test
+  void tagsRemoteAndFiles() throws Exception {
+    var generator = new HistoryGenerator(cacheDir.toPath())
+      .commits(1000)
+      .tagEvery(100)
+      .annotatedTags(true)
+      .remote(ORIGIN)
+      .diverged(3, 5)
+      .files(250)
+      .commitGraph(true);
+
+    try (var repo = generator.open(); var git = Git.wrap(repo)) {
+      assertThat(repo.getBranch()).isEqualTo(HistoryGenerator.TOPIC);
+      assertThat(git.describe().setTags(false).call()).startsWith("v0.9.0-102-g");
+      assertThat(repo.getRefDatabase().getRefsByPrefix(Constants.R_TAGS)).hasSize(9);
+      var remoteHead = repo.exactRef(Constants.R_REMOTES + ORIGIN + "/" + Constants.HEAD);
+      assertThat(remoteHead.getTarget().getName()).isEqualTo(Constants.R_REMOTES + ORIGIN + "/main");
+      assertThat(repo.getConfig().getString("remote", ORIGIN, "url")).isNotNull();
+      assertThat(git.status().call().isClean()).isTrue();
+      assertThat(repo.readDirCache().getEntryCount()).isEqualTo(250);
+      assertThat(repo.getDirectory().toPath().resolve("objects/info/commit-graph")).exists();
+    }
+  }
+
+  @Test
+  void cachedByParameters() throws Exception {
+    var generator = new HistoryGenerator(cacheDir.toPath()).commits(100);
+    try (var first = generator.open()) {
+      var head = first.resolve(Constants.HEAD);
+      try (var second = generator.open(); var other = generator.tagEvery(10).open()) {
+        assertThat(second.getDirectory()).isEqualTo(first.getDirectory());
+        assertThat(second.resolve(Constants.HEAD)).isEqualTo(head);
+        assertThat(other.getDirectory()).isNotEqualTo(first.getDirectory());
+      }
+    }
+    try (var cached = Files.list(cacheDir.toPath())) {
+      assertThat(cached.map(dir -> dir.getFileName().toString()).collect(Collectors.toList())).hasSize(2);
+    }
+  }
+}
@@ -62,6 +62,8 @@ class GitServiceTest {
           assertThat(remote).hasNoNullFieldsOrProperties();
           assertThat(remote.getHeadBranch().getOrNull()).isNull();
         });
+      assertThat(ext.remote("origin").get().getName()).isEqualTo("origin");
+      assertThat(ext.remote("upstream").isPresent()).isFalse();
       assertThat(ext.getDirty().getOrNull()).isTrue();
       assertThat(ext.commonAncestorDistanceFor(ext.getRemotes().getOrNull().getFirst())).isEmpty();
     }
@@ -0,0 +1,301 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git.fixtures;
+
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.io.IOException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.UUID;
+import org.eclipse.jgit.internal.storage.file.FileRepository;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.util.FileUtils;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Generates checkouts with large histories by writing objects straight into a pack, hundreds of thousands of commits
+ * take seconds rather than the hours committing through porcelain would. Every commit has the same tree, so the working
+ * tree is clean. A generated repository is kept on disk keyed by its parameters and reused by later runs, tests must
+ * not change it.
+ *
+ * <pre>{@code
+ * try (var repo = HistoryGenerator.cached().commits(100_000).topology(Topology.MERGE_HEAVY).tagEvery(100).open()) {
+ * }
+ * }</pre>
+ */
+public final class HistoryGenerator {
+
+  /**
+   * Branch of the main line, also the remote's {@code HEAD} branch.
+   */
+  public static final String MAIN = "main";
+
+  /**
+   * Branch checked out when {@code HEAD} is ahead of {@value #MAIN}.
+   */
+  public static final String TOPIC = "topic";
+
+  /**
+   * Shape of the history.
+   */
+  public enum Topology {
+    /**
+     * Every commit has one parent.
+     */
+    LINEAR,
+    /**
+     * Every third commit merges a single commit branch, as merging pull requests does.
+     */
+    MERGE_HEAVY,
+    /**
+     * One in ten commits belongs to a branch forked at the root, with commit times interleaved with the main line,
+     * which is merged into the main line once, at the end.
+     */
+    LONG_LIVED,
+  }
+
+  private final Path cache;
+  private int commits = 100;
+  private Topology topology = Topology.LINEAR;
+  private int tagEvery;
+  private boolean annotated;
+  private String tagPrefix = "v";
+  private @Nullable String remote;
+  private int ahead;
+  private int behind;
+  private int files;
+  private boolean commitGraph;
+
+  /**
+   * Generator keeping repositories in a directory.
+   *
+   * @param cache
+   *   where the generated repositories are kept
+   */
+  public HistoryGenerator(Path cache) {
+    this.cache = cache;
+  }
+
+  /**
+   * Generator keeping repositories in {@code build/repositories}, or where the {@code git.fixtures.repositories}
+   * system property says.
+   *
+   * @return the generator
+   */
+  public static HistoryGenerator cached() {
+    return new HistoryGenerator(Path.of(System.getProperty("git.fixtures.repositories", "build/repositories")));
+  }
+
+  /**
+   * Sets how many commits there are before {@code HEAD} and {@value #MAIN} diverge, defaults to 100.
+   *
+   * @param count
+   *   number of commits, including those of side branches
+   * @return this
+   */
+  @CanIgnoreReturnValue
+  public HistoryGenerator commits(int count) {
+    if (count < 1) throw new IllegalArgumentException("a history needs a commit");
+    this.commits = count;
+    return this;
+  }
+
+  /**
+   * Sets the shape of the history, linear by default.
+   *
+   * @param shape
+   *   the shape
+   * @return this
+   */
+  @CanIgnoreReturnValue
+  public HistoryGenerator topology(Topology shape) {
+    this.topology = shape;
+    return this;
+  }
+
+  /**
+   * Tags every so many commits of the main line, counted from the root, none by default. Tags are named
+   * {@code v0.1.0}, {@code v0.2.0} and so on, oldest first.
+   *
+   * @param every
+   *   commits between tags, 0 for none
+   * @return this
+   */
+  @CanIgnoreReturnValue
+  public HistoryGenerator tagEvery(int every) {
+    this.tagEvery = every;
+    return this;
+  }
+
+  /**
+   * Makes the tags annotated tag objects instead of lightweight tags.
+   *
+   * @param annotatedTags
+   *   whether tags are annotated
+   * @return this
+   */
+  @CanIgnoreReturnValue
+  public HistoryGenerator annotatedTags(boolean annotatedTags) {
+    this.annotated = annotatedTags;
+    return this;
+  }
+
+  /**
+   * Sets what tag names start with, defaults to {@code v}.
+   *
+   * @param prefix
+   *   the prefix, such as {@code semver-v}
+   * @return this
+   */
+  @CanIgnoreReturnValue
+  public HistoryGenerator tagPrefix(String prefix) {
+    this.tagPrefix = prefix;
+    return this;
+  }
+
+  /**
+   * Adds a remote whose {@code HEAD} is {@value #MAIN}, with remote tracking refs for it.
+   *
+   * @param name
+   *   name of the remote, such as {@code origin}
+   * @return this
+   */
+  @CanIgnoreReturnValue
+  public HistoryGenerator remote(String name) {
+    this.remote = name;
+    return this;
+  }
+
+  /**
+   * Forks {@value #TOPIC} from the main line and checks it out, for merge base lookups.
+   *
+   * @param topicCommits
+   *   commits on {@value #TOPIC} after the fork
+   * @param mainCommits
+   *   commits on {@value #MAIN} after the fork
+   * @return this
+   */
+  @CanIgnoreReturnValue
+  public HistoryGenerator diverged(int topicCommits, int mainCommits) {
+    this.ahead = topicCommits;
+    this.behind = mainCommits;
+    return this;
+  }
+
+  /**
+   * Sets how many files every commit has, none by default.
+   *
+   * @param count
+   *   number of tracked files
+   * @return this
+   */
+  @CanIgnoreReturnValue
+  public HistoryGenerator files(int count) {
+    this.files = count;
+    return this;
+  }
+
+  /**
+   * Writes a commit-graph, as {@code git gc} does.
+   *
+   * @param write
+   *   whether to write one
+   * @return this
+   */
+  @CanIgnoreReturnValue
+  public HistoryGenerator commitGraph(boolean write) {
+    this.commitGraph = write;
+    return this;
+  }
+
+  /**
+   * Opens the repository, generating it if it has not been generated before.
+   *
+   * @return the repository, the caller closes it
+   * @throws IOException
+   *   if the repository cannot be written
+   */
+  public Repository open() throws IOException {
+    var dir = this.cache.resolve(this.key());
+    if (!Files.isDirectory(dir)) this.generate(dir);
+    return new FileRepositoryBuilder().setWorkTree(dir.toFile()).setMustExist(true).build();
+  }
+
+  // generated elsewhere and moved in place, so a concurrent or interrupted run never leaves half a repository
+  private void generate(Path dir) throws IOException {
+    var partial = this.cache.resolve(this.key() + ".partial-" + UUID.randomUUID());
+    try {
+      try (var repo = new FileRepository(partial.resolve(".git").toFile())) {
+        repo.create(false);
+        HistoryWriter.write(repo, this);
+      }
+      Files.move(partial, dir, StandardCopyOption.ATOMIC_MOVE);
+    } catch (FileAlreadyExistsException | DirectoryNotEmptyException e) {
+      // generated by another run in the meantime
+    } finally {
+      FileUtils.delete(partial.toFile(), FileUtils.RECURSIVE | FileUtils.SKIP_MISSING);
+    }
+  }
+
+  String key() {
+    return String.join(
+      "-",
+      "history",
+      "c" + this.commits,
+      this.topology.name().toLowerCase(Locale.ROOT),
+      "t" + this.tagEvery + (this.annotated ? "a" : "") + this.tagPrefix,
+      "r" + (this.remote != null ? this.remote : ""),
+      "d" + this.ahead + "." + this.behind,
+      "f" + this.files,
+      this.commitGraph ? "graph" : "nograph"
+    );
+  }
+
+  int commits() {
+    return this.commits;
+  }
+
+  HistoryGenerator.Topology topology() {
+    return this.topology;
+  }
+
+  int tagEvery() {
+    return this.tagEvery;
+  }
+
+  boolean annotated() {
+    return this.annotated;
+  }
+
+  String tagPrefix() {
+    return this.tagPrefix;
+  }
+
+  @Nullable
+  String remote() {
+    return this.remote;
+  }
+
+  int ahead() {
+    return this.ahead;
+  }
+
+  int behind() {
+    return this.behind;
+  }
+
+  int files() {
+    return this.files;
+  }
+
+  boolean commitGraph() {
+    return this.commitGraph;
+  }
+}
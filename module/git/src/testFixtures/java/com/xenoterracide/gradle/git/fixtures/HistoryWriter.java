@@ -0,0 +1,228 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.git.fixtures;
+
+import com.google.errorprone.annotations.Var;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraphWriter;
+import org.eclipse.jgit.internal.storage.commitgraph.GraphCommits;
+import org.eclipse.jgit.internal.storage.file.ObjectDirectory;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.NullProgressMonitor;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.TagBuilder;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.transport.ReceiveCommand;
+
+/**
+ * Writes the history a {@link HistoryGenerator} describes. Commits are a second apart, so commit date order is
+ * topological order.
+ */
+final class HistoryWriter {
+
+  private static final long EPOCH = 1_500_000_000L;
+  private static final int MERGE_EVERY = 3;
+  private static final int SIDE_EVERY = 10;
+  private static final int PER_DIRECTORY = 100;
+  private static final String REMOTE = "remote";
+
+  private final Repository repo;
+  private final ObjectInserter inserter;
+  private final HistoryGenerator spec;
+  private final ObjectId tree;
+  private final List<ObjectId> tagged = new ArrayList<>();
+  private final List<ReceiveCommand> refs = new ArrayList<>();
+  private long time;
+  private int onMain;
+  private ObjectId main;
+  private ObjectId side;
+
+  private HistoryWriter(Repository repo, ObjectInserter inserter, HistoryGenerator spec, ObjectId tree)
+    throws IOException {
+    this.repo = repo;
+    this.inserter = inserter;
+    this.spec = spec;
+    this.tree = tree;
+    this.main = this.commit();
+    this.side = this.main;
+  }
+
+  /**
+   * Writes the objects, the refs and the index.
+   *
+   * @param repo
+   *   an empty repository with a working tree
+   * @param spec
+   *   what to write
+   * @throws IOException
+   *   if the repository cannot be written
+   */
+  static void write(Repository repo, HistoryGenerator spec) throws IOException {
+    try (var inserter = ((ObjectDirectory) repo.getObjectDatabase()).newPackInserter()) {
+      inserter.checkExisting(false);
+      var writer = new HistoryWriter(repo, inserter, spec, checkout(repo, inserter, spec.files()));
+      var fork = writer.history();
+      var topic = writer.line(fork, spec.ahead());
+      writer.main = writer.line(fork, spec.behind());
+      writer.tags();
+      inserter.flush();
+      writer.refs(topic);
+      if (spec.commitGraph()) writer.commitGraph(Set.copyOf(List.of(writer.main, topic)));
+    }
+  }
+
+  private ObjectId history() throws IOException {
+    for (var i = 1; i < this.spec.commits(); i++) this.next(i);
+    if (this.spec.topology() == HistoryGenerator.Topology.LONG_LIVED) this.main = this.commit(this.main, this.side);
+    return this.main;
+  }
+
+  private void next(int commit) throws IOException {
+    switch (this.spec.topology()) {
+      case MERGE_HEAVY:
+        if (commit % MERGE_EVERY == 1) {
+          this.side = this.commit(this.main);
+          return;
+        }
+        this.main = commit % MERGE_EVERY == 0 ? this.commit(this.main, this.side) : this.commit(this.main);
+        break;
+      case LONG_LIVED:
+        if (commit % SIDE_EVERY == 0) {
+          this.side = this.commit(this.side);
+          return;
+        }
+        this.main = this.commit(this.main);
+        break;
+      default:
+        this.main = this.commit(this.main);
+    }
+    var tagEvery = this.spec.tagEvery();
+    if (tagEvery > 0 && ++this.onMain % tagEvery == 0) this.tagged.add(this.main);
+  }
+
+  private ObjectId line(ObjectId from, int length) throws IOException {
+    @Var var tip = from;
+    for (var i = 0; i < length; i++) tip = this.commit(tip);
+    return tip;
+  }
+
+  private ObjectId commit(ObjectId... parents) throws IOException {
+    var builder = new CommitBuilder();
+    builder.setTreeId(this.tree);
+    builder.setAuthor(this.ident());
+    builder.setCommitter(this.ident());
+    builder.setMessage("commit " + this.time);
+    builder.setParentIds(parents);
+    this.time++;
+    return this.inserter.insert(builder);
+  }
+
+  private PersonIdent ident() {
+    return new PersonIdent("dev", "dev@example.com", Instant.ofEpochSecond(EPOCH + this.time), ZoneOffset.UTC);
+  }
+
+  private void tags() throws IOException {
+    @Var var version = 1;
+    for (var commit : this.tagged) {
+      var name = this.spec.tagPrefix() + "0." + version++ + ".0";
+      if (!this.spec.annotated()) {
+        this.create(Constants.R_TAGS + name, commit);
+        continue;
+      }
+      var tag = new TagBuilder();
+      tag.setTag(name);
+      tag.setObjectId(commit, Constants.OBJ_COMMIT);
+      tag.setTagger(this.ident());
+      tag.setMessage(name);
+      this.create(Constants.R_TAGS + name, this.inserter.insert(tag));
+    }
+  }
+
+  private void refs(ObjectId topic) throws IOException {
+    var diverged = this.spec.ahead() > 0;
+    var remote = this.spec.remote();
+    this.create(Constants.R_HEADS + HistoryGenerator.MAIN, this.main);
+    if (diverged) this.create(Constants.R_HEADS + HistoryGenerator.TOPIC, topic);
+    if (remote != null) this.create(Constants.R_REMOTES + remote + '/' + HistoryGenerator.MAIN, this.main);
+    // written to packed-refs at once, rather than a file for every tag
+    var batch = this.repo.getRefDatabase().newBatchUpdate().setAtomic(true).addCommand(this.refs);
+    try (var walk = new RevWalk(this.repo)) {
+      batch.execute(walk, NullProgressMonitor.INSTANCE);
+    }
+    for (var command : this.refs) {
+      if (command.getResult() != ReceiveCommand.Result.OK) {
+        throw new IOException("could not create " + command.getRefName() + ": " + command.getResult());
+      }
+    }
+    var head = diverged ? HistoryGenerator.TOPIC : HistoryGenerator.MAIN;
+    this.repo.updateRef(Constants.HEAD).link(Constants.R_HEADS + head);
+    if (remote != null) this.remote(remote);
+  }
+
+  private void remote(String name) throws IOException {
+    var tracking = Constants.R_REMOTES + name + '/';
+    this.repo.updateRef(tracking + Constants.HEAD).link(tracking + HistoryGenerator.MAIN);
+    var config = this.repo.getConfig();
+    config.setString(REMOTE, name, "url", "https://example.com/" + name + ".git");
+    config.setString(REMOTE, name, "fetch", "+" + Constants.R_HEADS + "*:" + tracking + "*");
+    config.save();
+  }
+
+  private void create(String name, ObjectId id) {
+    this.refs.add(new ReceiveCommand(ObjectId.zeroId(), id, name));
+  }
+
+  private void commitGraph(Set<ObjectId> tips) throws IOException {
+    var file = this.repo.getDirectory().toPath().resolve(Constants.OBJECTS).resolve(Constants.INFO_COMMIT_GRAPH);
+    Files.createDirectories(file.getParent());
+    try (var walk = new RevWalk(this.repo); var out = Files.newOutputStream(file)) {
+      var commits = GraphCommits.fromWalk(NullProgressMonitor.INSTANCE, tips, walk);
+      new CommitGraphWriter(commits).write(NullProgressMonitor.INSTANCE, out);
+    }
+  }
+
+  // dated an hour back, so the index never holds racily clean entries that would need their content checked
+  private static ObjectId checkout(Repository repo, ObjectInserter inserter, int files) throws IOException {
+    var past = FileTime.from(Instant.now().minus(1, ChronoUnit.HOURS));
+    var index = repo.lockDirCache();
+    var builder = index.builder();
+    for (var i = 0; i < files; i++) {
+      var path = String.format("dir%04d/file%04d.txt", i / PER_DIRECTORY, i % PER_DIRECTORY);
+      builder.add(file(repo, inserter, path, past));
+    }
+    builder.commit();
+    return index.writeTree(inserter);
+  }
+
+  private static DirCacheEntry file(Repository repo, ObjectInserter inserter, String path, FileTime time)
+    throws IOException {
+    var content = ("content of " + path + "\n").getBytes(StandardCharsets.UTF_8);
+    var file = repo.getWorkTree().toPath().resolve(path);
+    Files.createDirectories(file.getParent());
+    Files.write(file, content);
+    Files.setLastModifiedTime(file, time);
+    var entry = new DirCacheEntry(path);
+    entry.setFileMode(FileMode.REGULAR_FILE);
+    entry.setLength(content.length);
+    entry.setLastModified(time.toInstant());
+    entry.setObjectId(inserter.insert(Constants.OBJ_BLOB, content));
+    return entry;
+  }
+}
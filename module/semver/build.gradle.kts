@@ -39,6 +39,24 @@ testing {
   }
 }
 
+val performance = "performance"
+
+tasks.named<Test>("testIntegration") {
+  useJUnitPlatform { excludeTags(performance) }
+}
+
+tasks.register<Test>("testPerformance") {
+  description = "Builds generated projects with the plugins and writes their configuration time as JSON."
+  group = LifecycleBasePlugin.VERIFICATION_GROUP
+  val integration = sourceSets.named("testIntegration")
+  testClassesDirs = files(integration.map { it.output.classesDirs })
+  classpath = files(integration.map { it.runtimeClasspath })
+  useJUnitPlatform { includeTags(performance) }
+  systemProperty("performance.results", layout.buildDirectory.dir("reports/performance").get().asFile.path)
+  systemProperty("git.fixtures.repositories", layout.buildDirectory.dir("repositories").get().asFile.path)
+  outputs.upToDateWhen { false }
+}
+
 gradlePlugin {
   plugins {
     register("com.xenoterracide.gradle.semver") {
@@ -51,6 +69,16 @@ gradlePlugin {
       tags = setOf("semver", "versioning", "git", "version")
       id = name
     }
+    register("com.xenoterracide.gradle.semver.settings") {
+      displayName = "Semver with Git for Settings"
+      implementationClass = "com.xenoterracide.gradle.semver.SemverSettingsPlugin"
+      description =
+        """
+        Computes the semantic version from git once for the whole build and sets it on every project.
+        """.trimIndent()
+      tags = setOf("semver", "versioning", "git", "version")
+      id = name
+    }
   }
 }
 
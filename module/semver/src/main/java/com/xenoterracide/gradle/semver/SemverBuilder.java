@@ -4,10 +4,9 @@
 
 package com.xenoterracide.gradle.semver;
 
+import com.google.errorprone.annotations.Var;
 import com.xenoterracide.gradle.git.GitStatus;
-import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.List;
 import org.apache.commons.lang3.RegExUtils;
 import org.jspecify.annotations.Nullable;
 import org.semver4j.Semver;
@@ -15,13 +14,19 @@ import org.semver4j.Semver;
 final class SemverBuilder {
 
   private static final String ALPHA = "alpha";
+  private static final String BRANCH = "branch";
+  private static final String GIT = "git";
+  private static final String TIMEOUT = "timeout";
   private static final String SEMVER_DELIMITER = ".";
   private static final String ZERO = "0";
+  private static final char DOT = '.';
+  // the numbers at their longest, the fixed identifiers and their dots
+  private static final int CAPACITY = 112;
 
   // private BranchOutput branchOutput = BranchOutput.NON_HEAD_BRANCH_OR_THROW;
   // private RemoteForHeadBranch remoteForHeadBranch = RemoteForHeadBranch.CONFIGURED_ORIGIN_OR_THROW;
   // private String remote = "origin";
-  private Semver semver;
+  private final Semver semver;
   private boolean dirtyOut;
   private long preReleaseDistance;
   private long buildDistance;
@@ -37,6 +42,19 @@ final class SemverBuilder {
     return String.join(SEMVER_DELIMITER, parts);
   }
 
+  /**
+   * A placeholder for when git took longer than its timeout, {@code 0.0.0-alpha.0+git.timeout.<sha>}, nothing of the
+   * history being known.
+   *
+   * @param uniqueShort
+   *   the abbreviated commit, if any
+   * @return the placeholder version
+   */
+  static Semver timedOut(@Nullable String uniqueShort) {
+    var build = uniqueShort != null ? semverJoin(GIT, TIMEOUT, uniqueShort) : semverJoin(GIT, TIMEOUT);
+    return Semver.ZERO.withPreRelease(semverJoin(ALPHA, ZERO)).withBuild(build);
+  }
+
   /*
   boolean doesNotHaveHeadBranch() {
     return this.gitMetadata.remotes().stream().map(GitRemote::headBranch).noneMatch(Objects::nonNull);
@@ -81,49 +99,6 @@ final class SemverBuilder {
   }
    */
 
-  private void createPreRelease() {
-    if (this.preReleaseDistance > 0) {
-      if (this.semver.getPreRelease().isEmpty()) {
-        // 1.0 or notag
-        this.semver = this.semver.withIncPatch().withPreRelease(
-          semverJoin(ALPHA, ZERO, Long.toString(this.preReleaseDistance))
-        );
-      } else {
-        // rc.1
-        var preRelease = Stream.concat(
-          this.semver.getPreRelease().stream(),
-          Stream.of(Long.toString(this.preReleaseDistance))
-        ).collect(Collectors.joining(SEMVER_DELIMITER));
-        this.semver = this.semver.withClearedPreRelease().withPreRelease(preRelease);
-      }
-    }
-    if (this.semver.getMajor() == 0 && this.semver.getMinor() == 0 && this.semver.getPatch() == 0) {
-      this.semver = this.semver.withPreRelease(semverJoin(ALPHA, ZERO, Long.toString(this.preReleaseDistance)));
-    }
-  }
-
-  private Optional<String> createBuild() {
-    if (this.preReleaseDistance > 0) {
-      var optSha = Optional.ofNullable(this.uniqueShort);
-
-      return optSha.map(sha -> {
-        var g = Optional.of("git");
-        var distance = Optional.of(this.buildDistance).map(l -> Long.toString(l));
-        var branch = Optional.ofNullable(this.branch);
-        var hasBranch = branch.map(b -> "branch");
-        var status = Optional.ofNullable(this.dirtyOut ? this.status : null)
-          .filter(s -> s == GitStatus.DIRTY)
-          .map(Object::toString);
-
-        return Stream.of(hasBranch, branch, g, distance, optSha, status)
-          .filter(Optional::isPresent)
-          .map(Optional::get)
-          .collect(Collectors.joining(SEMVER_DELIMITER));
-      });
-    }
-    return Optional.empty();
-  }
-
   SemverBuilder withDirtyOut(boolean dirtyOut) {
     this.dirtyOut = dirtyOut;
     return this;
@@ -165,7 +140,7 @@ final class SemverBuilder {
     return this;
   }
 
-  SemverBuilder withGitStatus(GitStatus status) {
+  SemverBuilder withGitStatus(@Nullable GitStatus status) {
     this.status = status;
     return this;
   }
@@ -175,9 +150,56 @@ final class SemverBuilder {
     return this;
   }
 
+  /**
+   * Renders the version into one builder and parses it once, every project of every build renders one.
+   *
+   * @return the version
+   */
   Semver build() {
-    this.createPreRelease();
-    this.createBuild().ifPresent(build -> this.semver = this.semver.withBuild(build));
-    return this.semver;
+    var preRelease = this.semver.getPreRelease();
+    // 1.0 or no tag
+    var increment = this.preReleaseDistance > 0 && preRelease.isEmpty();
+    var major = this.semver.getMajor();
+    var minor = this.semver.getMinor();
+    var patch = increment ? this.semver.getPatch() + 1 : this.semver.getPatch();
+    var version = new StringBuilder(this.capacity(preRelease));
+    version.append(major).append(DOT).append(minor).append(DOT).append(patch);
+    if (increment || (major == 0 && minor == 0 && patch == 0)) {
+      version.append('-').append(ALPHA).append(DOT).append(ZERO).append(DOT).append(this.preReleaseDistance);
+    } else if (!preRelease.isEmpty()) {
+      // rc.1
+      join(version.append('-'), preRelease);
+      if (this.preReleaseDistance > 0) version.append(DOT).append(this.preReleaseDistance);
+    }
+    this.appendBuild(version);
+    return new Semver(version.toString());
+  }
+
+  // the git identifiers replace build metadata of the tag
+  private void appendBuild(StringBuilder version) {
+    if (this.preReleaseDistance > 0 && this.uniqueShort != null) {
+      version.append('+');
+      if (this.branch != null) version.append(BRANCH).append(DOT).append(this.branch).append(DOT);
+      version.append(GIT).append(DOT).append(this.buildDistance).append(DOT).append(this.uniqueShort);
+      if (this.dirtyOut && this.status == GitStatus.DIRTY) version.append(DOT).append(this.status);
+    } else if (!this.semver.getBuild().isEmpty()) {
+      join(version.append('+'), this.semver.getBuild());
+    }
+  }
+
+  private int capacity(List<String> preRelease) {
+    @Var var capacity = CAPACITY;
+    for (var identifier : preRelease) capacity += identifier.length() + 1;
+    for (var identifier : this.semver.getBuild()) capacity += identifier.length() + 1;
+    if (this.branch != null) capacity += this.branch.length();
+    if (this.uniqueShort != null) capacity += this.uniqueShort.length();
+    return capacity;
+  }
+
+  private static void join(StringBuilder version, List<String> identifiers) {
+    for (var i = 0; i < identifiers.size(); i++) {
+      if (i > 0) version.append(DOT);
+      version.append(identifiers.get(i));
+    }
   }
 }
@@ -6,17 +6,22 @@ package com.xenoterracide.gradle.semver;
 
 import com.xenoterracide.gradle.git.GitExtension;
 import com.xenoterracide.gradle.git.GitRemoteForGradle;
+import com.xenoterracide.gradle.git.GitStatus;
 import com.xenoterracide.gradle.git.ProvidedFactory;
 import com.xenoterracide.gradle.git.Provides;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.gradle.api.GradleException;
 import org.gradle.api.Incubating;
 import org.gradle.api.Project;
 import org.gradle.api.Transformer;
+import org.gradle.api.invocation.Gradle;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
 import org.jspecify.annotations.Nullable;
@@ -36,90 +41,173 @@ public class SemverExtension implements Provides<Semver> {
 
   // CHECKSTYLE.ON: FinalClass
 
+  private static final String DEFAULT_TAG_PREFIX = "v";
+  private static final String DEFAULT_REMOTE = "origin";
+  private static final String PUBLISH = "publish";
+
   private final Logger log = Logging.getLogger(this.getClass());
   private final Property<Semver> provider;
   private final Property<Boolean> checkDirty;
   private final Property<String> remote;
-  private final Project project;
+  private final Property<String> tagPrefix;
+  private final Property<Boolean> failOnTimeout;
+  private final ListProperty<Semver> releases;
+  private final Property<Semver> latestRelease;
+  private final String name;
 
   /**
    * Instantiates a new Semver extension.
    *
-   * @param project
-   *   the project
+   * @param pf
+   *   factory for the properties
+   * @param name
+   *   what the version is for, only logged
    */
-  private SemverExtension(Project project) {
-    this.project = project;
-    var pf = new ProvidedFactory(project);
+  SemverExtension(ProvidedFactory pf, String name) {
+    this.name = name;
     this.provider = pf.property(Semver.class);
     this.checkDirty = pf.propertyBoolean();
-    this.remote = pf.propertyString();
+    this.remote = pf.propertyString().convention(DEFAULT_REMOTE);
+    this.tagPrefix = pf.propertyString().convention(DEFAULT_TAG_PREFIX);
+    this.failOnTimeout = pf.propertyBoolean().convention(false);
+    this.releases = pf.listProperty(Semver.class);
+    this.latestRelease = pf.property(Semver.class);
   }
 
   static SemverExtension forProject(Project project) {
-    return new SemverExtension(project).build();
+    var gitExt = project.getExtensions().getByType(GitExtension.class);
+    var ext = new SemverExtension(new ProvidedFactory(project), project.getName());
+    ext.failOnTimeout.convention(publishing(project.getGradle()));
+    return ext.build(gitExt);
   }
 
-  static Optional<GitRemoteForGradle> getOrigin(List<GitRemoteForGradle> remotes) {
-    return remotes
+  // a placeholder version must never be published
+  static boolean publishing(Gradle gradle) {
+    return gradle
+      .getStartParameter()
+      .getTaskNames()
       .stream()
-      .filter(remote -> Objects.equals(remote.getName(), "origin"))
-      .filter(remote -> remote.getHeadBranch().isPresent())
-      .findAny();
+      .anyMatch(task -> task.toLowerCase(Locale.ROOT).contains(PUBLISH));
   }
 
-  static Provider<String> getBranch(GitExtension gitExt) {
-    return gitExt
-      .getRemotes()
-      .map(remotes -> getOrigin(remotes).map(remote -> remote.getHeadBranch().get()))
-      .filter(Optional::isPresent)
-      .map(Optional::get)
+  /**
+   * A view over the version computed once for the build by {@link SemverSettingsPlugin}, its configuration is read
+   * only and comes from settings.
+   *
+   * @param project
+   *   the project
+   * @param service
+   *   holds the version
+   * @return the extension
+   */
+  static SemverExtension forService(Project project, Provider<SemverService> service) {
+    var ext = new SemverExtension(new ProvidedFactory(project), project.getName());
+    ext.checkDirty.set(service.flatMap(s -> s.getParameters().getCheckDirty()));
+    ext.checkDirty.disallowChanges();
+    ext.remote.set(service.flatMap(s -> s.getParameters().getRemote()));
+    ext.remote.disallowChanges();
+    ext.tagPrefix.set(service.flatMap(s -> s.getParameters().getTagPrefix()));
+    ext.tagPrefix.disallowChanges();
+    ext.failOnTimeout.set(service.flatMap(s -> s.getParameters().getFailOnTimeout()));
+    ext.failOnTimeout.disallowChanges();
+    ext.releases(project.getExtensions().getByType(GitExtension.class));
+    return ext.finish(service.map(SemverService::getSemver));
+  }
+
+  static Provider<GitRemoteForGradle> getOrigin(GitExtension gitExt, Provider<String> remote) {
+    return remote.flatMap(gitExt::remote).filter(origin -> origin.getHeadBranch().isPresent());
+  }
+
+  static Provider<String> getBranch(GitExtension gitExt, Provider<GitRemoteForGradle> origin) {
+    return origin
+      .map(remote -> remote.getHeadBranch().get())
       .zip(gitExt.getBranch(), (remoteBranch, localBranch) ->
         Objects.equals(remoteBranch, localBranch) ? null : localBranch
       );
   }
 
-  static Function<GitRemoteForGradle, @Nullable Long> commonAncestorDistanceFor(GitExtension gitExt) {
-    return remote -> gitExt.commonAncestorDistanceFor(remote).orElse(null);
+  static Function<GitRemoteForGradle, @Nullable Long> commonAncestorDistanceFor(GitExtension gitExt, String prefix) {
+    return remote -> gitExt.commonAncestorDistanceFor(remote, prefix).orElse(null);
   }
 
-  static Provider<Long> getDistance(GitExtension gitExt) {
-    return gitExt
-      .getRemotes()
-      .map(SemverExtension::getOrigin)
-      .filter(Optional::isPresent)
-      .map(Optional::get)
+  static Provider<Long> getDistance(GitExtension gitExt, Provider<GitRemoteForGradle> origin, String prefix) {
+    return origin
       .zip(gitExt.getBranch(), (remote, local) -> Objects.equals(remote.headBranch(), local) ? null : remote)
-      .map(commonAncestorDistanceFor(gitExt)::apply)
-      .orElse(gitExt.getDistance());
+      .map(commonAncestorDistanceFor(gitExt, prefix)::apply)
+      .orElse(gitExt.distance(prefix));
   }
 
   Transformer<Semver, Semver> configureBuilder(GitExtension gitExt) {
     return semver -> {
+      var checkDirty = this.getCheckDirty().getOrElse(false);
+      var prefix = this.getTagPrefix().get();
+      // only read the working tree when the status is going to be used
+      var status = checkDirty ? gitExt.getStatus().get() : null;
+      if (gitExt.timedOut(prefix).get() || status == GitStatus.TIMED_OUT) return this.timedOut(gitExt);
+      var origin = getOrigin(gitExt, this.getRemote());
       return new SemverBuilder(semver)
-        .withDirtyOut(this.getCheckDirty().getOrElse(false))
-        .withPreReleaseDistance(getDistance(gitExt).getOrElse(0L))
-        .withBuildDistance(gitExt.getDistance().getOrElse(0L))
-        .withGitStatus(gitExt.getStatus().get())
+        .withDirtyOut(checkDirty)
+        .withPreReleaseDistance(getDistance(gitExt, origin, prefix).getOrElse(0L))
+        .withBuildDistance(gitExt.distance(prefix).getOrElse(0L))
+        .withGitStatus(status)
         .withUniqueShort(gitExt.getUniqueShort().getOrNull())
-        .withBranch(getBranch(gitExt).getOrNull())
+        .withBranch(getBranch(gitExt, origin).getOrNull())
         .build();
     };
   }
 
-  SemverExtension build() {
-    var gitExt = this.project.getExtensions().getByType(GitExtension.class);
+  private Semver timedOut(GitExtension gitExt) {
+    if (this.failOnTimeout.get()) {
+      throw new GradleException("git took longer than its timeout, " + this.name + " has no version to publish");
+    }
+    var semver = SemverBuilder.timedOut(gitExt.getUniqueShort().getOrNull());
+    this.log.warn("semver {} {} is a placeholder, git took longer than its timeout", this.name, semver);
+    return semver;
+  }
 
-    var semverProvider = gitExt
-      .getTag()
-      .map(tag -> Objects.requireNonNull(Semver.parse(tag)))
+  SemverExtension build(GitExtension gitExt) {
+    var semverProvider = this.tagPrefix
+      .flatMap(prefix -> gitExt.tag(prefix).map(tag -> tag.substring(prefix.length())))
+      .map(version -> Objects.requireNonNull(Semver.parse(version)))
       .orElse(Semver.ZERO)
       .map(this.configureBuilder(gitExt))
       .map(semver -> {
-        this.log.info("semver {} {}", this.project.getName(), semver);
+        this.log.info("semver {} {}", this.name, semver);
         return semver;
       });
 
+    // reading the fingerprint makes it a configuration cache input, so the cached version is kept until a ref changes,
+    // a version that checks the working tree is never kept
+    var fingerprint = this.checkDirty.orElse(false).flatMap(gitExt::fingerprint);
+    this.releases(gitExt);
+    return this.finish(fingerprint.zip(semverProvider, (ignored, semver) -> semver));
+  }
+
+  static @Nullable Semver version(String prefix, String tag) {
+    return Semver.parse(tag.substring(prefix.length()));
+  }
+
+  // tags that are not semantic versions, such as v1.2.3.4, are left out
+  private void releases(GitExtension gitExt) {
+    this.releases.set(
+      this.tagPrefix.flatMap(prefix ->
+        gitExt.releases(prefix).map(tags ->
+          tags
+            .stream()
+            .map(tag -> version(prefix, tag))
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList())
+        )
+      )
+    );
+    this.releases.disallowChanges();
+    this.latestRelease.set(
+      this.tagPrefix.flatMap(prefix -> gitExt.latestRelease(prefix).map(tag -> version(prefix, tag)))
+    );
+    this.latestRelease.disallowChanges();
+  }
+
+  private SemverExtension finish(Provider<Semver> semverProvider) {
     this.provider.set(semverProvider);
     this.provider.finalizeValueOnRead();
     this.provider.disallowChanges();
@@ -136,13 +224,37 @@ public class SemverExtension implements Provides<Semver> {
    * @implSpec {@code
    *   <major>.<minor>.<patch>[-<preRelease.tag.headBranchDistance>][+branch.<branch>.]git.<distance>.<sha>[.dirty]]}
    * @implNote The value will not be recalculated more than once per project per build. It is suggested to only use on
-   *   the root project.
+   *   the root project, or to apply {@link SemverSettingsPlugin} which calculates it once for the whole build.
    */
   @Override
   public Provider<Semver> getProvider() {
     return this.provider;
   }
 
+  /**
+   * Every released version, highest first, for release tooling. Pre-releases are included and ranked below their
+   * release. The tags are read in the one scan that also finds the version, and sorted by keys packed from their
+   * versions, each tag is only parsed into a {@link Semver} once the order is known.
+   *
+   * @return released versions provider
+   * @see #getLatestRelease()
+   */
+  @Incubating
+  public Provider<List<Semver>> getReleases() {
+    return this.releases;
+  }
+
+  /**
+   * The highest released version on {@code HEAD} or any of its ancestors. The version of {@link #getProvider()} is
+   * computed from the nearest tag instead, which after merging an older maintenance branch may be a lower one.
+   *
+   * @return latest release provider, absent when no release is reachable
+   */
+  @Incubating
+  public Provider<Semver> getLatestRelease() {
+    return this.latestRelease;
+  }
+
   /**
    * Dirty checking will cause your configuration cache to need to be changed every single file change.
    *
@@ -153,6 +265,30 @@ public class SemverExtension implements Provides<Semver> {
     return this.checkDirty;
   }
 
+  /**
+   * What comes before the version in the names of the tags to version from, so that modules can be versioned
+   * independently with tags such as {@code git-v1.2.0} and {@code semver-v0.13.1}. The prefix is matched exactly, and
+   * tags of every prefix are found in one scan of the repository however many modules ask.
+   *
+   * @return tag prefix configuration property
+   * @implNote The plugin defaults to "v"
+   */
+  public Property<String> getTagPrefix() {
+    return this.tagPrefix;
+  }
+
+  /**
+   * Whether the build fails when git takes longer than {@code git.timeout}, rather than versioning with the placeholder
+   * {@code 0.0.0-alpha.0+git.timeout.<sha>}. A placeholder is fine for a local build but must never be published.
+   *
+   * @return fail on timeout configuration property
+   * @implNote The plugin defaults to true when a task with {@code publish} in its name was requested, false otherwise
+   */
+  @Incubating
+  public Property<Boolean> getFailOnTimeout() {
+    return this.failOnTimeout;
+  }
+
   /**
    * Remote to use for head branch configuration.
    *
@@ -23,6 +23,12 @@ public class SemverPlugin implements Plugin<Project> {
   @Override
   public void apply(Project project) {
     project.getPluginManager().apply(GitPlugin.class);
-    project.getExtensions().add(SEMVER, SemverExtension.forProject(project));
+    var services = project.getGradle().getSharedServices();
+    var name = SemverService.class.getCanonicalName();
+    // registered by the settings plugin, which has already computed the version for the whole build
+    var ext = services.getRegistrations().findByName(name) != null
+      ? SemverExtension.forService(project, services.registerIfAbsent(name, SemverService.class))
+      : SemverExtension.forProject(project);
+    project.getExtensions().add(SEMVER, ext);
   }
 }
@@ -0,0 +1,85 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.semver;
+
+import java.util.Objects;
+import javax.inject.Inject;
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.jspecify.annotations.Nullable;
+import org.semver4j.Semver;
+
+/**
+ * Build Service holding the version {@link SemverSettingsPlugin} computed, so that every project sees the same
+ * {@link Semver} without computing it again. This Service should not be considered a published API, and may change or
+ * be removed in future versions.
+ */
+public abstract class SemverService implements BuildService<SemverService.Params> {
+
+  private @Nullable Semver semver;
+
+  /**
+   * Constructor for the Semver Service.
+   */
+  @Inject
+  @SuppressWarnings({ "this-escape", "InjectOnConstructorOfAbstractClass" })
+  public SemverService() {}
+
+  /**
+   * The version, parsed once no matter how many projects ask for it.
+   *
+   * @return the version
+   */
+  public synchronized Semver getSemver() {
+    var parsed = this.semver;
+    if (parsed == null) {
+      parsed = Objects.requireNonNull(Semver.parse(this.getParameters().getVersion().get()));
+      this.semver = parsed;
+    }
+    return parsed;
+  }
+
+  /**
+   * Parameters for the Semver Service.
+   */
+  public interface Params extends BuildServiceParameters {
+    /**
+     * The version, computed when the service is first used.
+     *
+     * @return the version
+     */
+    Property<String> getVersion();
+
+    /**
+     * Whether the version was computed with dirty checking, see {@link SemverExtension#getCheckDirty()}.
+     *
+     * @return dirty check configuration
+     */
+    Property<Boolean> getCheckDirty();
+
+    /**
+     * Remote used for head branch configuration, see {@link SemverExtension#getRemote()}.
+     *
+     * @return remote configuration
+     */
+    Property<String> getRemote();
+
+    /**
+     * Prefix of the tags the version was computed from, see {@link SemverExtension#getTagPrefix()}.
+     *
+     * @return tag prefix configuration
+     */
+    Property<String> getTagPrefix();
+
+    /**
+     * Whether the version failed rather than fell back when git timed out, see
+     * {@link SemverExtension#getFailOnTimeout()}.
+     *
+     * @return fail on timeout configuration
+     */
+    Property<Boolean> getFailOnTimeout();
+  }
+}
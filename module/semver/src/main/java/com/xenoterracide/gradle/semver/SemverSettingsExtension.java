@@ -0,0 +1,37 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.semver;
+
+import com.xenoterracide.gradle.git.ProvidedFactory;
+import org.gradle.api.provider.Property;
+
+/**
+ * {@link SemverExtension} for settings, configures the version computed once for the whole build.
+ */
+public final class SemverSettingsExtension extends SemverExtension {
+
+  private final Property<Boolean> assignVersion;
+
+  /**
+   * Instantiates a new Semver settings extension.
+   *
+   * @param pf
+   *   factory for the properties
+   */
+  SemverSettingsExtension(ProvidedFactory pf) {
+    super(pf, "settings");
+    this.assignVersion = pf.propertyBoolean().convention(true);
+  }
+
+  /**
+   * Whether every project's {@code version} is set to the computed version before the project is configured.
+   *
+   * @return assign version configuration property
+   * @implNote The plugin defaults to true
+   */
+  public Property<Boolean> getAssignVersion() {
+    return this.assignVersion;
+  }
+}
@@ -0,0 +1,65 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.semver;
+
+import com.xenoterracide.gradle.git.GitExtension;
+import com.xenoterracide.gradle.git.GitSettingsPlugin;
+import com.xenoterracide.gradle.git.ProvidedFactory;
+import javax.inject.Inject;
+import org.gradle.api.Plugin;
+import org.gradle.api.initialization.Settings;
+import org.gradle.api.model.ObjectFactory;
+import org.semver4j.Semver;
+
+/**
+ * {@link SemverPlugin} for settings, computes the version once for the whole build instead of once per project. The
+ * {@code semver} extension of any project applying {@link SemverPlugin} becomes a view over that one version, and each
+ * project's {@code version} is set to it unless {@link SemverSettingsExtension#getAssignVersion()} is false.
+ */
+public class SemverSettingsPlugin implements Plugin<Settings> {
+
+  private static final String SEMVER = "semver";
+
+  private final ObjectFactory objects;
+
+  /**
+   * Instantiates a new Semver settings plugin.
+   *
+   * @param objects
+   *   object factory, settings do not expose one
+   */
+  @Inject
+  public SemverSettingsPlugin(ObjectFactory objects) {
+    this.objects = objects;
+  }
+
+  @Override
+  public void apply(Settings settings) {
+    settings.getPluginManager().apply(GitSettingsPlugin.class);
+    var gitExt = settings.getExtensions().getByType(GitExtension.class);
+    var ext = new SemverSettingsExtension(new ProvidedFactory(this.objects, settings.getProviders()));
+    ext.getFailOnTimeout().convention(SemverExtension.publishing(settings.getGradle()));
+    ext.build(gitExt);
+    settings.getExtensions().add(SEMVER, ext);
+
+    var service = settings
+      .getGradle()
+      .getSharedServices()
+      .registerIfAbsent(SemverService.class.getCanonicalName(), SemverService.class, spec -> {
+        spec.getParameters().getVersion().set(ext.getProvider().map(Semver::toString));
+        spec.getParameters().getCheckDirty().set(ext.getCheckDirty());
+        spec.getParameters().getRemote().set(ext.getRemote());
+        spec.getParameters().getTagPrefix().set(ext.getTagPrefix());
+        spec.getParameters().getFailOnTimeout().set(ext.getFailOnTimeout());
+      });
+
+    // the root project is configured first, so the version is computed before any build script runs
+    settings
+      .getGradle()
+      .beforeProject(project -> {
+        if (ext.getAssignVersion().get()) project.setVersion(service.get().getSemver());
+      });
+  }
+}
@@ -21,10 +21,24 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.ArgumentsProvider;
 import org.junit.jupiter.params.provider.ArgumentsSource;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.semver4j.Semver;
 
 class SemverBuilderTest {
 
+  @ParameterizedTest
+  @CsvSource(
+    value = { "abcdef01, 0.0.0-alpha.0+git.timeout.abcdef01", "NULL, 0.0.0-alpha.0+git.timeout" },
+    nullValues = "NULL"
+  )
+  void timedOut(@Nullable String uniqueShort, String expected) {
+    var placeholder = SemverBuilder.timedOut(uniqueShort);
+
+    assertThat(placeholder).hasToString(expected);
+    // below any version computed from the history, so it never wins a version conflict
+    assertThat(placeholder).isLessThan(Semver.parse("0.0.0-alpha.0.0"));
+  }
+
   @ParameterizedTest
   @ArgumentsSource(VersionProvider.class)
   void dirty(
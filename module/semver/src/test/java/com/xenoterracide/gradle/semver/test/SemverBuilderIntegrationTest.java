@@ -167,6 +167,31 @@ class SemverBuilderIntegrationTest {
     }
   }
 
+  // on a branch the pre-release distance is counted from the merge base, to the module's own tags too
+  @Test
+  void branchWithTagPrefix() throws Exception {
+    Git.init().setDirectory(bareRepo).setInitialBranch(MAIN).setBare(true).call().close();
+    try (var git = Git.init().setDirectory(projectDir).setInitialBranch(MAIN).call()) {
+      git.remoteAdd().setUri(new URIish(bareRepo.toURI().toString())).setName(ORIGIN).call();
+      commit(git);
+      git.tag().setName("foo-v1.2.3").call();
+      commit(git);
+      git.tag().setName("v9.0.0").call();
+      commit(git);
+      git.push().setRemote(ORIGIN).setPushAll().call();
+      new ProcessBuilder("git", "remote", "set-head", ORIGIN, "--auto").directory(projectDir).start().waitFor();
+      git.checkout().setCreateBranch(true).setName("topic").call();
+      commit(git);
+
+      var project = ProjectBuilder.builder().withProjectDir(projectDir).build();
+      project.getPluginManager().apply(SemverPlugin.class);
+      var ext = project.getExtensions().getByType(SemverExtension.class);
+      ext.getTagPrefix().set("foo-v");
+
+      assertThat(ext.getProvider().get()).asString().startsWith("1.2.4-alpha.0.2+branch.topic.git.3.");
+    }
+  }
+
   @Test
   void noHeadBranch() throws Exception {
     var pb = ProjectBuilder.builder().withProjectDir(projectDir);
@@ -5,11 +5,17 @@
 package com.xenoterracide.gradle.semver.test;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import com.xenoterracide.gradle.git.GitExtension;
 import com.xenoterracide.gradle.semver.SemverExtension;
 import com.xenoterracide.gradle.semver.SemverPlugin;
+import com.xenoterracide.gradle.semver.SemverService;
 import java.io.File;
+import java.time.Duration;
+import java.util.List;
 import org.eclipse.jgit.api.Git;
+import org.gradle.api.GradleException;
 import org.gradle.api.Project;
 import org.gradle.testfixtures.ProjectBuilder;
 import org.jspecify.annotations.NonNull;
@@ -51,4 +57,69 @@ class SemverPluginTest {
     var semver = project.getExtensions().getByType(SemverExtension.class).getProvider();
     assertThat(semver.get()).hasToString("0.1.3");
   }
+
+  @Test
+  void releases() throws Exception {
+    var main = git.getRepository().getBranch();
+    git.checkout().setCreateBranch(true).setName("next").call();
+    git.commit().setMessage("next").setAllowEmpty(true).call();
+    git.tag().setName("v1.0.0-rc.1").call();
+    git.tag().setName("v1.2.3.4").call();
+    git.checkout().setName(main).call();
+
+    project.getPluginManager().apply(SemverPlugin.class);
+    var ext = project.getExtensions().getByType(SemverExtension.class);
+
+    assertThat(ext.getReleases().get())
+      .map(Object::toString)
+      .containsExactly("1.0.0-rc.1", "0.1.3", "0.1.2", "0.1.1");
+    assertThat(ext.getLatestRelease().get()).hasToString("0.1.3");
+  }
+
+  @Test
+  void applyWithSettingsService() {
+    project
+      .getGradle()
+      .getSharedServices()
+      .registerIfAbsent(SemverService.class.getCanonicalName(), SemverService.class, spec -> {
+        spec.getParameters().getVersion().set("1.2.3");
+        spec.getParameters().getCheckDirty().set(true);
+      });
+    project.getPluginManager().apply(SemverPlugin.class);
+    var ext = project.getExtensions().getByType(SemverExtension.class);
+    assertThat(ext.getProvider().get()).hasToString("1.2.3");
+    assertThat(ext.getCheckDirty().get()).isTrue();
+  }
+
+  @Test
+  void timedOutIsPlaceholder() {
+    project.getPluginManager().apply(SemverPlugin.class);
+    // no history walk finishes within a nanosecond
+    project.getExtensions().getByType(GitExtension.class).getTimeout().set(Duration.ofNanos(1));
+    var ext = project.getExtensions().getByType(SemverExtension.class);
+
+    assertThat(ext.getFailOnTimeout().get()).isFalse();
+    assertThat(ext.getProvider().get()).asString().startsWith("0.0.0-alpha.0+git.timeout");
+  }
+
+  @Test
+  void failOnTimeout() {
+    project.getPluginManager().apply(SemverPlugin.class);
+    project.getExtensions().getByType(GitExtension.class).getTimeout().set(Duration.ofNanos(1));
+    var ext = project.getExtensions().getByType(SemverExtension.class);
+    ext.getFailOnTimeout().set(true);
+
+    assertThatThrownBy(() -> ext.getProvider().get())
+      .isInstanceOf(GradleException.class)
+      .hasMessageContaining("no version to publish");
+  }
+
+  @Test
+  void failOnTimeoutWhenPublishing() {
+    project.getGradle().getStartParameter().setTaskNames(List.of("build", "publishToMavenLocal"));
+    project.getPluginManager().apply(SemverPlugin.class);
+    var ext = project.getExtensions().getByType(SemverExtension.class);
+
+    assertThat(ext.getFailOnTimeout().get()).isTrue();
+  }
 }
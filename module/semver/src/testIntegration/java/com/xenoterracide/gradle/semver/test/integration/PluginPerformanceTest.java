@@ -0,0 +1,255 @@
+// SPDX-FileCopyrightText: Copyright © 2025 Caleb Cushing
+//
+// SPDX-License-Identifier: GPL-3.0-or-later WITH Classpath-exception-2.0
+
+package com.xenoterracide.gradle.semver.test.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.xenoterracide.gradle.git.fixtures.HistoryGenerator;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import jdk.jfr.consumer.RecordingFile;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.gradle.testkit.runner.GradleRunner;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Builds generated projects twice, storing and then reusing the configuration cache, and writes how long configuring
+ * took, how many git operations ran and whether the cache was reused to {@code <scenario>.json} in the directory the
+ * {@code performance.results} system property names. Git operations are counted from the plugin's JFR events, dumped
+ * from the daemon after each build.
+ */
+@Tag("performance")
+class PluginPerformanceTest {
+
+  static final String GIT_OPERATION = "com.xenoterracide.gradle.git.Operation";
+  static final String RECORDING = "git";
+  static final String SETTINGS = "settings.gradle";
+  static final String BUILD = "build.gradle";
+  static final String DAEMON_ARGS = "org.gradle.jvmargs=-Xmx1g -XX:StartFlightRecording=name=" + RECORDING + "\n";
+  static final Pattern CONFIGURATION = Pattern.compile("configuration-ms:(\\d+)");
+  static final Pattern DAEMON = Pattern.compile("daemon-pid:(\\d+)");
+  static final Pattern SEMVER = Pattern.compile("semver:(\\S+)");
+
+  // run before settings, configuration ends once the task graph is ready
+  static final String TIMING = """
+    def started = System.nanoTime()
+    gradle.taskGraph.whenReady {
+      println("configuration-ms:" + (System.nanoTime() - started).intdiv(1_000_000))
+      println("daemon-pid:" + ProcessHandle.current().pid())
+    }
+    """;
+  static final String PROJECT = """
+    plugins {
+      id("com.xenoterracide.gradle.semver")
+    }
+    semver.checkDirty.set(%s)
+    tasks.register("logSemver") {
+      def semver = semver.provider.get()
+      doLast {
+        logger.quiet("semver:" + semver)
+      }
+    }
+    """;
+
+  @TempDir(cleanup = CleanupMode.ON_SUCCESS)
+  File projectDir;
+
+  @TempDir(cleanup = CleanupMode.ON_SUCCESS)
+  File testKitDir;
+
+  static HistoryGenerator generator() {
+    return HistoryGenerator.cached().remote("origin").diverged(5, 5);
+  }
+
+  @Test
+  void largeHistory() throws Exception {
+    this.project(generator().commits(200_000).tagEvery(100_000), 0, false);
+    this.measure("large-history");
+  }
+
+  @Test
+  void manyTags() throws Exception {
+    this.project(generator().commits(20_000).tagEvery(2), 0, false);
+    this.measure("many-tags");
+  }
+
+  @Test
+  void manySubprojects() throws Exception {
+    this.project(generator().commits(10_000).tagEvery(100), 500, false);
+    this.measure("500-subprojects");
+  }
+
+  @Test
+  void checkDirtyLargeWorkTree() throws Exception {
+    this.project(generator().commits(10_000).tagEvery(100).files(50_000), 0, true);
+    // the working tree is checked on every build, so the configuration is never reused
+    this.measure("check-dirty-large-worktree", false);
+  }
+
+  // a copy of the generated checkout with the build committed, so the cached repository stays untouched
+  void project(HistoryGenerator history, int subprojects, boolean checkDirty) throws IOException, GitAPIException {
+    try (var repo = history.open()) {
+      copy(repo.getWorkTree().toPath(), this.projectDir.toPath());
+    }
+    var root = this.projectDir.toPath();
+    var build = String.format(PROJECT, checkDirty);
+    var names = IntStream.rangeClosed(1, subprojects).mapToObj(i -> "sub" + i).collect(Collectors.toList());
+    Files.writeString(root.resolve(".gitignore"), ".gradle/\nbuild/\n");
+    Files.writeString(root.resolve("gradle.properties"), DAEMON_ARGS);
+    Files.writeString(root.resolve(SETTINGS), settings(names));
+    Files.writeString(root.resolve(BUILD), build);
+    for (var name : names) {
+      Files.createDirectories(root.resolve(name));
+      Files.writeString(root.resolve(name).resolve(BUILD), build);
+    }
+    try (var git = Git.open(this.projectDir)) {
+      git.add().addFilepattern(".").call();
+      git.commit().setMessage("build").call();
+    }
+  }
+
+  static String settings(List<String> subprojects) {
+    var includes = subprojects.stream().map(name -> "'" + name + "'").collect(Collectors.joining(", "));
+    return """
+      plugins {
+        id("com.xenoterracide.gradle.semver.settings")
+      }
+      rootProject.name = "performance"
+      """ + (includes.isEmpty() ? "" : "include(" + includes + ")\n");
+  }
+
+  static void copy(Path from, Path to) throws IOException {
+    try (var paths = Files.walk(from)) {
+      for (var path : (Iterable<Path>) paths::iterator) {
+        var target = to.resolve(from.relativize(path).toString());
+        if (Files.isDirectory(path)) {
+          Files.createDirectories(target);
+        } else {
+          Files.copy(path, target, StandardCopyOption.COPY_ATTRIBUTES, StandardCopyOption.REPLACE_EXISTING);
+        }
+      }
+    }
+  }
+
+  void measure(String scenario) throws Exception {
+    this.measure(scenario, true);
+  }
+
+  void measure(String scenario, boolean reusable) throws Exception {
+    var init = this.testKitDir.toPath().resolve("timing.gradle");
+    Files.writeString(init, TIMING);
+    var miss = this.run(init, null);
+    var hit = this.run(init, miss.daemon());
+
+    assertThat(miss.reused()).isFalse();
+    assertThat(miss.gitOperations()).isPositive();
+    assertThat(hit.reused()).isEqualTo(reusable);
+    assertThat(hit.semver()).isEqualTo(miss.semver());
+
+    var results = Path.of(System.getProperty("performance.results", "build/reports/performance"));
+    Files.createDirectories(results);
+    Files.writeString(results.resolve(scenario + ".json"), json(scenario, miss, hit));
+  }
+
+  Run run(Path init, @Nullable Long daemon) throws Exception {
+    var started = Instant.now();
+    var nanos = System.nanoTime();
+    var result = GradleRunner.create()
+      .withProjectDir(this.projectDir)
+      .withTestKitDir(this.testKitDir)
+      .withArguments("logSemver", "--configuration-cache", "--init-script", init.toString(), "--stacktrace")
+      .withPluginClasspath()
+      .build();
+    var buildMillis = (System.nanoTime() - nanos) / 1_000_000;
+    var output = result.getOutput();
+    assertThat(output).contains("BUILD SUCCESSFUL");
+
+    // only printed when configuring, a reused configuration ran on the same daemon
+    var configuration = number(CONFIGURATION, output);
+    var pid = configuration != null ? number(DAEMON, output) : daemon;
+    return new Run(
+      output.contains("Reusing configuration cache."),
+      buildMillis,
+      configuration,
+      this.gitOperations(pid, started),
+      pid,
+      find(SEMVER, output)
+    );
+  }
+
+  static @Nullable String find(Pattern pattern, String output) {
+    var matcher = pattern.matcher(output);
+    return matcher.find() ? matcher.group(1) : null;
+  }
+
+  static @Nullable Long number(Pattern pattern, String output) {
+    var found = find(pattern, output);
+    return found != null ? Long.valueOf(found) : null;
+  }
+
+  // dumps the daemon's recording and counts the operations since the build started
+  long gitOperations(@Nullable Long pid, Instant since) throws Exception {
+    assertThat(pid).as("daemon pid").isNotNull();
+    var dump = this.testKitDir.toPath().resolve(RECORDING + "-" + since.toEpochMilli() + ".jfr");
+    var jcmd = Path.of(System.getProperty("java.home"), "bin", "jcmd").toString();
+    var process = new ProcessBuilder(jcmd, String.valueOf(pid), "JFR.dump", "name=" + RECORDING, "filename=" + dump)
+      .redirectErrorStream(true)
+      .start();
+    var log = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    assertThat(process.waitFor()).as(log).isZero();
+    return RecordingFile.readAllEvents(dump)
+      .stream()
+      .filter(event -> event.getEventType().getName().equals(GIT_OPERATION))
+      .filter(event -> !event.getStartTime().isBefore(since))
+      .count();
+  }
+
+  static String json(String scenario, Run miss, Run hit) {
+    return String.format(
+      Locale.ROOT,
+      "{%n  \"scenario\": \"%s\",%n  \"runs\": [%n%s,%n%s%n  ]%n}%n",
+      scenario,
+      miss.json("miss"),
+      hit.json("hit")
+    );
+  }
+
+  record Run(
+    boolean reused,
+    long buildMillis,
+    @Nullable Long configurationMillis,
+    long gitOperations,
+    @Nullable Long daemon,
+    @Nullable String semver
+  ) {
+    String json(String configurationCache) {
+      return String.format(
+        Locale.ROOT,
+        "    { \"configurationCache\": \"%s\", \"reused\": %s, \"buildMillis\": %d, \"configurationMillis\": %s, "
+        + "\"gitOperations\": %d }",
+        configurationCache,
+        this.reused,
+        this.buildMillis,
+        this.configurationMillis,
+        this.gitOperations
+      );
+    }
+  }
+}
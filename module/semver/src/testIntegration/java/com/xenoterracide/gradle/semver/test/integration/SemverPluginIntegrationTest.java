@@ -119,6 +119,42 @@ class SemverPluginIntegrationTest {
     assertThat(build.getOutput()).contains("semver:0.0.0", "BUILD SUCCESSFUL");
   }
 
+  @Test
+  void settingsPlugin() throws IOException {
+    var settings = """
+      plugins {
+        id("com.xenoterracide.gradle.semver.settings")
+      }
+      rootProject.name = "hello-world"
+      include("sub")
+      """;
+    var build = """
+      plugins {
+        id("com.xenoterracide.gradle.semver")
+      }
+      tasks.register("logSemver") {
+        def semver = semver.provider.get()
+        def version = project.version
+        doLast {
+          logger.quiet("semver:" + semver + " version:" + version)
+        }
+      }
+      """;
+    Files.writeString(testProjectDir.toPath().resolve("settings.gradle"), settings);
+    Files.writeString(testProjectDir.toPath().resolve("build.gradle"), build);
+    Files.createDirectories(testProjectDir.toPath().resolve("sub"));
+    Files.writeString(testProjectDir.toPath().resolve("sub/build.gradle"), build);
+
+    var result = GradleRunner.create()
+      .withProjectDir(testProjectDir)
+      .withArguments("logSemver", "--configuration-cache", "--stacktrace")
+      .withPluginClasspath()
+      .build();
+
+    assertThat(result.getOutput().split("semver:0.1.0 version:0.1.0", -1)).hasSize(3);
+    assertThat(result.getOutput()).contains("BUILD SUCCESSFUL");
+  }
+
   static class BuildScriptArgumentsProvider implements ArgumentsProvider {
 
     @Override